@@ -4,6 +4,7 @@ plugins {
     `maven-publish`
     id("org.springframework.boot") version "3.3.5"
     id("io.spring.dependency-management") version "1.1.6"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "io.github.orz-api"
@@ -43,9 +44,13 @@ repositories {
 dependencies {
     api("io.github.orz-api:orz-base-spring-boot-starter:0.0.3")
     api("org.springframework.boot:spring-boot-starter-web")
+    compileOnly("io.micrometer:micrometer-core")
+    compileOnly("org.springframework.boot:spring-boot-actuator")
 
     annotationProcessor("org.springframework.boot:spring-boot-configuration-processor")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testImplementation("io.micrometer:micrometer-core")
+    testImplementation("org.springframework.boot:spring-boot-actuator")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 
     // fix test error [java.net.HttpRetryException: cannot retry due to server authentication, in streaming mode]
@@ -55,12 +60,50 @@ dependencies {
     testCompileOnly("org.projectlombok:lombok")
     annotationProcessor("org.projectlombok:lombok")
     testAnnotationProcessor("org.projectlombok:lombok")
+
+    jmh("org.springframework.boot:spring-boot-starter-test")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+tasks.test {
+    useJUnitPlatform {
+        excludeTags("load")
+    }
+}
+
+// ./gradlew loadTest -Porz.load.concurrency=32 -Porz.load.update-baseline=true
+// fails without a baseline; record one first, or pass -Porz.load.skip-baseline=true to run without comparison
+val loadTest by tasks.registering(Test::class) {
+    description = "Runs the end-to-end load test against the test App."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("load")
+    }
+    systemProperties(project.properties.filterKeys { it.startsWith("orz.load.") })
+    outputs.upToDateWhen { false }
+    testLogging {
+        showStandardStreams = true
+    }
+}
+
+jmh {
+    jmhVersion = "1.37"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    profilers = listOf("gc")
+    includeTests = true
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+    // ./gradlew jmh -PjmhIncludes=OrzWebHandlerBenchmark
+    (findProperty("jmhIncludes") as String?)?.let { includes = listOf(it) }
+}
+
 tasks.javadoc {
     val options = (options as StandardJavadocDocletOptions)
     options.encoding("UTF-8")
@@ -0,0 +1,66 @@
+package orz.springboot.web;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import orz.springboot.web.api.scope_v1.TestQueryV1Api;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrzWebAdviceBenchmark {
+    private OrzWebAdvice advice;
+    private HandlerMethod handlerMethod;
+    private MethodParameter returnType;
+    private MockHttpServletRequest request;
+    private ServletServerHttpRequest serverRequest;
+    private ServletServerHttpResponse serverResponse;
+    private TestQueryV1Api.TestQueryV1ApiRsp body;
+    private OrzWebException declared;
+    private OrzWebException undeclared;
+
+    @Setup
+    public void setup(OrzWebBenchmarkApp app) throws NoSuchMethodException {
+        advice = app.getBean(OrzWebAdvice.class);
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        handlerMethod = new HandlerMethod(app.getBean(TestQueryV1Api.class), method);
+        returnType = new MethodParameter(method, -1);
+        request = new MockHttpServletRequest("PUT", "/ScopeV1/Test/QueryV1");
+        serverRequest = new ServletServerHttpRequest(request);
+        serverResponse = new ServletServerHttpResponse(new MockHttpServletResponse());
+        body = new TestQueryV1Api.TestQueryV1ApiRsp("6");
+        declared = OrzWebException.stackless("1");
+        undeclared = OrzWebException.stackless("not_exists_code");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public Object beforeBodyWrite() {
+        return advice.beforeBodyWrite(body, returnType, MediaType.APPLICATION_JSON, MappingJackson2HttpMessageConverter.class, serverRequest, serverResponse);
+    }
+
+    @Benchmark
+    public Object handleDeclaredError() throws Exception {
+        return advice.handleWebApiException(declared, handlerMethod, request);
+    }
+
+    @Benchmark
+    public Object handleUndeclaredError() throws Exception {
+        return advice.handleWebApiException(undeclared, handlerMethod, request);
+    }
+}
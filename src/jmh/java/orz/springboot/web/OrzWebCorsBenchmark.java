@@ -0,0 +1,46 @@
+package orz.springboot.web;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.filter.CorsFilter;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrzWebCorsBenchmark {
+    private static final FilterChain CHAIN = (request, response) -> {
+    };
+
+    // none: 非跨域请求；simple: 跨域请求；preflight: 预检请求
+    @Param({"none", "simple", "preflight"})
+    private String kind;
+
+    private CorsFilter filter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setup() {
+        filter = new OrzWebCorsConfiguration(new OrzWebProps()).corsFilter();
+        if ("preflight".equals(kind)) {
+            request = new MockHttpServletRequest("OPTIONS", "/ScopeV1/Test/QueryV1");
+            request.addHeader("Access-Control-Request-Method", "PUT");
+            request.addHeader("Access-Control-Request-Headers", "Content-Type, Orz-Request-Id");
+        } else {
+            request = new MockHttpServletRequest("PUT", "/ScopeV1/Test/QueryV1");
+        }
+        if (!"none".equals(kind)) {
+            request.addHeader("Origin", "https://app.example.com");
+        }
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, CHAIN);
+        return response;
+    }
+}
@@ -0,0 +1,49 @@
+package orz.springboot.web;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrzWebDispatchBenchmark {
+    // 6: 成功；1: 声明的错误码
+    @Param({"6", "1"})
+    private String test;
+
+    private MockMvc mockMvc;
+    private String content;
+    private OrzWebProps.RequestHeadersConfig field;
+
+    @Setup
+    public void setup(OrzWebBenchmarkApp app) {
+        mockMvc = app.mockMvc;
+        content = "{\"test\":\"" + test + "\"}";
+        field = app.getBean(OrzWebProps.class).getRequestHeaders();
+    }
+
+    @Benchmark
+    public Object queryV1() throws Exception {
+        return mockMvc.perform(buildRequest()).andReturn();
+    }
+
+    private MockHttpServletRequestBuilder buildRequest() {
+        return put("/ScopeV1/Test/QueryV1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(content)
+                .header(field.getRequestId(), "5f0c2b1e-2f7a-4b53-9a4e-1b3c5d7e9f00")
+                .header(field.getRequestTime(), "20240102030405123")
+                .header(field.getClientType(), "ios")
+                .header(field.getClientVersion(), "10203")
+                .header(field.getInitialTime(), "20230101000000")
+                .header(field.getLaunchTime(), "20240102030000")
+                .header(field.getDeviceId(), "device-0001")
+                .header("Origin", "https://app.example.com");
+    }
+}
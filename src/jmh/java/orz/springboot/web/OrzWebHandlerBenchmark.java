@@ -0,0 +1,52 @@
+package orz.springboot.web;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import orz.springboot.web.model.OrzWebProtocolBo;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrzWebHandlerBenchmark {
+    // 暴露错误原因时无法使用错误响应模板，作为对照组
+    @Param({"false", "true"})
+    private boolean exposeErrorReason;
+
+    private OrzWebHandler handler;
+    private ServletServerHttpResponse response;
+    private MockHttpServletRequest request;
+    private OrzWebProtocolBo protocol;
+    private String encodedNotice;
+    private Exception exception;
+
+    @Setup
+    public void setup() {
+        var props = new OrzWebProps();
+        props.setExposeErrorReason(exposeErrorReason);
+        handler = new OrzWebHandler(props);
+        response = new ServletServerHttpResponse(new MockHttpServletResponse());
+        request = new MockHttpServletRequest("PUT", "/ScopeV1/Test/MutationV1");
+        protocol = OrzWebProtocolBo.error("1", "余额不足，请充值后重试");
+        encodedNotice = OrzWebUtils.encodeNotice(protocol.getNotice());
+        exception = OrzWebException.stackless("1");
+    }
+
+    @Benchmark
+    public Object processSuccessResponse() {
+        return handler.processSuccessResponse(null, response);
+    }
+
+    @Benchmark
+    public Object buildErrorResponseDeclared() {
+        return handler.buildErrorResponse(protocol, encodedNotice, "error reason", null, exception, request);
+    }
+
+    @Benchmark
+    public Object buildErrorResponseEncodeNotice() {
+        return handler.buildErrorResponse(protocol, "error reason", null, exception, request);
+    }
+}
@@ -0,0 +1,98 @@
+package orz.springboot.web;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrzWebRequestHeadersExtractorBenchmark {
+    @Param({"true", "false"})
+    private boolean lazy;
+
+    // all: 全部请求头；minimal: 只有必需的请求头
+    @Param({"all", "minimal"})
+    private String headers;
+
+    private OrzWebRequestHeadersExtractor extractor;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setup() {
+        var props = new OrzWebProps();
+        props.getRequestHeaders().setLazy(lazy);
+        extractor = new OrzWebRequestHeadersExtractor(props);
+        request = "all".equals(headers) ? buildRequest(props.getRequestHeaders()) : buildMinimalRequest(props.getRequestHeaders());
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public Object extractOnly() {
+        request.clearAttributes();
+        return extractor.extract(request);
+    }
+
+    @Benchmark
+    public Object readClientType() {
+        request.clearAttributes();
+        return extractor.extract(request).getClientType();
+    }
+
+    @Benchmark
+    public void readAll(Blackhole blackhole) {
+        request.clearAttributes();
+        var headers = extractor.extract(request);
+        blackhole.consume(headers.getRequestTime());
+        blackhole.consume(headers.getClientIp());
+        blackhole.consume(headers.getClientVersion());
+        blackhole.consume(headers.getInitialTime());
+        blackhole.consume(headers.getLaunchTime());
+    }
+
+    static MockHttpServletRequest buildMinimalRequest(OrzWebProps.RequestHeadersConfig field) {
+        var request = new MockHttpServletRequest("PUT", "/ScopeV1/Test/QueryV1");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader(field.getRequestId(), "5f0c2b1e-2f7a-4b53-9a4e-1b3c5d7e9f00");
+        request.addHeader(field.getRequestTime(), "20240102030405123");
+        request.addHeader(field.getClientType(), "ios");
+        request.addHeader(field.getClientVersion(), "10203");
+        request.addHeader(field.getInitialTime(), "20230101000000");
+        request.addHeader(field.getLaunchTime(), "20240102030000");
+        request.addHeader(field.getDeviceId(), "device-0001");
+        return request;
+    }
+
+    static MockHttpServletRequest buildRequest(OrzWebProps.RequestHeadersConfig field) {
+        var request = new MockHttpServletRequest("PUT", "/ScopeV1/Test/QueryV1");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader(field.getRequestId(), "5f0c2b1e-2f7a-4b53-9a4e-1b3c5d7e9f00");
+        request.addHeader(field.getRequestTime(), "20240102030405123");
+        request.addHeader(field.getUserId(), "10001");
+        request.addHeader(field.getUserType(), "member");
+        request.addHeader("X-Forwarded-For", "203.0.113.7, 10.0.0.2");
+        request.addHeader(field.getClientType(), "ios");
+        request.addHeader(field.getClientVersion(), "10203");
+        request.addHeader(field.getClientChannel(), "app_store");
+        request.addHeader(field.getInitialTime(), "20230101000000");
+        request.addHeader(field.getLaunchTime(), "20240102030000");
+        request.addHeader(field.getLaunchScene(), "push");
+        request.addHeader(field.getDeviceId(), "device-0001");
+        request.addHeader(field.getDeviceBrand(), "Apple");
+        request.addHeader(field.getDeviceModel(), "iPhone15,2");
+        request.addHeader(field.getOsType(), "ios");
+        request.addHeader(field.getOsName(), "iOS");
+        request.addHeader(field.getPlatformVersion(), "17.2");
+        request.addHeader(field.getPlatformSDKVersion(), "17");
+        return request;
+    }
+}
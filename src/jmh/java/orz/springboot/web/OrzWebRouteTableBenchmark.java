@@ -0,0 +1,57 @@
+package orz.springboot.web;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 路由查找耗时应与注册的接口数量无关
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrzWebRouteTableBenchmark {
+    @Param({"10", "100", "1000", "5000"})
+    private int size;
+
+    private OrzWebRouteTable<Object> routes;
+    private String[] queryPaths;
+    private String[] mutationPaths;
+    private int index;
+
+    @Setup
+    public void setup() {
+        routes = new OrzWebRouteTable<>();
+        queryPaths = new String[size];
+        mutationPaths = new String[size];
+        for (int i = 0; i < size; i++) {
+            var queryPath = "/ScopeV1/Domain" + i + "/Resource" + i + "QueryV1";
+            var mutationPath = "/ScopeV1/Domain" + i + "/Resource" + i + "MutationV1";
+            routes.put(RequestMethod.PUT, queryPath, new Object());
+            routes.put(RequestMethod.POST, mutationPath, new Object());
+            // 使用新的字符串实例，模拟每个请求解析出的路径
+            queryPaths[i] = new String(queryPath);
+            mutationPaths[i] = new String(mutationPath);
+        }
+    }
+
+    @Benchmark
+    public void hit(Blackhole blackhole) {
+        var i = next();
+        blackhole.consume(routes.get("PUT", queryPaths[i]));
+        blackhole.consume(routes.get("POST", mutationPaths[i]));
+    }
+
+    @Benchmark
+    public Object miss() {
+        var i = next();
+        return routes.get("POST", queryPaths[i]);
+    }
+
+    private int next() {
+        index = index + 1 == size ? 0 : index + 1;
+        return index;
+    }
+}
@@ -0,0 +1,30 @@
+package orz.springboot.web;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrzWebUtilsBenchmark {
+    private String packageName;
+    private Integer pageSize;
+
+    // adjustPageSize 从应用上下文读取配置，需要先启动应用
+    @Setup
+    public void setup(OrzWebBenchmarkApp app) {
+        packageName = "orz.springboot.web.api.scope_v1";
+        pageSize = 500;
+    }
+
+    @Benchmark
+    public Object getScopeFromPackage() {
+        return OrzWebUtils.getScopeFromPackage(packageName);
+    }
+
+    @Benchmark
+    public int adjustPageSize() {
+        return OrzWebUtils.adjustPageSize(pageSize);
+    }
+}
@@ -0,0 +1,247 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import orz.springboot.web.model.OrzWebApiBo;
+import orz.springboot.web.model.OrzWebProtocolBo;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.desc;
+import static orz.springboot.base.description.OrzDescriptionUtils.descValues;
+
+/**
+ * 自适应并发限制，由 orz.web.adaptive-limit 配置，按接口或者作用域限制同时处理的请求数，在读取请求体之前检查
+ * <p>
+ * 限制按 AIMD 调整：耗时超过基线（耗时的慢速指数平均）的 latencyTolerance 倍或者请求被并发隔离、超时线程池拒绝时按 backoffRatio 缩减，
+ * 每个基线耗时内最多缩减一次；并发数达到限制的一半以上且耗时正常时加一。
+ * 低优先级请求只在并发数低于限制的 lowPriorityRatio（至少为 1）时接受，过载时先被拒绝。
+ * 幂等、合并请求的拒绝与负载无关，不视为过载。
+ * 指标：orz.web.api.concurrency.limit（当前限制）和 orz.web.api.concurrency.shed（拒绝数）。
+ */
+@Component
+public class OrzWebAdaptiveLimiter {
+    public static final String LIMIT_NAME = "orz.web.api.concurrency.limit";
+    public static final String SHED_NAME = "orz.web.api.concurrency.shed";
+    public static final String REJECTED_REASON = "concurrency limit exceeded";
+
+    // 基线耗时的平滑系数
+    private static final double BASELINE_SMOOTHING = 0.05;
+
+    private final OrzWebProps props;
+    private final OrzWebRequestHeadersExtractor extractor;
+    private final ObjectProvider<OrzWebMetrics> metricsProvider;
+    private final OrzWebProtocolBo protocol;
+    private final Set<String> lowPriorityUserTypes;
+    private final Set<String> lowPriorityClientTypes;
+    private final Map<String, Limit> scopes = new ConcurrentHashMap<>();
+    private final Map<Method, Limit> apis = new ConcurrentHashMap<>();
+
+    public OrzWebAdaptiveLimiter(OrzWebProps props, OrzWebRequestHeadersExtractor extractor, ObjectProvider<OrzWebMetrics> metricsProvider) {
+        var config = props.getAdaptiveLimit();
+        if (config.getMinLimit() > config.getInitialLimit() || config.getInitialLimit() > config.getMaxLimit()) {
+            throw new FatalBeanException(desc("orz.web.adaptive-limit requires minLimit <= initialLimit <= maxLimit", "config", config));
+        }
+        this.props = props;
+        this.extractor = extractor;
+        this.metricsProvider = metricsProvider;
+        this.protocol = OrzWebProtocolBo.error(config.getCode(), null);
+        this.lowPriorityUserTypes = Set.copyOf(config.getLowPriorityUserTypes());
+        this.lowPriorityClientTypes = Set.copyOf(config.getLowPriorityClientTypes());
+    }
+
+    /**
+     * 在映射时注册接口，未启用时跳过
+     *
+     * @param api 接口元数据
+     */
+    public void register(OrzWebApiBo api) {
+        var config = props.getAdaptiveLimit();
+        if (!config.isEnabled()) {
+            return;
+        }
+        var limit = config.isPerScope()
+                ? scopes.computeIfAbsent(api.getScope(), scope -> new Limit(scope, config, new String[]{"scope", scope}))
+                : new Limit(api.getPath(), config, OrzWebMetrics.tags(api));
+        apis.put(api.getMethod(), limit);
+    }
+
+    @Nullable
+    public Limit get(Method method) {
+        return apis.get(method);
+    }
+
+    /**
+     * 占用并发数，超出限制时抛出 OrzWebThrottledException
+     *
+     * @param limit   接口的限制
+     * @param request 请求
+     * @return 开始时间（System.nanoTime），释放时传入
+     */
+    public long acquire(Limit limit, HttpServletRequest request) {
+        limit.registerMeters(this);
+        var max = isLowPriority(request) ? Math.max(1, (int) (limit.limit * props.getAdaptiveLimit().getLowPriorityRatio())) : limit.limit;
+        while (true) {
+            var current = limit.inFlight.get();
+            if (current >= max) {
+                limit.shed.increment();
+                throw new OrzWebThrottledException(REJECTED_REASON, protocol, 0, descValues("limit", limit.name, "inFlight", current, "max", max));
+            }
+            if (limit.inFlight.compareAndSet(current, current + 1)) {
+                return System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * 释放并发数并调整限制
+     *
+     * @param limit   接口的限制
+     * @param start   acquire 返回的开始时间
+     * @param dropped 请求是否被下游拒绝，视为过载
+     */
+    public void release(Limit limit, long start, boolean dropped) {
+        var now = System.nanoTime();
+        var inFlight = limit.inFlight.getAndDecrement();
+        limit.onSample(now, now - start, inFlight, dropped);
+    }
+
+    /**
+     * 下游的拒绝是否表示过载，只有并发隔离和超时线程池的拒绝计入
+     *
+     * @param exception 下游的拒绝
+     * @return 是否视为过载
+     */
+    public static boolean isDropped(OrzWebRejectedException exception) {
+        var reason = exception.getReason();
+        return OrzWebBulkheads.REJECTED_REASON.equals(reason) || OrzWebTimeouts.REJECTED_REASON.equals(reason);
+    }
+
+    /**
+     * 异步请求在完成时释放
+     *
+     * @return 是否已转为在异步完成时释放
+     */
+    public boolean releaseOnAsyncComplete(HttpServletRequest request, Limit limit, long start) {
+        if (!request.isAsyncStarted()) {
+            return false;
+        }
+        request.getAsyncContext().addListener(new ReleaseListener(this, limit, start));
+        return true;
+    }
+
+    private boolean isLowPriority(HttpServletRequest request) {
+        if (lowPriorityUserTypes.isEmpty() && lowPriorityClientTypes.isEmpty()) {
+            return false;
+        }
+        var headers = extractor.extract(request);
+        return (!lowPriorityUserTypes.isEmpty() && headers.getUserType() != null && lowPriorityUserTypes.contains(headers.getUserType()))
+                || (!lowPriorityClientTypes.isEmpty() && headers.getClientType() != null && lowPriorityClientTypes.contains(headers.getClientType()));
+    }
+
+
+    private record ReleaseListener(OrzWebAdaptiveLimiter limiter, Limit limit, long start) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release(limit, start, false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    public static class Limit {
+        private final String name;
+        private final String[] tags;
+        private final int minLimit;
+        private final int maxLimit;
+        private final double latencyTolerance;
+        private final double backoffRatio;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder shed = new LongAdder();
+        private volatile int limit;
+        private volatile boolean metersRegistered = false;
+
+        // 以下字段由 onSample 同步访问
+        private double estimated;
+        private double baselineNanos;
+        private long lastDecrease;
+
+        private Limit(String name, OrzWebProps.AdaptiveLimitConfig config, String[] tags) {
+            this.name = name;
+            this.tags = tags;
+            this.minLimit = config.getMinLimit();
+            this.maxLimit = config.getMaxLimit();
+            this.latencyTolerance = config.getLatencyTolerance();
+            this.backoffRatio = config.getBackoffRatio();
+            this.limit = config.getInitialLimit();
+            this.estimated = config.getInitialLimit();
+            this.lastDecrease = System.nanoTime();
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        public long getShed() {
+            return shed.sum();
+        }
+
+        synchronized void onSample(long now, long rttNanos, int inFlight, boolean dropped) {
+            if (baselineNanos == 0) {
+                baselineNanos = rttNanos;
+            }
+            var overloaded = dropped || rttNanos > baselineNanos * latencyTolerance;
+            if (!dropped) {
+                // 被拒绝的请求耗时很短，不计入基线
+                baselineNanos += (rttNanos - baselineNanos) * BASELINE_SMOOTHING;
+            }
+            if (overloaded) {
+                if (now - lastDecrease >= (long) baselineNanos) {
+                    estimated = Math.max(minLimit, estimated * backoffRatio);
+                    lastDecrease = now;
+                }
+            } else if (inFlight * 2 >= estimated) {
+                estimated = Math.min(maxLimit, estimated + 1);
+            }
+            limit = (int) estimated;
+        }
+
+        private void registerMeters(OrzWebAdaptiveLimiter owner) {
+            if (metersRegistered) {
+                return;
+            }
+            metersRegistered = true;
+            var metrics = owner.metricsProvider.getIfAvailable();
+            if (metrics == null) {
+                return;
+            }
+            metrics.registerGauge(LIMIT_NAME, this, Limit::getLimit, tags);
+            metrics.registerCounter(SHED_NAME, shed, LongAdder::sum, tags);
+        }
+    }
+}
@@ -7,7 +7,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
@@ -17,13 +19,8 @@ import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 import orz.springboot.base.OrzBaseUtils;
 import orz.springboot.web.annotation.OrzWebApi;
-import orz.springboot.web.annotation.OrzWebError;
-import orz.springboot.web.annotation.OrzWebErrors;
 import orz.springboot.web.model.OrzWebProtocolBo;
 
-import java.util.Objects;
-
-import static orz.springboot.alarm.OrzAlarmUtils.alarm;
 import static orz.springboot.base.OrzBaseUtils.hashMap;
 import static orz.springboot.base.description.OrzDescriptionUtils.descTitles;
 
@@ -31,10 +28,19 @@ import static orz.springboot.base.description.OrzDescriptionUtils.descTitles;
 public class OrzWebAdvice implements ResponseBodyAdvice<Object> {
     private static final Logger logger = LoggerFactory.getLogger("orz-web-api");
 
+    private static final OrzWebProtocolBo PROTOCOL_UNDEFINED = OrzWebProtocolBo.error();
+    private static final OrzWebProtocolBo PROTOCOL_REJECTED = OrzWebProtocolBo.error(OrzWebConstants.CODE_REJECTED, null);
+
     private final OrzWebHandler handler;
+    private final OrzWebApiRegistry registry;
+    private final OrzWebServerTiming serverTiming;
+    private final OrzWebAlarms alarms;
 
-    public OrzWebAdvice(OrzWebHandler handler) {
+    public OrzWebAdvice(OrzWebHandler handler, OrzWebApiRegistry registry, OrzWebServerTiming serverTiming, OrzWebAlarms alarms) {
         this.handler = handler;
+        this.registry = registry;
+        this.serverTiming = serverTiming;
+        this.alarms = alarms;
     }
 
     @Override
@@ -44,35 +50,39 @@ public class OrzWebAdvice implements ResponseBodyAdvice<Object> {
 
     @Override
     public Object beforeBodyWrite(@Nullable Object body, @Nonnull MethodParameter returnType, @Nonnull MediaType selectedContentType, @Nonnull Class<? extends HttpMessageConverter<?>> selectedConverterType, @Nonnull ServerHttpRequest request, @Nonnull ServerHttpResponse response) {
+        serverTiming.beforeWrite(response);
         return handler.processSuccessResponse(body, response);
     }
 
     @ExceptionHandler({OrzWebException.class})
     public Object handleWebApiException(Exception topException, HandlerMethod handler, HttpServletRequest request) throws Exception {
         var exception = OrzBaseUtils.getException(OrzWebException.class, topException).orElseThrow(() -> topException);
-        var annotation = getErrorAnnotation(handler, exception.getCode());
+        var error = registry.getError(handler, exception.getCode());
 
         OrzWebProtocolBo protocol;
+        String encodedNotice;
         String reason;
-        if (annotation != null) {
-            protocol = OrzWebProtocolBo.error(annotation.code(), annotation.notice());
-            var desc = descTitles(annotation.reason()).merge(exception.getDescription());
+        if (error != null) {
+            protocol = error.getProtocol();
+            encodedNotice = error.getEncodedNotice();
+            var desc = descTitles(error.getReason()).merge(exception.getDescription());
             reason = StringUtils.defaultIfBlank(desc.toString(), null);
-            if (annotation.alarm()) {
-                alarm("@ORZ_WEB_ERROR_ALARM", reason, topException, hashMap(
+            if (error.isAlarm()) {
+                alarms.alarm("@ORZ_WEB_ERROR_ALARM", exception.getCode(), handler, reason, topException, hashMap(
                         "code", exception.getCode(),
                         "desc", exception.getDescription(),
                         "handler", handler.toString()
                 ));
             }
-            if (annotation.logging() && logger.isErrorEnabled()) {
+            if (error.isLogging() && logger.isErrorEnabled()) {
                 logger.error(desc.values("handler", handler).toString(), topException);
             }
         } else {
-            protocol = OrzWebProtocolBo.error();
+            protocol = PROTOCOL_UNDEFINED;
+            encodedNotice = null;
             var desc = descTitles("error undefined").values("code", exception.getCode()).merge(exception.getDescription());
             reason = desc.toString();
-            alarm("@ORZ_WEB_ERROR_UNDEFINED", reason, topException, hashMap(
+            alarms.alarm("@ORZ_WEB_ERROR_UNDEFINED", exception.getCode(), handler, reason, topException, hashMap(
                     "code", exception.getCode(),
                     "desc", exception.getDescription(),
                     "handler", handler.toString()
@@ -81,23 +91,46 @@ public class OrzWebAdvice implements ResponseBodyAdvice<Object> {
                 logger.error(desc.values("handler", handler).toString(), topException);
             }
         }
-        return this.handler.buildErrorResponse(protocol, reason, null, topException, request);
+        return this.handler.buildErrorResponse(protocol, encodedNotice, reason, null, topException, request);
     }
 
-    private static OrzWebError getErrorAnnotation(HandlerMethod method, String code) {
-        var errors = method.getMethodAnnotation(OrzWebErrors.class);
-        if (errors != null) {
-            for (var error : errors.value()) {
-                if (Objects.equals(error.code(), code)) {
-                    return error;
-                }
-            }
-            return null;
+    /**
+     * 过载保护拒绝的请求是预期内的，不告警，只输出调试日志
+     */
+    @ExceptionHandler({OrzWebRejectedException.class})
+    public Object handleRejectedException(OrzWebRejectedException exception, HandlerMethod handler, HttpServletRequest request) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(descTitles(exception.getReason()).merge(exception.getDescription()).values("handler", handler).toString());
+        }
+        return this.handler.buildErrorResponse(PROTOCOL_REJECTED, exception.getReason(), null, exception, request);
+    }
+
+    /**
+     * 超时告警已经由 OrzWebTimeouts 经 OrzWebAlarms 聚合发送，这里只输出警告日志
+     */
+    @ExceptionHandler({OrzWebTimeoutException.class})
+    public Object handleTimeoutException(OrzWebTimeoutException exception, HandlerMethod handler, HttpServletRequest request) {
+        if (logger.isWarnEnabled()) {
+            logger.warn(descTitles(OrzWebTimeoutException.REASON).merge(exception.getDescription()).values("handler", handler).toString());
+        }
+        return this.handler.buildErrorResponse(exception.getProtocol(), OrzWebTimeoutException.REASON, null, exception, request);
+    }
+
+    /**
+     * 限流和降载同样是预期内的，响应指定的 Orz-Code，有重试等待时间时在响应模板的基础上增加 Retry-After 响应头
+     */
+    @ExceptionHandler({OrzWebThrottledException.class})
+    public Object handleThrottledException(OrzWebThrottledException exception, HandlerMethod handler, HttpServletRequest request) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(descTitles(exception.getReason()).merge(exception.getDescription()).values("handler", handler).toString());
         }
-        var error = method.getMethodAnnotation(OrzWebError.class);
-        if (error != null && Objects.equals(error.code(), code)) {
-            return error;
+        var response = this.handler.buildErrorResponse(exception.getProtocol(), exception.getReason(), null, exception, request);
+        if (exception.getRetryAfterSeconds() <= 0) {
+            return response;
         }
-        return null;
+        var headers = new HttpHeaders();
+        headers.addAll(response.getHeaders());
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()));
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
     }
 }
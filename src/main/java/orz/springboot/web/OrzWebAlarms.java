@@ -0,0 +1,256 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import orz.springboot.alarm.OrzAlarmUtils;
+import orz.springboot.alarm.exception.OrzAlarmException;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static orz.springboot.base.OrzBaseUtils.hashMap;
+import static orz.springboot.base.description.OrzDescriptionUtils.desc;
+
+/**
+ * 告警聚合，按事件、错误代码、处理器、根异常类型和栈顶帧区分告警
+ * <p>
+ * 每个窗口内第一次告警立即发送，其余只计数，窗口结束后汇总为一条 @ORZ_WEB_ALARM_REPEATED。
+ * 告警由后台线程从有界队列中发送，不占用请求线程，队列已满时丢弃并计数。
+ * 后台线程随应用上下文启动和停止，启动前的告警在队列中等待。
+ */
+@Component
+public class OrzWebAlarms implements SmartLifecycle {
+    public static final String REPEATED_EVENT = "@ORZ_WEB_ALARM_REPEATED";
+
+    private static final Logger logger = LoggerFactory.getLogger("orz-web-api");
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final OrzWebProps props;
+    private final long windowNanos;
+    private final BlockingQueue<Runnable> queue;
+    private final Map<Fingerprint, Window> windows = new ConcurrentHashMap<>();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile Thread thread;
+
+    public OrzWebAlarms(OrzWebProps props) {
+        var config = props.getAlarm();
+        this.props = props;
+        this.windowNanos = config.getWindow().toNanos();
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+    }
+
+    /**
+     * 启动后台线程，未启用聚合时告警直接发送，不需要后台线程
+     */
+    @Override
+    public synchronized void start() {
+        if (thread != null || !props.getAlarm().isEnabled()) {
+            return;
+        }
+        var threadFactory = new CustomizableThreadFactory("orz-web-alarm-");
+        threadFactory.setDaemon(true);
+        thread = threadFactory.newThread(this::run);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        Thread stopping;
+        synchronized (this) {
+            stopping = thread;
+            thread = null;
+        }
+        if (stopping == null) {
+            return;
+        }
+        stopping.interrupt();
+        try {
+            stopping.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    /**
+     * 先于 Web 服务器启动、在其之后停止，停机期间请求的告警仍然可以发送
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * 发送事件告警
+     *
+     * @param event     告警事件
+     * @param code      错误代码，没有时为 null
+     * @param handler   处理器，没有时为 null
+     * @param summary   摘要
+     * @param exception 异常
+     * @param values    告警附带的值
+     */
+    public void alarm(String event, @Nullable String code, @Nullable Object handler, String summary, Throwable exception, Map<String, Object> values) {
+        submit(Fingerprint.of(event, code, handler, exception), exception, () -> OrzAlarmUtils.alarm(event, summary, exception, values));
+    }
+
+    /**
+     * 发送异常中携带的告警
+     *
+     * @param alarmException 告警异常
+     * @param exception      顶层异常
+     * @param handler        处理器，没有时为 null
+     */
+    public void alarm(OrzAlarmException alarmException, Throwable exception, @Nullable Object handler) {
+        submit(Fingerprint.of(alarmException.getEvent(), null, handler, exception), exception, () -> OrzAlarmUtils.alarm(alarmException, exception));
+    }
+
+    public long getDispatched() {
+        return dispatched.sum();
+    }
+
+    public long getSuppressed() {
+        return suppressed.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private void submit(Fingerprint fingerprint, Throwable exception, Runnable task) {
+        if (!props.getAlarm().isEnabled()) {
+            send(task);
+            return;
+        }
+        var now = System.nanoTime();
+        while (true) {
+            var window = windows.get(fingerprint);
+            if (window != null && now - window.end < 0) {
+                window.latest = exception;
+                window.count.increment();
+                suppressed.increment();
+                return;
+            }
+            if (window == null && windows.size() >= props.getAlarm().getMaxFingerprints()) {
+                enqueue(task);
+                return;
+            }
+            var next = new Window(now + windowNanos);
+            var started = window == null ? windows.putIfAbsent(fingerprint, next) == null : windows.replace(fingerprint, window, next);
+            if (started) {
+                if (window != null) {
+                    flush(fingerprint, window);
+                }
+                enqueue(task);
+                return;
+            }
+        }
+    }
+
+    private void enqueue(Runnable task) {
+        if (!queue.offer(task)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * 窗口内有被抑制的告警时发送汇总，附带最后一次的异常
+     */
+    private void flush(Fingerprint fingerprint, Window window) {
+        var count = window.count.sum();
+        if (count == 0) {
+            return;
+        }
+        enqueue(() -> OrzAlarmUtils.alarm(REPEATED_EVENT, "alarm repeated", window.latest, hashMap(
+                "event", fingerprint.event,
+                "code", fingerprint.code,
+                "handler", fingerprint.handler,
+                "count", count,
+                "window", props.getAlarm().getWindow().toString()
+        )));
+    }
+
+    private void run() {
+        var nextSweep = System.nanoTime() + SWEEP_INTERVAL_NANOS;
+        var reportedDropped = 0L;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                var task = queue.poll(SWEEP_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+                if (task != null) {
+                    send(task);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+            var now = System.nanoTime();
+            if (now - nextSweep >= 0) {
+                nextSweep = now + SWEEP_INTERVAL_NANOS;
+                sweep(now);
+                var totalDropped = dropped.sum();
+                if (totalDropped > reportedDropped && logger.isWarnEnabled()) {
+                    logger.warn(desc("@OrzWebApi alarms dropped", "count", totalDropped - reportedDropped, "queueCapacity", props.getAlarm().getQueueCapacity()));
+                }
+                reportedDropped = totalDropped;
+            }
+        }
+    }
+
+    /**
+     * 移除已结束的窗口并发送汇总，之后的第一次告警重新立即发送
+     */
+    private void sweep(long now) {
+        for (var entry : windows.entrySet()) {
+            var window = entry.getValue();
+            if (now - window.end >= 0 && windows.remove(entry.getKey(), window)) {
+                flush(entry.getKey(), window);
+            }
+        }
+    }
+
+    private void send(Runnable task) {
+        dispatched.increment();
+        try {
+            task.run();
+        } catch (Exception e) {
+            logger.error(desc("@OrzWebApi alarm failed"), e);
+        }
+    }
+
+    private record Fingerprint(String event, @Nullable String code, @Nullable String handler, String type, @Nullable StackTraceElement frame) {
+        /**
+         * 取根异常的类型和栈顶帧，不同位置抛出的同类异常分开聚合
+         */
+        private static Fingerprint of(String event, @Nullable String code, @Nullable Object handler, Throwable exception) {
+            var root = exception;
+            while (root.getCause() != null && root.getCause() != root) {
+                root = root.getCause();
+            }
+            var trace = root.getStackTrace();
+            return new Fingerprint(event, code, handler == null ? null : handler.toString(), root.getClass().getName(), trace.length == 0 ? null : trace[0]);
+        }
+    }
+
+    private static class Window {
+        private final long end;
+        private final LongAdder count = new LongAdder();
+        private volatile Throwable latest;
+
+        private Window(long end) {
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import orz.springboot.web.model.OrzWebAllocationBo;
+import orz.springboot.web.model.OrzWebApiBo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.desc;
+
+/**
+ * 接口内存分配统计，按采样比例记录接口调用的分配量（orz.web.api.allocated）
+ * <p>
+ * 使用 com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes，只能统计当前线程，
+ * 一次采样累加执行接口的各个线程：请求线程、@OrzWebApi(timeoutMillis) 的工作线程和异步结果的派发线程。
+ * 接口自己提交到其它线程池的任务（CompletableFuture、DeferredResult）不统计，超时的调用只统计到超时为止。
+ * <p>
+ * 不支持虚拟线程：虚拟线程上 JVM 返回 -1，任意一个线程不支持时跳过该次采样，计入 unsupported
+ * 和 orz.web.api.allocated.unsupported，不会把载体线程的分配量算到接口上。
+ * 启用 spring.threads.virtual.enabled 时所有请求线程都是虚拟线程，启动时输出警告，
+ * 运行时首次出现不支持的采样也会输出一次警告；这类应用需要使用 JFR 的分配采样事件。
+ */
+@Component
+public class OrzWebAllocations {
+    public static final String SUMMARY_NAME = "orz.web.api.allocated";
+    public static final String UNSUPPORTED_NAME = "orz.web.api.allocated.unsupported";
+    public static final String VIRTUAL_THREADS_PROPERTY = "spring.threads.virtual.enabled";
+
+    private static final Logger logger = LoggerFactory.getLogger("orz-web-api");
+    private static final int BUCKETS = Long.SIZE + 1;
+
+    private final OrzWebProps props;
+    private final ObjectProvider<OrzWebMetrics> metricsProvider;
+    private final com.sun.management.ThreadMXBean threadMXBean;
+    private final Map<Method, ApiAllocations> apis = new ConcurrentHashMap<>();
+    private final AtomicBoolean unsupportedWarned = new AtomicBoolean();
+
+    public OrzWebAllocations(OrzWebProps props, Environment environment, ObjectProvider<OrzWebMetrics> metricsProvider) {
+        this.props = props;
+        this.metricsProvider = metricsProvider;
+        this.threadMXBean = props.getAllocations().isEnabled() ? resolveThreadMXBean() : null;
+        if (threadMXBean != null && environment.getProperty(VIRTUAL_THREADS_PROPERTY, Boolean.class, false)) {
+            unsupportedWarned.set(true);
+            logger.warn(desc("orz.web.allocations.enabled has no effect on virtual threads, samples are counted as unsupported", "property", VIRTUAL_THREADS_PROPERTY, "meter", UNSUPPORTED_NAME));
+        }
+    }
+
+    @Nullable
+    private static com.sun.management.ThreadMXBean resolveThreadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()) {
+            if (!bean.isThreadAllocatedMemoryEnabled()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return bean;
+        }
+        logger.warn(desc("orz.web.allocations.enabled ignored, thread allocated memory is not supported"));
+        return null;
+    }
+
+    public boolean isEnabled() {
+        return threadMXBean != null;
+    }
+
+    /**
+     * 在映射时注册接口，未启用时忽略
+     *
+     * @param api 接口元数据
+     */
+    public void register(OrzWebApiBo api) {
+        if (isEnabled()) {
+            apis.put(api.getMethod(), new ApiAllocations(api));
+        }
+    }
+
+    /**
+     * 按采样比例决定是否统计本次调用
+     *
+     * @param method 接口方法
+     * @return 需要统计时返回本次采样，否则返回 null
+     */
+    @Nullable
+    public Sample sample(Method method) {
+        if (threadMXBean == null) {
+            return null;
+        }
+        var allocations = apis.get(method);
+        if (allocations == null) {
+            return null;
+        }
+        var sampleRate = props.getAllocations().getSampleRate();
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+        return new Sample(allocations);
+    }
+
+    /**
+     * 当前线程已分配的字节数，不支持时返回 -1
+     */
+    public long getCurrentThreadAllocatedBytes() {
+        return threadMXBean == null ? -1 : threadMXBean.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * 累加当前线程的分配量，需要和 getCurrentThreadAllocatedBytes 在同一线程调用
+     *
+     * @param sample 本次采样
+     * @param begin  开始时的 getCurrentThreadAllocatedBytes
+     */
+    public void add(Sample sample, long begin) {
+        var end = getCurrentThreadAllocatedBytes();
+        if (begin < 0 || end < begin) {
+            sample.unsupported = true;
+            return;
+        }
+        sample.bytes.addAndGet(end - begin);
+    }
+
+    /**
+     * 记录一次调用，在执行接口的所有线程都累加之后调用
+     *
+     * @param sample 本次采样
+     */
+    public void record(Sample sample) {
+        var allocations = sample.allocations;
+        allocations.registerMeters(this);
+        if (sample.unsupported) {
+            allocations.unsupported.increment();
+            allocations.unsupportedTotal.increment();
+            if (!unsupportedWarned.get() && unsupportedWarned.compareAndSet(false, true)) {
+                logger.warn(desc("orz.web.allocations sample is unsupported, the request may run on a virtual thread", "path", allocations.api.getPath(), "meter", UNSUPPORTED_NAME));
+            }
+            return;
+        }
+        var bytes = sample.bytes.get();
+        allocations.record(bytes);
+        var summary = allocations.summary;
+        if (summary != null) {
+            summary.accept(bytes);
+        }
+    }
+
+    /**
+     * 各接口的统计，按分配量合计降序
+     */
+    public List<OrzWebAllocationBo> getAllocations() {
+        return apis.values().stream()
+                .map(ApiAllocations::toBo)
+                .sorted(Comparator.comparingLong(OrzWebAllocationBo::getTotalBytes).reversed())
+                .toList();
+    }
+
+    public void reset() {
+        apis.values().forEach(ApiAllocations::reset);
+    }
+
+    /**
+     * 桶序号为分配量的二进制位数，桶 i 的上限为 2^i - 1
+     */
+    static int bucketOf(long bytes) {
+        return Long.SIZE - Long.numberOfLeadingZeros(bytes);
+    }
+
+    static long bucketUpperBound(int bucket) {
+        return bucket >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    /**
+     * 一次采样，可以在多个线程上累加
+     */
+    public static class Sample {
+        private final ApiAllocations allocations;
+        private final AtomicLong bytes = new AtomicLong();
+        private volatile boolean unsupported;
+
+        private Sample(ApiAllocations allocations) {
+            this.allocations = allocations;
+        }
+    }
+
+    public static class ApiAllocations {
+        private final OrzWebApiBo api;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder totalBytes = new LongAdder();
+        private final AtomicLong maxBytes = new AtomicLong();
+        private final LongAdder unsupported = new LongAdder();
+        // 指标使用单独的计数，不受 reset 影响
+        private final LongAdder unsupportedTotal = new LongAdder();
+        private volatile boolean metersRegistered = false;
+        private volatile LongConsumer summary;
+
+        private ApiAllocations(OrzWebApiBo api) {
+            this.api = api;
+        }
+
+        private void record(long bytes) {
+            buckets.incrementAndGet(bucketOf(bytes));
+            totalBytes.add(bytes);
+            if (bytes > maxBytes.get()) {
+                maxBytes.accumulateAndGet(bytes, Math::max);
+            }
+        }
+
+        /**
+         * 请求期间才会调用，此时容器已经完成初始化，结果可以缓存
+         */
+        private void registerMeters(OrzWebAllocations owner) {
+            if (metersRegistered) {
+                return;
+            }
+            var metrics = owner.metricsProvider.getIfAvailable();
+            if (metrics != null) {
+                summary = metrics.registerSummary(SUMMARY_NAME, "@OrzWebApi allocated bytes per sampled request", "bytes", OrzWebMetrics.tags(api));
+                metrics.registerCounter(UNSUPPORTED_NAME, unsupportedTotal, LongAdder::sum, OrzWebMetrics.tags(api));
+            }
+            metersRegistered = true;
+        }
+
+        private void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            totalBytes.reset();
+            maxBytes.set(0);
+            unsupported.reset();
+        }
+
+        private OrzWebAllocationBo toBo() {
+            var histogram = new LinkedHashMap<Long, Long>();
+            var count = 0L;
+            for (int i = 0; i < BUCKETS; i++) {
+                var value = buckets.get(i);
+                if (value != 0) {
+                    histogram.put(bucketUpperBound(i), value);
+                    count += value;
+                }
+            }
+            return new OrzWebAllocationBo(api.getPath(), count, totalBytes.sum(), maxBytes.get(), unsupported.sum(), histogram);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package orz.springboot.web;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import orz.springboot.web.model.OrzWebAllocationBo;
+
+import java.util.List;
+
+/**
+ * 接口内存分配统计的 actuator 端点，需要引入 spring-boot-actuator 并暴露 orzallocations
+ */
+@Component
+@ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+@Endpoint(id = "orzallocations")
+public class OrzWebAllocationsEndpoint {
+    private final OrzWebAllocations allocations;
+
+    public OrzWebAllocationsEndpoint(OrzWebAllocations allocations) {
+        this.allocations = allocations;
+    }
+
+    @ReadOperation
+    public List<OrzWebAllocationBo> allocations() {
+        return allocations.getAllocations();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        allocations.reset();
+    }
+}
@@ -0,0 +1,109 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.annotation.OrzWebError;
+import orz.springboot.web.annotation.OrzWebErrors;
+import orz.springboot.web.model.OrzWebApiBo;
+import orz.springboot.web.model.OrzWebErrorBo;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.desc;
+
+@Component
+public class OrzWebApiRegistry {
+    private final Map<Method, OrzWebApiBo> apis = new ConcurrentHashMap<>();
+    private final Map<String, OrzWebApiBo> paths = new ConcurrentHashMap<>();
+
+    /**
+     * 注册接口，同一个接口上声明了重复的错误代码时启动失败
+     *
+     * @param beanClass  接口类
+     * @param method     请求方法
+     * @param scope      作用域
+     * @param annotation 接口注解
+     * @param path       请求路径
+     * @return 接口元数据
+     */
+    public OrzWebApiBo register(Class<?> beanClass, Method method, String scope, OrzWebApi annotation, String path) {
+        var api = new OrzWebApiBo(beanClass, method, annotation, scope, path, buildErrors(beanClass, method));
+        apis.put(method, api);
+        paths.put(path, api);
+        return api;
+    }
+
+    /**
+     * @param path 请求路径
+     * @return 接口元数据，路径未映射时为空
+     */
+    @Nullable
+    public OrzWebApiBo getByPath(String path) {
+        return paths.get(path);
+    }
+
+    @Nullable
+    public OrzWebApiBo get(Method method) {
+        return apis.get(method);
+    }
+
+    /**
+     * 获取处理器对应的接口元数据，未经映射注册的处理器（例如代理方法）在首次访问时补充构建
+     *
+     * @param handler 处理器
+     * @return 接口元数据，非 @OrzWebApi 处理器时为空
+     */
+    @Nullable
+    public OrzWebApiBo get(HandlerMethod handler) {
+        var method = handler.getMethod();
+        var api = apis.get(method);
+        if (api != null) {
+            return api;
+        }
+        var beanClass = handler.getBeanType();
+        var annotation = AnnotatedElementUtils.findMergedAnnotation(beanClass, OrzWebApi.class);
+        if (annotation == null) {
+            return null;
+        }
+        return apis.computeIfAbsent(method, m -> new OrzWebApiBo(beanClass, m, annotation, OrzWebUtils.getScope(beanClass), null, buildErrors(beanClass, m)));
+    }
+
+    @Nullable
+    public OrzWebErrorBo getError(HandlerMethod handler, @Nullable String code) {
+        var api = get(handler);
+        return api == null ? null : api.getError(code);
+    }
+
+    public Collection<OrzWebApiBo> getAll() {
+        return Collections.unmodifiableCollection(apis.values());
+    }
+
+    private static Map<String, OrzWebErrorBo> buildErrors(Class<?> beanClass, Method method) {
+        var annotations = (OrzWebError[]) null;
+        var errors = AnnotatedElementUtils.findMergedAnnotation(method, OrzWebErrors.class);
+        if (errors != null) {
+            annotations = errors.value();
+        } else {
+            var error = AnnotatedElementUtils.findMergedAnnotation(method, OrzWebError.class);
+            if (error != null) {
+                annotations = new OrzWebError[]{error};
+            }
+        }
+        if (annotations == null || annotations.length == 0) {
+            return Collections.emptyMap();
+        }
+        var map = new HashMap<String, OrzWebErrorBo>(annotations.length * 2);
+        for (var annotation : annotations) {
+            if (map.putIfAbsent(annotation.code(), OrzWebErrorBo.of(annotation)) != null) {
+                throw new FatalBeanException(desc("@OrzWebError code is duplicated", "beanClass", beanClass, "code", annotation.code()));
+            }
+        }
+        return Map.copyOf(map);
+    }
+}
@@ -0,0 +1,268 @@
+package orz.springboot.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import jakarta.annotation.Nullable;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerAdapter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ServletRequestPathUtils;
+import orz.springboot.web.model.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.desc;
+
+/**
+ * 批量接口 PUT /{scope}/Batch，在一次 HTTP 请求中执行同一作用域内的多个接口
+ * <p>
+ * 请求头只解析一次，所有条目共享。连续的查询接口在共享的线程池中并行执行，
+ * 变更接口等待之前的条目完成后按顺序执行。每个条目与直接调用一样经过处理器映射、拦截器、
+ * RequestMappingHandlerAdapter（限流、截止时间、并发限制、缓存、隔离、超时）和异常处理，
+ * 结果中的 status、code、notice 与直接调用时的响应相同。
+ * <p>
+ * 同一批量请求的条目共享 Orz-Request-Id，无法区分重试，@OrzWebIdempotent 接口不能在批量中调用（status 400）。
+ */
+@RestController
+@ConditionalOnProperty(prefix = "orz.web.batch", name = "enabled", havingValue = "true")
+public class OrzWebBatchController implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger("orz-web-api");
+
+    private final OrzWebProps props;
+    private final OrzWebApiRegistry registry;
+    private final OrzWebIdempotency idempotency;
+    private final OrzWebRequestHeadersExtractor extractor;
+    private final ObjectMapper objectMapper;
+    private final ApplicationContext appContext;
+    private final ThreadPoolExecutor executor;
+
+    public OrzWebBatchController(OrzWebProps props, OrzWebApiRegistry registry, OrzWebIdempotency idempotency, OrzWebRequestHeadersExtractor extractor, ObjectMapper objectMapper, ApplicationContext appContext) {
+        this.props = props;
+        this.registry = registry;
+        this.idempotency = idempotency;
+        this.extractor = extractor;
+        this.objectMapper = objectMapper;
+        this.appContext = appContext;
+        var threadFactory = new CustomizableThreadFactory("orz-web-batch-");
+        threadFactory.setDaemon(true);
+        var parallelism = props.getBatch().getParallelism();
+        // 没有排队，线程已满时由请求线程执行，并行度和排队都有上限
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PutMapping("/{scope}/Batch")
+    public OrzWebBatchRsp request(@PathVariable("scope") String scope, @RequestBody OrzWebBatchReq req, HttpServletRequest request, HttpServletResponse response) throws Exception {
+        var entries = req.getEntries() == null ? List.<OrzWebBatchEntryTo>of() : req.getEntries();
+        var maxEntries = props.getBatch().getMaxEntries();
+        if (entries.size() > maxEntries) {
+            throw new ResponseStatusException(400, desc("batch entries exceed limit", "size", entries.size(), "maxEntries", maxEntries), null);
+        }
+        extractor.extract(request);
+
+        var results = new OrzWebBatchResultTo[entries.size()];
+        var pending = new ArrayList<Future<?>>();
+        for (int i = 0; i < entries.size(); i++) {
+            var index = i;
+            var entry = entries.get(i);
+            var api = resolveApi(scope, entry);
+            if (api == null) {
+                results[i] = new OrzWebBatchResultTo(entry == null ? null : entry.getApi(), 404, null, null, null);
+            } else if (idempotency.get(api.getMethod()) != null) {
+                results[i] = new OrzWebBatchResultTo(entry.getApi(), 400, null, null, null);
+            } else if (api.isQuery()) {
+                pending.add(executor.submit(() -> {
+                    results[index] = execute(api, entry, request, response);
+                }));
+            } else {
+                await(pending);
+                results[i] = execute(api, entry, request, response);
+            }
+        }
+        await(pending);
+
+        response.setHeader(props.getResponseHeaders().getVersion(), String.valueOf(OrzWebConstants.VERSION_CURRENT));
+        return new OrzWebBatchRsp(Arrays.asList(results));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    @Nullable
+    private OrzWebApiBo resolveApi(String scope, @Nullable OrzWebBatchEntryTo entry) {
+        if (entry == null || entry.getApi() == null) {
+            return null;
+        }
+        var api = registry.getByPath(entry.getApi());
+        return api != null && scope.equals(api.getScope()) ? api : null;
+    }
+
+    private static void await(List<Future<?>> pending) throws InterruptedException, ExecutionException {
+        for (var future : pending) {
+            future.get();
+        }
+        pending.clear();
+    }
+
+    /**
+     * 在条目自己的请求、响应上执行，执行期间 RequestContextHolder 绑定条目的请求，接口内可以照常获取请求头
+     */
+    private OrzWebBatchResultTo execute(OrzWebApiBo api, OrzWebBatchEntryTo entry, HttpServletRequest request, HttpServletResponse response) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(entry.getBody() == null ? NullNode.getInstance() : entry.getBody());
+        } catch (JsonProcessingException e) {
+            return new OrzWebBatchResultTo(entry.getApi(), 400, null, null, null);
+        }
+        var entryRequest = new OrzWebBatchEntryRequest(request, api.isQuery() ? "PUT" : "POST", api.getPath(), body);
+        var entryResponse = new OrzWebBatchEntryResponse(response);
+        var attributes = new ServletRequestAttributes(entryRequest, entryResponse);
+        var previous = RequestContextHolder.getRequestAttributes();
+        RequestContextHolder.setRequestAttributes(attributes);
+        try {
+            dispatch(entryRequest, entryResponse);
+            return buildResult(entry, entryResponse);
+        } catch (Exception e) {
+            return buildErrorResult(entry, e);
+        } finally {
+            attributes.requestCompleted();
+            RequestContextHolder.setRequestAttributes(previous);
+        }
+    }
+
+    /**
+     * 同 DispatcherServlet，异步处理时在当前线程等待结果后以 ASYNC 再次派发
+     */
+    private void dispatch(OrzWebBatchEntryRequest request, OrzWebBatchEntryResponse response) throws Exception {
+        ServletRequestPathUtils.parseAndCache(request);
+        if (!doDispatch(request, response)) {
+            return;
+        }
+        var context = request.getEntryAsyncContext();
+        try {
+            if (!context.awaitDispatch(props.getBatch().getTimeout().toMillis())) {
+                throw new TimeoutException();
+            }
+            request.setDispatcherType(DispatcherType.ASYNC);
+            doDispatch(request, response);
+        } finally {
+            context.fireComplete();
+        }
+    }
+
+    /**
+     * @return 是否开始了异步处理
+     */
+    private boolean doDispatch(OrzWebBatchEntryRequest request, OrzWebBatchEntryResponse response) throws Exception {
+        Object handler = null;
+        var interceptors = List.<HandlerInterceptor>of();
+        var applied = -1;
+        try {
+            var chain = appContext.getBean("requestMappingHandlerMapping", HandlerMapping.class).getHandler(request);
+            if (chain == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return false;
+            }
+            handler = chain.getHandler();
+            interceptors = chain.getInterceptorList();
+            for (var i = 0; i < interceptors.size(); i++) {
+                if (!interceptors.get(i).preHandle(request, response, handler)) {
+                    afterCompletion(interceptors, applied, request, response, handler, null);
+                    return false;
+                }
+                applied = i;
+            }
+            var mv = appContext.getBean("requestMappingHandlerAdapter", HandlerAdapter.class).handle(request, response, handler);
+            if (request.isAsyncStarted()) {
+                for (var i = applied; i >= 0; i--) {
+                    if (interceptors.get(i) instanceof AsyncHandlerInterceptor interceptor) {
+                        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+                    }
+                }
+                return true;
+            }
+            for (var i = applied; i >= 0; i--) {
+                interceptors.get(i).postHandle(request, response, handler, mv);
+            }
+        } catch (Exception e) {
+            var resolved = appContext.getBean("handlerExceptionResolver", HandlerExceptionResolver.class).resolveException(request, response, handler, e);
+            if (resolved == null) {
+                afterCompletion(interceptors, applied, request, response, handler, e);
+                throw e;
+            }
+        }
+        afterCompletion(interceptors, applied, request, response, handler, null);
+        return false;
+    }
+
+    private static void afterCompletion(List<HandlerInterceptor> interceptors, int applied, HttpServletRequest request, HttpServletResponse response, @Nullable Object handler, @Nullable Exception exception) {
+        for (var i = applied; i >= 0; i--) {
+            try {
+                interceptors.get(i).afterCompletion(request, response, handler, exception);
+            } catch (Exception e) {
+                logger.error("HandlerInterceptor.afterCompletion threw exception", e);
+            }
+        }
+    }
+
+    private OrzWebBatchResultTo buildResult(OrzWebBatchEntryTo entry, OrzWebBatchEntryResponse response) {
+        var names = props.getResponseHeaders();
+        var body = response.getBody();
+        Object value = null;
+        if (body.length > 0) {
+            try {
+                value = objectMapper.readTree(body);
+            } catch (JsonProcessingException e) {
+                value = new String(body, StandardCharsets.UTF_8);
+            }
+        }
+        return new OrzWebBatchResultTo(
+                entry.getApi(),
+                response.getStatus(),
+                response.getHeader(names.getCode()),
+                response.getHeader(names.getNotice()),
+                value
+        );
+    }
+
+    /**
+     * 异常处理器没有处理的异常，告警已经由 OrzWebMvcConfigurer 的异常处理器发送
+     */
+    private OrzWebBatchResultTo buildErrorResult(OrzWebBatchEntryTo entry, Exception exception) {
+        if (exception instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        if (exception instanceof TimeoutException || exception instanceof InterruptedException) {
+            return new OrzWebBatchResultTo(entry.getApi(), 503, null, null, null);
+        }
+        if (logger.isErrorEnabled()) {
+            logger.error(desc("@OrzWebApi batch entry failed", "api", entry.getApi()), exception);
+        }
+        return new OrzWebBatchResultTo(entry.getApi(), 500, null, null, null);
+    }
+}
@@ -0,0 +1,414 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 批量接口中单个条目的请求，路径、方法和请求体替换为条目的值，其余请求头与外层请求相同
+ * <p>
+ * 属性写入只在条目内可见，读取时回退到外层请求，但外层请求的映射结果、解析后的路径和异步管理器对条目不可见。
+ * 异步处理由 OrzWebBatchController 在当前线程中等待并再次派发。
+ */
+class OrzWebBatchEntryRequest extends HttpServletRequestWrapper {
+    private static final Object REMOVED = new Object();
+
+    private final String method;
+    private final String path;
+    private final byte[] body;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private volatile DispatcherType dispatcherType = DispatcherType.REQUEST;
+    private volatile EntryAsyncContext asyncContext;
+
+    OrzWebBatchEntryRequest(HttpServletRequest request, String method, String path, byte[] body) {
+        super(request);
+        this.method = method;
+        this.path = path;
+        this.body = body;
+        for (var name : Collections.list(request.getAttributeNames())) {
+            if (isIsolated(name)) {
+                attributes.put(name, REMOVED);
+            }
+        }
+        attributes.put(WebAsyncUtils.WEB_ASYNC_MANAGER_ATTRIBUTE, REMOVED);
+        attributes.put(ServletRequestPathUtils.PATH_ATTRIBUTE, REMOVED);
+        attributes.put(UrlPathHelper.PATH_ATTRIBUTE, REMOVED);
+    }
+
+    private static boolean isIsolated(String name) {
+        return name.startsWith(HandlerMapping.class.getName()) || name.startsWith("orz.springboot.web.");
+    }
+
+    void setDispatcherType(DispatcherType dispatcherType) {
+        this.dispatcherType = dispatcherType;
+    }
+
+    EntryAsyncContext getEntryAsyncContext() {
+        return asyncContext;
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return getContextPath() + path;
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        var url = new StringBuffer();
+        url.append(getScheme()).append("://").append(getServerName()).append(':').append(getServerPort()).append(getRequestURI());
+        return url;
+    }
+
+    @Override
+    public String getServletPath() {
+        return path;
+    }
+
+    @Override
+    public String getPathInfo() {
+        return null;
+    }
+
+    @Override
+    public String getPathTranslated() {
+        return null;
+    }
+
+    @Override
+    public String getQueryString() {
+        return null;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        return null;
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.emptyEnumeration();
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return null;
+    }
+
+    @Override
+    public String getContentType() {
+        return MediaType.APPLICATION_JSON_VALUE;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return StandardCharsets.UTF_8.name();
+    }
+
+    @Override
+    public int getContentLength() {
+        return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return body.length;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+            return getContentType();
+        }
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            return String.valueOf(body.length);
+        }
+        return super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            return Collections.enumeration(List.of(getHeader(name)));
+        }
+        return super.getHeaders(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        var names = new ArrayList<String>();
+        names.add(HttpHeaders.CONTENT_TYPE);
+        names.add(HttpHeaders.CONTENT_LENGTH);
+        for (var name : Collections.list(super.getHeaderNames())) {
+            if (!HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name) && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                names.add(name);
+            }
+        }
+        return Collections.enumeration(names);
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        var input = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return input.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read() {
+                return input.read();
+            }
+
+            @Override
+            public int read(@Nonnull byte[] b, int off, int len) {
+                return input.read(b, off, len);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        var value = attributes.get(name);
+        if (value == null) {
+            return super.getAttribute(name);
+        }
+        return value == REMOVED ? null : value;
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        var names = new LinkedHashSet<String>();
+        for (var name : Collections.list(super.getAttributeNames())) {
+            if (!attributes.containsKey(name)) {
+                names.add(name);
+            }
+        }
+        attributes.forEach((name, value) -> {
+            if (value != REMOVED) {
+                names.add(name);
+            }
+        });
+        return Collections.enumeration(names);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        attributes.put(name, value == null ? REMOVED : value);
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.put(name, REMOVED);
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return dispatcherType;
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        var context = asyncContext;
+        return context != null && context.started;
+    }
+
+    @Override
+    public AsyncContext startAsync() {
+        return startAsync(this, null);
+    }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+        var context = asyncContext;
+        if (context == null) {
+            context = new EntryAsyncContext(servletRequest, servletResponse);
+            asyncContext = context;
+        }
+        context.started = true;
+        return context;
+    }
+
+    @Override
+    public AsyncContext getAsyncContext() {
+        var context = asyncContext;
+        if (context == null) {
+            throw new IllegalStateException("async not started");
+        }
+        return context;
+    }
+
+    /**
+     * 条目的异步上下文，dispatch 只通知等待中的批量线程，超时和完成事件由批量线程触发
+     */
+    static class EntryAsyncContext implements AsyncContext {
+        private final ServletRequest request;
+        private final ServletResponse response;
+        private final List<AsyncListener> listeners = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<Void> dispatched = new CompletableFuture<>();
+        private volatile boolean started;
+        private volatile long timeout;
+
+        private EntryAsyncContext(ServletRequest request, ServletResponse response) {
+            this.request = request;
+            this.response = response;
+        }
+
+        /**
+         * 等待异步结果派发，超时时通知监听器（Spring 在这里设置超时结果并派发）后再等待一次
+         *
+         * @param defaultTimeout 未设置异步超时时使用的超时（毫秒）
+         * @return 是否已经派发
+         */
+        boolean awaitDispatch(long defaultTimeout) throws Exception {
+            var wait = timeout > 0 ? timeout : defaultTimeout;
+            try {
+                dispatched.get(wait, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                var event = new AsyncEvent(this, request, response);
+                for (var listener : listeners) {
+                    listener.onTimeout(event);
+                }
+                try {
+                    dispatched.get(defaultTimeout, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException ignored) {
+                    return false;
+                }
+            }
+            started = false;
+            return true;
+        }
+
+        /**
+         * 派发处理完成后通知监听器，释放并发许可等资源
+         */
+        void fireComplete() {
+            started = false;
+            var event = new AsyncEvent(this, request, response);
+            for (var listener : listeners) {
+                try {
+                    listener.onComplete(event);
+                } catch (Exception ignored) {
+                    // 与容器一致，监听器的异常不影响其它监听器
+                }
+            }
+        }
+
+        @Override
+        public ServletRequest getRequest() {
+            return request;
+        }
+
+        @Override
+        public ServletResponse getResponse() {
+            return response;
+        }
+
+        @Override
+        public boolean hasOriginalRequestAndResponse() {
+            return true;
+        }
+
+        @Override
+        public void dispatch() {
+            dispatched.complete(null);
+        }
+
+        @Override
+        public void dispatch(String path) {
+            dispatch();
+        }
+
+        @Override
+        public void dispatch(ServletContext context, String path) {
+            dispatch();
+        }
+
+        @Override
+        public void complete() {
+            dispatch();
+        }
+
+        @Override
+        public void start(Runnable run) {
+            CompletableFuture.runAsync(run);
+        }
+
+        @Override
+        public void addListener(AsyncListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void addListener(AsyncListener listener, ServletRequest servletRequest, ServletResponse servletResponse) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public <T extends AsyncListener> T createListener(Class<T> clazz) throws ServletException {
+            try {
+                return clazz.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new ServletException(e);
+            }
+        }
+
+        @Override
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+
+        @Override
+        public long getTimeout() {
+            return timeout;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+import orz.springboot.web.model.OrzWebApiBo;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.descValues;
+
+/**
+ * 接口并发隔离，接口级别由 @OrzWebApi(maxConcurrency) 声明，作用域级别由 orz.web.bulkhead.scopes 配置
+ * <p>
+ * 获取许可不等待，已满时抛出 OrzWebRejectedException。许可在映射时创建，请求期间只有一次查找。
+ * 异步接口的许可在异步请求完成（包括超时和出错）后才释放。
+ */
+@Component
+public class OrzWebBulkheads {
+    public static final String REJECTED_REASON = "bulkhead is full";
+
+    private final OrzWebProps props;
+    private final Map<String, Semaphore> scopes = new ConcurrentHashMap<>();
+    private final Map<Method, ApiBulkhead> apis = new ConcurrentHashMap<>();
+
+    public OrzWebBulkheads(OrzWebProps props) {
+        this.props = props;
+    }
+
+    /**
+     * 在映射时注册接口，没有任何限制时忽略
+     *
+     * @param api 接口元数据
+     */
+    public void register(OrzWebApiBo api) {
+        var maxConcurrency = api.getAnnotation().maxConcurrency();
+        var scopeMaxConcurrency = props.getBulkhead().getScopes().get(api.getScope());
+        var apiSemaphore = maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null;
+        var scopeSemaphore = scopeMaxConcurrency != null ? scopes.computeIfAbsent(api.getScope(), s -> new Semaphore(scopeMaxConcurrency)) : null;
+        if (apiSemaphore != null || scopeSemaphore != null) {
+            apis.put(api.getMethod(), new ApiBulkhead(api, apiSemaphore, scopeSemaphore));
+        }
+    }
+
+    @Nullable
+    public ApiBulkhead get(Method method) {
+        return apis.get(method);
+    }
+
+    /**
+     * 获取许可，成功后必须调用 release
+     *
+     * @param bulkhead 接口的隔离
+     * @throws OrzWebRejectedException 接口或作用域已满
+     */
+    public void acquire(ApiBulkhead bulkhead) {
+        if (bulkhead.api != null && !bulkhead.api.tryAcquire()) {
+            throw new OrzWebRejectedException(REJECTED_REASON, descValues("path", bulkhead.path, "limit", "api"));
+        }
+        if (bulkhead.scope != null && !bulkhead.scope.tryAcquire()) {
+            if (bulkhead.api != null) {
+                bulkhead.api.release();
+            }
+            throw new OrzWebRejectedException(REJECTED_REASON, descValues("path", bulkhead.path, "limit", "scope"));
+        }
+    }
+
+    public void release(ApiBulkhead bulkhead) {
+        if (bulkhead.scope != null) {
+            bulkhead.scope.release();
+        }
+        if (bulkhead.api != null) {
+            bulkhead.api.release();
+        }
+    }
+
+    /**
+     * 请求已经转为异步时，在异步请求完成后释放许可
+     *
+     * @return 是否已经转为异步，为 false 时需要调用方立即释放
+     */
+    public boolean releaseOnAsyncComplete(HttpServletRequest request, ApiBulkhead bulkhead) {
+        if (!request.isAsyncStarted()) {
+            return false;
+        }
+        request.getAsyncContext().addListener(new ReleaseListener(this, bulkhead));
+        return true;
+    }
+
+    private record ReleaseListener(OrzWebBulkheads bulkheads, ApiBulkhead bulkhead) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            bulkheads.release(bulkhead);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    public static class ApiBulkhead {
+        private final String path;
+        private final Semaphore api;
+        private final Semaphore scope;
+
+        private ApiBulkhead(OrzWebApiBo api, @Nullable Semaphore apiSemaphore, @Nullable Semaphore scopeSemaphore) {
+            this.path = api.getPath();
+            this.api = apiSemaphore;
+            this.scope = scopeSemaphore;
+        }
+
+        /**
+         * 接口当前可用的许可数，没有接口级别限制时返回 -1
+         */
+        public int getAvailable() {
+            return api == null ? -1 : api.availablePermits();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ * 请求体已经读取，重新提供给消息转换器
+ */
+class OrzWebCachedBodyRequest extends HttpServletRequestWrapper {
+    private final byte[] body;
+
+    OrzWebCachedBodyRequest(HttpServletRequest request, byte[] body) {
+        super(request);
+        this.body = body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        var input = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return input.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read() {
+                return input.read();
+            }
+
+            @Override
+            public int read(@Nonnull byte[] b, int off, int len) {
+                return input.read(b, off, len);
+            }
+        };
+    }
+}
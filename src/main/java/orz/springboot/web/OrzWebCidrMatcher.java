@@ -0,0 +1,379 @@
+package orz.springboot.web;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 预编译的 IPv4 / IPv6 CIDR 匹配器
+ * <p>
+ * 启动时把 CIDR 列表合并为有序、不重叠的地址区间表，匹配时直接在字符区间上解析地址并二分查找，不创建子字符串。
+ * IPv4 映射的 IPv6 地址（::ffff:a.b.c.d）按 IPv4 匹配，IPv6 地址的区域标识（%eth0）会被忽略。
+ */
+public class OrzWebCidrMatcher {
+    private static final OrzWebCidrMatcher EMPTY = new OrzWebCidrMatcher(new long[0], new long[0], new long[0], new long[0], new long[0], new long[0]);
+
+    private static final int IPV6_VALID = 0;
+    private static final int IPV6_HIGH = 1;
+    private static final int IPV6_LOW = 2;
+    private static final long INVALID = -1;
+
+    private final long[] v4Starts;
+    private final long[] v4Ends;
+    private final long[] v6StartHighs;
+    private final long[] v6StartLows;
+    private final long[] v6EndHighs;
+    private final long[] v6EndLows;
+
+    private OrzWebCidrMatcher(long[] v4Starts, long[] v4Ends, long[] v6StartHighs, long[] v6StartLows, long[] v6EndHighs, long[] v6EndLows) {
+        this.v4Starts = v4Starts;
+        this.v4Ends = v4Ends;
+        this.v6StartHighs = v6StartHighs;
+        this.v6StartLows = v6StartLows;
+        this.v6EndHighs = v6EndHighs;
+        this.v6EndLows = v6EndLows;
+    }
+
+    /**
+     * 编译 CIDR 列表，不带前缀长度的地址视为单个地址
+     *
+     * @param cidrs CIDR 列表，例如 10.0.0.0/8、2001:db8::/32
+     * @return 匹配器
+     * @throws IllegalArgumentException CIDR 格式错误
+     */
+    public static OrzWebCidrMatcher compile(Collection<String> cidrs) {
+        if (cidrs == null || cidrs.isEmpty()) {
+            return EMPTY;
+        }
+        var v4 = new ArrayList<long[]>();
+        var v6 = new ArrayList<long[]>();
+        for (var cidr : cidrs) {
+            var text = cidr == null ? "" : cidr.trim();
+            var slash = text.indexOf('/');
+            var end = slash < 0 ? text.length() : slash;
+            var v4Address = parseIpv4(text, 0, end);
+            if (v4Address != INVALID) {
+                var prefix = parsePrefix(cidr, text, slash, 32);
+                var size = 1L << (32 - prefix);
+                var start = v4Address & ~(size - 1);
+                v4.add(new long[]{start, start + size - 1});
+            } else if (parseIpv6(text, 0, end, IPV6_VALID) == 1) {
+                var prefix = parsePrefix(cidr, text, slash, 128);
+                var high = parseIpv6(text, 0, end, IPV6_HIGH);
+                var low = parseIpv6(text, 0, end, IPV6_LOW);
+                long highMask;
+                long lowMask;
+                if (prefix == 0) {
+                    highMask = 0;
+                    lowMask = 0;
+                } else if (prefix <= 64) {
+                    highMask = -1L << (64 - prefix);
+                    lowMask = 0;
+                } else {
+                    highMask = -1L;
+                    lowMask = prefix == 128 ? -1L : -1L << (128 - prefix);
+                }
+                v6.add(new long[]{high & highMask, low & lowMask, high | ~highMask, low | ~lowMask});
+            } else {
+                throw new IllegalArgumentException("invalid cidr: " + cidr);
+            }
+        }
+
+        v4.sort(Comparator.comparingLong(range -> range[0]));
+        var v4Merged = new ArrayList<long[]>();
+        for (var range : v4) {
+            var last = v4Merged.isEmpty() ? null : v4Merged.get(v4Merged.size() - 1);
+            if (last != null && range[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                v4Merged.add(range);
+            }
+        }
+
+        v6.sort((a, b) -> compare(a[0], a[1], b[0], b[1]));
+        var v6Merged = new ArrayList<long[]>();
+        for (var range : v6) {
+            var last = v6Merged.isEmpty() ? null : v6Merged.get(v6Merged.size() - 1);
+            if (last != null && compare(range[0], range[1], last[2], last[3]) <= 0) {
+                if (compare(range[2], range[3], last[2], last[3]) > 0) {
+                    last[2] = range[2];
+                    last[3] = range[3];
+                }
+            } else {
+                v6Merged.add(range);
+            }
+        }
+
+        return new OrzWebCidrMatcher(
+                column(v4Merged, 0),
+                column(v4Merged, 1),
+                column(v6Merged, 0),
+                column(v6Merged, 1),
+                column(v6Merged, 2),
+                column(v6Merged, 3)
+        );
+    }
+
+    public boolean isEmpty() {
+        return v4Starts.length == 0 && v6StartHighs.length == 0;
+    }
+
+    public boolean matches(CharSequence text) {
+        return text != null && matches(text, 0, text.length());
+    }
+
+    /**
+     * 判断字符区间内的 IP 地址是否命中
+     *
+     * @param text  文本
+     * @param start 起始位置（包含）
+     * @param end   结束位置（不包含）
+     * @return 是否命中，非法地址返回 false
+     */
+    public boolean matches(CharSequence text, int start, int end) {
+        var v4Address = parseIpv4(text, start, end);
+        if (v4Address != INVALID) {
+            return matchesIpv4(v4Address);
+        }
+        var percent = indexOf(text, '%', start, end);
+        if (percent >= 0) {
+            end = percent;
+        }
+        if (parseIpv6(text, start, end, IPV6_VALID) != 1) {
+            return false;
+        }
+        var high = parseIpv6(text, start, end, IPV6_HIGH);
+        var low = parseIpv6(text, start, end, IPV6_LOW);
+        if (high == 0 && (low >>> 32) == 0xffffL) {
+            return matchesIpv4(low & 0xffffffffL);
+        }
+        return matchesIpv6(high, low);
+    }
+
+    /**
+     * 判断字符区间内是否为合法的 IPv4 或 IPv6 地址
+     */
+    public static boolean isIpAddress(CharSequence text, int start, int end) {
+        if (parseIpv4(text, start, end) != INVALID) {
+            return true;
+        }
+        var percent = indexOf(text, '%', start, end);
+        return parseIpv6(text, start, percent >= 0 ? percent : end, IPV6_VALID) == 1;
+    }
+
+    private boolean matchesIpv4(long address) {
+        var low = 0;
+        var high = v4Starts.length - 1;
+        while (low <= high) {
+            var mid = (low + high) >>> 1;
+            if (v4Starts[mid] <= address) {
+                if (address <= v4Ends[mid]) {
+                    return true;
+                }
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesIpv6(long addressHigh, long addressLow) {
+        var low = 0;
+        var high = v6StartHighs.length - 1;
+        while (low <= high) {
+            var mid = (low + high) >>> 1;
+            if (compare(v6StartHighs[mid], v6StartLows[mid], addressHigh, addressLow) <= 0) {
+                if (compare(addressHigh, addressLow, v6EndHighs[mid], v6EndLows[mid]) <= 0) {
+                    return true;
+                }
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return false;
+    }
+
+    private static int compare(long aHigh, long aLow, long bHigh, long bLow) {
+        var result = Long.compareUnsigned(aHigh, bHigh);
+        return result != 0 ? result : Long.compareUnsigned(aLow, bLow);
+    }
+
+    private static int parsePrefix(String cidr, String text, int slash, int max) {
+        if (slash < 0) {
+            return max;
+        }
+        var prefix = 0;
+        var length = text.length() - slash - 1;
+        if (length < 1 || length > 3) {
+            throw new IllegalArgumentException("invalid cidr: " + cidr);
+        }
+        for (int i = slash + 1; i < text.length(); i++) {
+            var digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("invalid cidr: " + cidr);
+            }
+            prefix = prefix * 10 + digit;
+        }
+        if (prefix > max) {
+            throw new IllegalArgumentException("invalid cidr: " + cidr);
+        }
+        return prefix;
+    }
+
+    private static long[] column(List<long[]> ranges, int index) {
+        var array = new long[ranges.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ranges.get(i)[index];
+        }
+        return array;
+    }
+
+    private static int indexOf(CharSequence text, char ch, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ch) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 解析点分十进制 IPv4 地址
+     *
+     * @return 无符号 32 位地址，非法时返回 -1
+     */
+    private static long parseIpv4(CharSequence text, int start, int end) {
+        if (end - start < 7 || end - start > 15) {
+            return INVALID;
+        }
+        long address = 0;
+        var octets = 0;
+        var value = 0;
+        var digits = 0;
+        for (int i = start; i <= end; i++) {
+            var ch = i < end ? text.charAt(i) : '.';
+            if (ch == '.') {
+                if (digits == 0 || ++octets > 4) {
+                    return INVALID;
+                }
+                address = (address << 8) | value;
+                value = 0;
+                digits = 0;
+            } else if (ch >= '0' && ch <= '9') {
+                value = value * 10 + (ch - '0');
+                if (++digits > 3 || value > 255) {
+                    return INVALID;
+                }
+            } else {
+                return INVALID;
+            }
+        }
+        return octets == 4 ? address : INVALID;
+    }
+
+    /**
+     * 解析 IPv6 地址，为避免分配对象分多次调用获取结果
+     *
+     * @param part IPV6_VALID 时返回 1 表示合法、0 表示非法；IPV6_HIGH / IPV6_LOW 时返回高 / 低 64 位
+     */
+    private static long parseIpv6(CharSequence text, int start, int end, int part) {
+        if (end - start < 2 || end - start > 45) {
+            return 0;
+        }
+        long headHigh = 0;
+        long headLow = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        var headGroups = 0;
+        var tailGroups = 0;
+        var compressed = false;
+        var i = start;
+        if (text.charAt(i) == ':') {
+            if (text.charAt(i + 1) != ':') {
+                return 0;
+            }
+            compressed = true;
+            i += 2;
+        }
+        while (i < end) {
+            var groupStart = i;
+            var value = 0;
+            while (i < end) {
+                var digit = Character.digit(text.charAt(i), 16);
+                if (digit < 0 || text.charAt(i) > 'f') {
+                    break;
+                }
+                value = (value << 4) | digit;
+                i++;
+            }
+            long group;
+            int groupCount;
+            if (i < end && text.charAt(i) == '.') {
+                var v4Address = parseIpv4(text, groupStart, end);
+                if (v4Address == INVALID) {
+                    return 0;
+                }
+                group = v4Address;
+                groupCount = 2;
+                i = end;
+            } else {
+                if (i == groupStart || i - groupStart > 4) {
+                    return 0;
+                }
+                group = value;
+                groupCount = 1;
+            }
+            var bits = groupCount * 16;
+            if (compressed) {
+                tailHigh = (tailHigh << bits) | (tailLow >>> (64 - bits));
+                tailLow = (tailLow << bits) | group;
+                tailGroups += groupCount;
+            } else {
+                headHigh = (headHigh << bits) | (headLow >>> (64 - bits));
+                headLow = (headLow << bits) | group;
+                headGroups += groupCount;
+            }
+            if (headGroups + tailGroups > 8) {
+                return 0;
+            }
+            if (i == end) {
+                break;
+            }
+            if (text.charAt(i) != ':') {
+                return 0;
+            }
+            i++;
+            if (i < end && text.charAt(i) == ':') {
+                if (compressed) {
+                    return 0;
+                }
+                compressed = true;
+                i++;
+            } else if (i == end) {
+                return 0;
+            }
+        }
+        var groups = headGroups + tailGroups;
+        if (compressed ? groups > 7 : groups != 8) {
+            return 0;
+        }
+        if (part == IPV6_VALID) {
+            return 1;
+        }
+        var shift = (8 - headGroups) * 16;
+        if (shift >= 128) {
+            headHigh = 0;
+            headLow = 0;
+        } else if (shift >= 64) {
+            headHigh = headLow << (shift - 64);
+            headLow = 0;
+        } else if (shift > 0) {
+            headHigh = (headHigh << shift) | (headLow >>> (64 - shift));
+            headLow = headLow << shift;
+        }
+        return part == IPV6_HIGH ? headHigh | tailHigh : headLow | tailLow;
+    }
+}
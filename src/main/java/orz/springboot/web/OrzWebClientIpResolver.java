@@ -0,0 +1,216 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * 客户端 IP 解析器
+ * <p>
+ * 未配置可信代理时保持原有行为：依次使用客户端 IP 请求头、X-Forwarded-For 的第一个地址、连接的远端地址。
+ * <p>
+ * 配置可信代理后：
+ * <ul>
+ *     <li>远端地址不可信时直接使用远端地址，忽略所有转发请求头</li>
+ *     <li>远端地址可信且配置了 client-ip-overwritten（边缘代理总是覆盖客户端 IP 请求头）时使用客户端 IP 请求头</li>
+ *     <li>否则忽略客户端 IP 请求头（客户端可以伪造，代理通常原样透传），从右向左遍历 Forwarded（RFC 7239）或 X-Forwarded-For，返回第一个不可信的地址；
+ *     遇到无法识别的节点（例如 unknown）时返回其右侧最近的可信地址；全部可信时返回最左侧的地址</li>
+ * </ul>
+ * 遍历过程只在字符区间上进行，只有最终结果会创建字符串。
+ */
+public class OrzWebClientIpResolver {
+    private final OrzWebCidrMatcher trustedProxies;
+    private final boolean clientIpOverwritten;
+
+    public OrzWebClientIpResolver(OrzWebCidrMatcher trustedProxies) {
+        this(trustedProxies, false);
+    }
+
+    /**
+     * @param trustedProxies      可信代理
+     * @param clientIpOverwritten 可信代理是否总是覆盖客户端 IP 请求头，只有这时才信任该请求头
+     */
+    public OrzWebClientIpResolver(OrzWebCidrMatcher trustedProxies, boolean clientIpOverwritten) {
+        this.trustedProxies = trustedProxies;
+        this.clientIpOverwritten = clientIpOverwritten;
+    }
+
+    /**
+     * 解析客户端 IP
+     *
+     * @param clientIp     客户端 IP 请求头
+     * @param forwarded    Forwarded 请求头
+     * @param forwardedFor X-Forwarded-For 请求头
+     * @param remoteAddr   连接的远端地址
+     * @return 客户端 IP
+     */
+    @Nullable
+    public String resolve(@Nullable String clientIp, @Nullable String forwarded, @Nullable String forwardedFor, @Nullable String remoteAddr) {
+        if (trustedProxies.isEmpty()) {
+            return resolveLegacy(clientIp, forwardedFor, remoteAddr);
+        }
+        if (remoteAddr == null || !trustedProxies.matches(remoteAddr)) {
+            return remoteAddr;
+        }
+        if (clientIpOverwritten && clientIp != null) {
+            return clientIp;
+        }
+        if (StringUtils.isNotBlank(forwarded)) {
+            return walkForwarded(forwarded, remoteAddr);
+        }
+        if (StringUtils.isNotBlank(forwardedFor)) {
+            return walkForwardedFor(forwardedFor, remoteAddr);
+        }
+        return remoteAddr;
+    }
+
+    private static String resolveLegacy(@Nullable String clientIp, @Nullable String forwardedFor, @Nullable String remoteAddr) {
+        var ip = clientIp;
+        if (ip == null) {
+            if (StringUtils.isNotBlank(forwardedFor)) {
+                var first = forwardedFor.split(",")[0];
+                if (StringUtils.isNotBlank(first)) {
+                    ip = first;
+                }
+            }
+        }
+        if (ip == null) {
+            ip = remoteAddr;
+        }
+        return ip;
+    }
+
+    private String walkForwardedFor(String text, String remoteAddr) {
+        var trustedStart = -1;
+        var trustedEnd = -1;
+        var end = text.length();
+        while (end >= 0) {
+            var comma = lastIndexOf(text, ',', 0, end);
+            var start = trim(text, comma + 1, end, true);
+            var hopEnd = trim(text, comma + 1, end, false);
+            if (start < hopEnd) {
+                var host = hostRange(text, start, hopEnd);
+                var hostStart = (int) (host >>> 32);
+                var hostEnd = (int) host;
+                if (!OrzWebCidrMatcher.isIpAddress(text, hostStart, hostEnd)) {
+                    break;
+                }
+                if (!trustedProxies.matches(text, hostStart, hostEnd)) {
+                    return text.substring(hostStart, hostEnd);
+                }
+                trustedStart = hostStart;
+                trustedEnd = hostEnd;
+            }
+            end = comma;
+        }
+        return trustedStart >= 0 ? text.substring(trustedStart, trustedEnd) : remoteAddr;
+    }
+
+    private String walkForwarded(String text, String remoteAddr) {
+        var trustedStart = -1;
+        var trustedEnd = -1;
+        var end = text.length();
+        while (end >= 0) {
+            var comma = lastIndexOf(text, ',', 0, end);
+            var value = forValue(text, comma + 1, end);
+            if (value < 0) {
+                break;
+            }
+            var host = hostRange(text, (int) (value >>> 32), (int) value);
+            var hostStart = (int) (host >>> 32);
+            var hostEnd = (int) host;
+            if (!OrzWebCidrMatcher.isIpAddress(text, hostStart, hostEnd)) {
+                break;
+            }
+            if (!trustedProxies.matches(text, hostStart, hostEnd)) {
+                return text.substring(hostStart, hostEnd);
+            }
+            trustedStart = hostStart;
+            trustedEnd = hostEnd;
+            end = comma;
+        }
+        return trustedStart >= 0 ? text.substring(trustedStart, trustedEnd) : remoteAddr;
+    }
+
+    /**
+     * 在 Forwarded 的一个节点中查找 for 参数的值
+     *
+     * @return 值的区间（起始位置在高 32 位），未找到时返回 -1
+     */
+    private static long forValue(String text, int start, int end) {
+        var pairStart = start;
+        while (pairStart < end) {
+            var semicolon = indexOf(text, ';', pairStart, end);
+            var pairEnd = semicolon < 0 ? end : semicolon;
+            var keyStart = trim(text, pairStart, pairEnd, true);
+            if (pairEnd - keyStart > 4 && text.regionMatches(true, keyStart, "for=", 0, 4)) {
+                var valueStart = trim(text, keyStart + 4, pairEnd, true);
+                var valueEnd = trim(text, keyStart + 4, pairEnd, false);
+                if (valueStart < valueEnd) {
+                    return ((long) valueStart << 32) | valueEnd;
+                }
+                return -1;
+            }
+            pairStart = pairEnd + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * 去掉引号、方括号和端口后的主机区间
+     *
+     * @return 主机区间（起始位置在高 32 位），无法识别时返回空区间
+     */
+    private static long hostRange(String text, int start, int end) {
+        if (end - start >= 2 && text.charAt(start) == '"' && text.charAt(end - 1) == '"') {
+            start++;
+            end--;
+        }
+        if (start < end && text.charAt(start) == '[') {
+            var bracket = indexOf(text, ']', start, end);
+            if (bracket < 0) {
+                return ((long) start << 32) | start;
+            }
+            return ((long) (start + 1) << 32) | bracket;
+        }
+        var colon = indexOf(text, ':', start, end);
+        if (colon >= 0 && indexOf(text, ':', colon + 1, end) < 0) {
+            end = colon;
+        }
+        return ((long) start << 32) | end;
+    }
+
+    private static int trim(String text, int start, int end, boolean leading) {
+        if (leading) {
+            while (start < end && isWhitespace(text.charAt(start))) {
+                start++;
+            }
+            return start;
+        }
+        while (end > start && isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isWhitespace(char ch) {
+        return ch == ' ' || ch == '\t';
+    }
+
+    private static int indexOf(String text, char ch, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ch) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(String text, char ch, int start, int end) {
+        for (int i = end - 1; i >= start; i--) {
+            if (text.charAt(i) == ch) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
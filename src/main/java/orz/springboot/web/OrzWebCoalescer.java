@@ -0,0 +1,163 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import orz.springboot.web.annotation.OrzWebCoalesce;
+import orz.springboot.web.model.OrzWebApiBo;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.desc;
+import static orz.springboot.base.description.OrzDescriptionUtils.descValues;
+
+/**
+ * 请求合并，由 @OrzWebCoalesce 声明，只适用于同步返回的 query = true 接口
+ * <p>
+ * 在参数校验之后、接口方法调用时合并：第一个请求调用接口方法，同一请求键的并发请求等待它的结果，
+ * 各自写出响应，错误各自由 OrzWebAdvice 构建。接口方法返回后即不再合并，不缓存结果。
+ */
+@Component
+public class OrzWebCoalescer {
+    public static final String WAITERS_REJECTED_REASON = "coalesce waiters exceed limit";
+    public static final String TIMEOUT_REJECTED_REASON = "coalesce wait timeout";
+
+    private final OrzWebRequestKeys requestKeys;
+    private final Map<Method, ApiCoalesce> apis = new ConcurrentHashMap<>();
+
+    public OrzWebCoalescer(OrzWebRequestKeys requestKeys) {
+        this.requestKeys = requestKeys;
+    }
+
+    /**
+     * 在映射时注册接口，声明不合法时启动失败
+     *
+     * @param api 接口元数据
+     */
+    public void register(OrzWebApiBo api) {
+        var annotation = AnnotatedElementUtils.findMergedAnnotation(api.getBeanClass(), OrzWebCoalesce.class);
+        if (annotation == null) {
+            return;
+        }
+        var beanClass = api.getBeanClass();
+        if (!api.isQuery()) {
+            throw new FatalBeanException(desc("@OrzWebCoalesce requires query api", "beanClass", beanClass));
+        }
+        var returnClass = api.getMethod().getReturnType();
+        if (CompletionStage.class.isAssignableFrom(returnClass) || DeferredResult.class.isAssignableFrom(returnClass)) {
+            throw new FatalBeanException(desc("@OrzWebCoalesce does not support async request method", "beanClass", beanClass));
+        }
+        if (annotation.maxWaiters() <= 0 || annotation.timeout() <= 0) {
+            throw new FatalBeanException(desc("@OrzWebCoalesce maxWaiters and timeout must be positive", "beanClass", beanClass));
+        }
+        apis.put(api.getMethod(), new ApiCoalesce(api, annotation, OrzWebRequestKeys.compileVary(beanClass, "@OrzWebCoalesce", annotation.vary())));
+    }
+
+    @Nullable
+    public ApiCoalesce get(Method method) {
+        return apis.get(method);
+    }
+
+    /**
+     * 调用接口方法，已经有相同请求在调用时等待它的结果
+     *
+     * @param coalesce   接口的合并配置
+     * @param args       接口方法参数
+     * @param invocation 实际的调用
+     * @return 接口方法的返回值，等待者与调用者共享同一个对象
+     */
+    @Nullable
+    public Object invoke(ApiCoalesce coalesce, Object[] args, Invocation invocation) throws Exception {
+        var key = args.length == 1 && args[0] != null ? requestKeys.ofValue(args[0], coalesce.vary) : null;
+        if (key == null) {
+            return invocation.invoke();
+        }
+        var flight = new Flight();
+        var existing = coalesce.flights.putIfAbsent(key, flight);
+        if (existing == null) {
+            return lead(coalesce, key, flight, invocation);
+        }
+        return follow(coalesce, existing);
+    }
+
+    @Nullable
+    private static Object lead(ApiCoalesce coalesce, OrzWebRequestKeys.Key key, Flight flight, Invocation invocation) throws Exception {
+        Object result;
+        try {
+            result = invocation.invoke();
+        } catch (Throwable e) {
+            // 先移除再完成，之后到达的请求重新调用，不会拿到已经结束的结果
+            coalesce.flights.remove(key, flight);
+            flight.future.completeExceptionally(e);
+            throw e;
+        }
+        coalesce.flights.remove(key, flight);
+        flight.future.complete(result);
+        return result;
+    }
+
+    @Nullable
+    private static Object follow(ApiCoalesce coalesce, Flight flight) throws Exception {
+        if (flight.waiters.incrementAndGet() > coalesce.maxWaiters) {
+            flight.waiters.decrementAndGet();
+            throw new OrzWebRejectedException(WAITERS_REJECTED_REASON, descValues("path", coalesce.path, "maxWaiters", coalesce.maxWaiters));
+        }
+        try {
+            return flight.future.get(coalesce.timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new OrzWebRejectedException(TIMEOUT_REJECTED_REASON, descValues("path", coalesce.path, "timeoutNanos", coalesce.timeoutNanos));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw (Exception) e.getCause();
+        } finally {
+            flight.waiters.decrementAndGet();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Invocation {
+        @Nullable
+        Object invoke() throws Exception;
+    }
+
+    public static class ApiCoalesce {
+        private final String path;
+        private final Method[] vary;
+        private final int maxWaiters;
+        private final long timeoutNanos;
+        private final Map<OrzWebRequestKeys.Key, Flight> flights = new ConcurrentHashMap<>();
+
+        private ApiCoalesce(OrzWebApiBo api, OrzWebCoalesce annotation, Method[] vary) {
+            this.path = api.getPath();
+            this.vary = vary;
+            this.maxWaiters = annotation.maxWaiters();
+            this.timeoutNanos = annotation.unit().toNanos(annotation.timeout());
+        }
+
+        /**
+         * 正在调用中的请求键数
+         */
+        public int getInFlight() {
+            return flights.size();
+        }
+
+        /**
+         * 正在等待的请求数
+         */
+        public int getWaiters() {
+            return flights.values().stream().mapToInt(flight -> flight.waiters.get()).sum();
+        }
+    }
+
+    private static class Flight {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+}
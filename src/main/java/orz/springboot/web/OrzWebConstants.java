@@ -5,6 +5,7 @@ public class OrzWebConstants {
     public static final int VERSION_CURRENT = VERSION_MIN;
 
     public static final String CODE_UNDEFINED = "undefined";
+    public static final String CODE_REJECTED = "rejected";
 
     public static final String API_PACKAGE = "api";
 }
@@ -0,0 +1,232 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import orz.springboot.web.model.OrzWebRequestHeadersBo;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Orz-Context 请求头编解码器，把 OrzWebRequestHeadersBo 的全部字段打包为一个 base64url 字符串
+ * <p>
+ * 二进制布局（版本 1）：
+ * <ol>
+ *     <li>1 字节版本号</li>
+ *     <li>varint 存在位图，第 i 位对应 OrzWebRequestHeadersBo 的第 i 个字段（requestId 为第 0 位）</li>
+ *     <li>按字段顺序依次写入存在的字段：字符串为 varint 字节长度 + UTF-8 字节；
+ *     整数为 zigzag varint；日期时间为 zigzag varint 秒数（按 UTC 换算）+ varint 纳秒</li>
+ * </ol>
+ * 客户端可以直接使用 {@link #encode(OrzWebRequestHeadersBo)} 生成请求头。
+ */
+public class OrzWebContextCodec {
+    public static final int VERSION = 1;
+
+    private static final int REQUEST_ID = 0;
+    private static final int REQUEST_TIME = 1;
+    private static final int USER_ID = 2;
+    private static final int USER_TYPE = 3;
+    private static final int CLIENT_IP = 4;
+    private static final int CLIENT_TYPE = 5;
+    private static final int CLIENT_VERSION = 6;
+    private static final int CLIENT_CHANNEL = 7;
+    private static final int INITIAL_TIME = 8;
+    private static final int LAUNCH_TIME = 9;
+    private static final int LAUNCH_SCENE = 10;
+    private static final int DEVICE_ID = 11;
+    private static final int DEVICE_BRAND = 12;
+    private static final int DEVICE_MODEL = 13;
+    private static final int OS_TYPE = 14;
+    private static final int OS_NAME = 15;
+    private static final int PLATFORM_VERSION = 16;
+    private static final int PLATFORM_SDK_VERSION = 17;
+    private static final int FIELD_COUNT = 18;
+
+    private OrzWebContextCodec() {
+    }
+
+    /**
+     * 编码请求头
+     *
+     * @param headers 请求头，null 字段不写入
+     * @return base64url 字符串（无填充）
+     */
+    public static String encode(OrzWebRequestHeadersBo headers) {
+        var values = new Object[]{
+                headers.getRequestId(),
+                headers.getRequestTime(),
+                headers.getUserId(),
+                headers.getUserType(),
+                headers.getClientIp(),
+                headers.getClientType(),
+                headers.getClientVersion(),
+                headers.getClientChannel(),
+                headers.getInitialTime(),
+                headers.getLaunchTime(),
+                headers.getLaunchScene(),
+                headers.getDeviceId(),
+                headers.getDeviceBrand(),
+                headers.getDeviceModel(),
+                headers.getOsType(),
+                headers.getOsName(),
+                headers.getPlatformVersion(),
+                headers.getPlatformSDKVersion(),
+        };
+        var bitmap = 0L;
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if (values[i] != null) {
+                bitmap |= 1L << i;
+            }
+        }
+        var out = new ByteArrayOutputStream(128);
+        out.write(VERSION);
+        writeVarint(out, bitmap);
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            var value = values[i];
+            if (value instanceof String str) {
+                var bytes = str.getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, bytes.length);
+                out.write(bytes, 0, bytes.length);
+            } else if (value instanceof Integer number) {
+                writeVarint(out, zigzag(number));
+            } else if (value instanceof LocalDateTime dateTime) {
+                writeVarint(out, zigzag(dateTime.toEpochSecond(ZoneOffset.UTC)));
+                writeVarint(out, dateTime.getNano());
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(out.toByteArray());
+    }
+
+    /**
+     * 解码请求头，一次遍历得到全部字段
+     *
+     * @param text base64url 字符串，允许带填充
+     * @return 请求头，缺少的字段为 null
+     * @throws IllegalArgumentException 格式错误、版本不支持或存在多余字节
+     */
+    public static OrzWebRequestHeadersBo decode(String text) {
+        var reader = new Reader(Base64.getUrlDecoder().decode(text));
+        var version = reader.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("unsupported version: " + version);
+        }
+        var bitmap = reader.readVarint();
+        if ((bitmap >>> FIELD_COUNT) != 0) {
+            throw new IllegalArgumentException("unknown fields: " + Long.toBinaryString(bitmap));
+        }
+        var headers = new OrzWebRequestHeadersBo(
+                reader.readString(bitmap, REQUEST_ID),
+                reader.readDateTime(bitmap, REQUEST_TIME),
+                reader.readString(bitmap, USER_ID),
+                reader.readString(bitmap, USER_TYPE),
+                reader.readString(bitmap, CLIENT_IP),
+                reader.readString(bitmap, CLIENT_TYPE),
+                reader.readInt(bitmap, CLIENT_VERSION),
+                reader.readString(bitmap, CLIENT_CHANNEL),
+                reader.readDateTime(bitmap, INITIAL_TIME),
+                reader.readDateTime(bitmap, LAUNCH_TIME),
+                reader.readString(bitmap, LAUNCH_SCENE),
+                reader.readString(bitmap, DEVICE_ID),
+                reader.readString(bitmap, DEVICE_BRAND),
+                reader.readString(bitmap, DEVICE_MODEL),
+                reader.readString(bitmap, OS_TYPE),
+                reader.readString(bitmap, OS_NAME),
+                reader.readString(bitmap, PLATFORM_VERSION),
+                reader.readString(bitmap, PLATFORM_SDK_VERSION)
+        );
+        if (reader.position != reader.bytes.length) {
+            throw new IllegalArgumentException("trailing bytes: " + (reader.bytes.length - reader.position));
+        }
+        return headers;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        private Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private int readByte() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("unexpected end");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        private long readVarint() {
+            var value = 0L;
+            for (int shift = 0; shift < 64; shift += 7) {
+                var b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("varint is too long");
+        }
+
+        @Nullable
+        private String readString(long bitmap, int index) {
+            if ((bitmap & (1L << index)) == 0) {
+                return null;
+            }
+            var length = readVarint();
+            if (length < 0 || length > bytes.length - position) {
+                throw new IllegalArgumentException("string length is invalid: " + length);
+            }
+            var str = new String(bytes, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return str;
+        }
+
+        @Nullable
+        private Integer readInt(long bitmap, int index) {
+            if ((bitmap & (1L << index)) == 0) {
+                return null;
+            }
+            var value = unzigzag(readVarint());
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("int is out of range: " + value);
+            }
+            return (int) value;
+        }
+
+        @Nullable
+        private LocalDateTime readDateTime(long bitmap, int index) {
+            if ((bitmap & (1L << index)) == 0) {
+                return null;
+            }
+            var seconds = unzigzag(readVarint());
+            var nanos = readVarint();
+            if (nanos < 0 || nanos > 999_999_999) {
+                throw new IllegalArgumentException("nanos is out of range: " + nanos);
+            }
+            try {
+                return LocalDateTime.ofEpochSecond(seconds, (int) nanos, ZoneOffset.UTC);
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("date time is out of range: " + seconds, e);
+            }
+        }
+    }
+}
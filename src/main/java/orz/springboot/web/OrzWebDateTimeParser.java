@@ -0,0 +1,88 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Year;
+
+/**
+ * yyyyMMddHHmmss[SSSSSSSSS] 格式的日期时间解析器，结果与 OrzWebRequestHeadersExtractor.DATE_TIME_FORMATTER 一致：
+ * <ul>
+ *     <li>末尾的 1 ~ 9 位数字按毫秒数解析，取值范围 0 ~ 999</li>
+ *     <li>日期超出当月天数时截断到月末（ResolverStyle.SMART）</li>
+ *     <li>24 时 00 分 00 秒解析为次日 0 时（ResolverStyle.SMART）</li>
+ * </ul>
+ * 解析过程不创建中间对象，格式错误时返回空而不是抛出异常
+ */
+public class OrzWebDateTimeParser {
+    private static final int DATE_TIME_LENGTH = 14;
+    private static final int MILLI_MAX_LENGTH = 9;
+
+    @Nullable
+    public static LocalDateTime parse(@Nullable CharSequence text) {
+        if (!isValid(text)) {
+            return null;
+        }
+        var length = text.length();
+        var year = digits(text, 0, 4);
+        var month = digits(text, 4, 6);
+        var day = Math.min(digits(text, 6, 8), monthLength(year, month));
+        var hour = digits(text, 8, 10);
+        var minute = digits(text, 10, 12);
+        var second = digits(text, 12, 14);
+        var milli = length > DATE_TIME_LENGTH ? digits(text, DATE_TIME_LENGTH, length) : 0;
+        if (hour == 24) {
+            return LocalDate.of(year, month, day).plusDays(1).atTime(LocalTime.MIDNIGHT);
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, milli * 1_000_000);
+    }
+
+    /**
+     * 只检查格式，不创建对象，与 parse 不为空等价
+     */
+    public static boolean isValid(@Nullable CharSequence text) {
+        if (text == null) {
+            return false;
+        }
+        var length = text.length();
+        if (length < DATE_TIME_LENGTH || length > DATE_TIME_LENGTH + MILLI_MAX_LENGTH) {
+            return false;
+        }
+        var year = digits(text, 0, 4);
+        var month = digits(text, 4, 6);
+        var day = digits(text, 6, 8);
+        var hour = digits(text, 8, 10);
+        var minute = digits(text, 10, 12);
+        var second = digits(text, 12, 14);
+        var milli = length > DATE_TIME_LENGTH ? digits(text, DATE_TIME_LENGTH, length) : 0;
+        if ((year | month | day | hour | minute | second | milli) < 0) {
+            return false;
+        }
+        if (month < 1 || month > 12 || day < 1 || day > 31 || minute > 59 || second > 59 || milli > 999) {
+            return false;
+        }
+        return hour < 24 || (hour == 24 && minute == 0 && second == 0 && milli == 0);
+    }
+
+    private static int digits(CharSequence text, int start, int end) {
+        var value = 0;
+        for (int i = start; i < end; i++) {
+            var digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int monthLength(int year, int month) {
+        return switch (month) {
+            case 2 -> Year.isLeap(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+}
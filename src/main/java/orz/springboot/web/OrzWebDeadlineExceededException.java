@@ -0,0 +1,17 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import orz.springboot.base.description.OrzDescription;
+import orz.springboot.web.model.OrzWebProtocolBo;
+
+/**
+ * 请求已经超过截止时间被丢弃，响应 orz.web.deadline.code，不告警
+ * <p>
+ * 响应与降载相同，指标中记为截止时间的 Orz-Code，与限流、降载的 rejected 区分
+ */
+public class OrzWebDeadlineExceededException extends OrzWebThrottledException {
+    public OrzWebDeadlineExceededException(@Nonnull OrzWebProtocolBo protocol, @Nullable OrzDescription description) {
+        super(OrzWebDeadlines.REJECTED_REASON, protocol, 0, description);
+    }
+}
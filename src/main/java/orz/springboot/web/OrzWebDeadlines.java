@@ -0,0 +1,105 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import orz.springboot.web.model.OrzWebApiBo;
+import orz.springboot.web.model.OrzWebProtocolBo;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.desc;
+import static orz.springboot.base.description.OrzDescriptionUtils.descValues;
+
+/**
+ * 请求截止时间，由 orz.web.deadline 启用，在分发前最先检查
+ * <p>
+ * 超时取 Orz-Timeout 请求头，没有时取 @OrzWebApi(deadlineMillis)，从 Orz-Request-Time 起算，
+ * 已经流逝的时间扣除时钟偏差容忍度，客户端时钟超前时视为刚刚发出。
+ * 截止时间绑定到 OrzWebRequestHeadersBo，接口通过 getRemainingMillis() 获取剩余的时间预算。
+ */
+@Component
+public class OrzWebDeadlines {
+    public static final String REJECTED_REASON = "deadline exceeded";
+
+    private final OrzWebProps props;
+    private final OrzWebRequestHeadersExtractor extractor;
+    private final OrzWebProtocolBo protocol;
+    private final Map<Method, Long> defaults = new ConcurrentHashMap<>();
+
+    public OrzWebDeadlines(OrzWebProps props, OrzWebRequestHeadersExtractor extractor) {
+        this.props = props;
+        this.extractor = extractor;
+        this.protocol = OrzWebProtocolBo.error(props.getDeadline().getCode(), null);
+    }
+
+    public boolean isEnabled() {
+        return props.getDeadline().isEnabled();
+    }
+
+    /**
+     * 在映射时注册接口的默认超时
+     *
+     * @param api 接口元数据
+     */
+    public void register(OrzWebApiBo api) {
+        if (api.getAnnotation().deadlineMillis() > 0) {
+            defaults.put(api.getMethod(), api.getAnnotation().deadlineMillis());
+        }
+    }
+
+    /**
+     * 确定并绑定截止时间，已经超过时抛出 OrzWebDeadlineExceededException
+     *
+     * @param method  接口方法
+     * @param request 请求
+     */
+    public void check(Method method, HttpServletRequest request) {
+        var timeoutMillis = getTimeoutMillis(method, request);
+        if (timeoutMillis == null) {
+            return;
+        }
+        var headers = extractor.extract(request);
+        var now = System.nanoTime();
+        var remainingMillis = timeoutMillis - getElapsedMillis(headers.getRequestTime());
+        headers.bindDeadline(now + TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+        if (remainingMillis <= 0) {
+            throw new OrzWebDeadlineExceededException(protocol, descValues("timeoutMillis", timeoutMillis, "remainingMillis", remainingMillis));
+        }
+    }
+
+    @Nullable
+    private Long getTimeoutMillis(Method method, HttpServletRequest request) {
+        var headerName = props.getRequestHeaders().getTimeout();
+        var value = request.getHeader(headerName);
+        if (StringUtils.isBlank(value)) {
+            return defaults.get(method);
+        }
+        try {
+            var timeoutMillis = Long.parseLong(value);
+            if (timeoutMillis > 0) {
+                return timeoutMillis;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new ResponseStatusException(400, desc("header is invalid", "header", headerName, "value", value), null);
+    }
+
+    /**
+     * 自 Orz-Request-Time 以来流逝的时间，扣除时钟偏差容忍度，没有请求时间时为 0
+     */
+    private long getElapsedMillis(@Nullable LocalDateTime requestTime) {
+        if (requestTime == null) {
+            return 0;
+        }
+        var elapsed = Duration.between(requestTime, LocalDateTime.now()).minus(props.getDeadline().getClockSkewTolerance());
+        return elapsed.isNegative() ? 0 : elapsed.toMillis();
+    }
+}
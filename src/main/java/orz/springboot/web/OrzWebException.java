@@ -2,6 +2,7 @@ package orz.springboot.web;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
+import lombok.AccessLevel;
 import lombok.Getter;
 import orz.springboot.base.description.OrzDescription;
 
@@ -10,9 +11,14 @@ import static orz.springboot.base.description.OrzDescriptionUtils.descValues;
 
 @Getter
 public class OrzWebException extends RuntimeException {
+    private static volatile boolean stacklessDefault = false;
+
     private final String code;
     private final OrzDescription description;
 
+    @Getter(AccessLevel.NONE)
+    private volatile String message;
+
     public OrzWebException(@Nonnull String code) {
         this(code, null, null);
     }
@@ -22,11 +28,53 @@ public class OrzWebException extends RuntimeException {
     }
 
     public OrzWebException(@Nonnull String code, @Nullable OrzDescription description, @Nullable Throwable cause) {
-        super(buildMessage(code, description), cause);
+        this(code, description, cause, stacklessDefault);
+    }
+
+    /**
+     * @param code        错误代码
+     * @param description 错误描述
+     * @param cause       原因
+     * @param stackless   是否跳过堆栈填充，适用于预期内的业务错误
+     */
+    public OrzWebException(@Nonnull String code, @Nullable OrzDescription description, @Nullable Throwable cause, boolean stackless) {
+        super(null, cause, true, !stackless);
         this.code = code;
         this.description = description;
     }
 
+    /**
+     * 消息在首次访问时才构建，大多数业务错误从不读取消息
+     */
+    @Override
+    public String getMessage() {
+        var message = this.message;
+        if (message == null) {
+            message = buildMessage(code, description);
+            this.message = message;
+        }
+        return message;
+    }
+
+    public static OrzWebException stackless(@Nonnull String code) {
+        return new OrzWebException(code, null, null, true);
+    }
+
+    public static OrzWebException stackless(@Nonnull String code, @Nullable OrzDescription description) {
+        return new OrzWebException(code, description, null, true);
+    }
+
+    public static boolean isStacklessDefault() {
+        return stacklessDefault;
+    }
+
+    /**
+     * 设置未显式指定时的默认模式，由 OrzWebExceptionInitializer 按 orz.web.exception.stackless 绑定
+     */
+    public static void setStacklessDefault(boolean stackless) {
+        stacklessDefault = stackless;
+    }
+
     private static String buildMessage(String code, OrzDescription description) {
         if (description == null) {
             return desc(null, "code", code);
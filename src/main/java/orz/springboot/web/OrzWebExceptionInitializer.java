@@ -0,0 +1,31 @@
+package orz.springboot.web;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按 orz.web.exception.stackless 绑定 OrzWebException 未显式指定时的堆栈模式，上下文关闭时恢复之前的值
+ * <p>
+ * 该模式在 JVM 内全局生效，同一 JVM 中同时运行多个上下文时以最后启动的为准。
+ */
+@Component
+public class OrzWebExceptionInitializer implements InitializingBean, DisposableBean {
+    private final OrzWebProps props;
+    private volatile boolean previous;
+
+    public OrzWebExceptionInitializer(OrzWebProps props) {
+        this.props = props;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        previous = OrzWebException.isStacklessDefault();
+        OrzWebException.setStacklessDefault(props.getException().isStackless());
+    }
+
+    @Override
+    public void destroy() {
+        OrzWebException.setStacklessDefault(previous);
+    }
+}
@@ -1,10 +1,9 @@
 package orz.springboot.web;
 
-import io.micrometer.common.util.StringUtils;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import jakarta.servlet.http.HttpServletRequest;
-import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,15 +14,20 @@ import orz.springboot.web.model.OrzWebErrorRsp;
 import orz.springboot.web.model.OrzWebErrorTraceTo;
 import orz.springboot.web.model.OrzWebProtocolBo;
 
-import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.List;
-
-import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class OrzWebHandler {
+    // 错误响应模板数量上限，超出后不再缓存，避免动态通知撑大缓存
+    static final int MAX_ERROR_TEMPLATES = 1024;
+    static final String TRUNCATED = "\n\t... truncated\n";
+
     private final OrzWebProps props;
+    private volatile ResponseHeadersSnapshot snapshot;
+    private volatile OrzWebTraceRenderer traceRenderer;
 
     public OrzWebHandler(OrzWebProps props) {
         this.props = props;
@@ -37,7 +41,8 @@ public class OrzWebHandler {
      * @return 响应体
      */
     public Object processSuccessResponse(@Nullable Object body, @Nonnull ServerHttpResponse response) {
-        response.getHeaders().set(props.getResponseHeaders().getVersion(), String.valueOf(OrzWebConstants.VERSION_CURRENT));
+        var snapshot = getSnapshot();
+        response.getHeaders().set(snapshot.versionName, snapshot.currentVersion);
         return body;
     }
 
@@ -52,6 +57,29 @@ public class OrzWebHandler {
      * @return 错误响应
      */
     public ResponseEntity<?> buildErrorResponse(OrzWebProtocolBo protocol, String reason, @Nullable List<OrzWebErrorTraceTo> extraTraces, Exception topException, HttpServletRequest request) {
+        if (isTemplateApplicable(reason)) {
+            return getSnapshot().getErrorTemplate(protocol).entity();
+        }
+        return buildErrorResponse(protocol, OrzWebUtils.encodeNotice(protocol.getNotice()), reason, extraTraces, topException, request);
+    }
+
+    /**
+     * 构建错误响应
+     *
+     * @param protocol      协议
+     * @param encodedNotice 已经 URL 编码的通知
+     * @param reason        错误原因
+     * @param extraTraces   额外的追踪信息
+     * @param topException  最顶层的异常
+     * @param request       请求
+     * @return 错误响应
+     */
+    public ResponseEntity<?> buildErrorResponse(OrzWebProtocolBo protocol, @Nullable String encodedNotice, String reason, @Nullable List<OrzWebErrorTraceTo> extraTraces, Exception topException, HttpServletRequest request) {
+        var snapshot = getSnapshot();
+        if (isTemplateApplicable(reason)) {
+            return snapshot.getErrorTemplate(protocol, encodedNotice);
+        }
+
         String exposeReason = null;
         if (props.isExposeErrorReason()) {
             exposeReason = reason;
@@ -62,13 +90,7 @@ public class OrzWebHandler {
             exposeTraces = getTraces(request, topException, extraTraces);
         }
 
-        var headers = new HttpHeaders();
-        headers.set(props.getResponseHeaders().getVersion(), String.valueOf(protocol.getVersion()));
-        headers.set(props.getResponseHeaders().getCode(), protocol.getCode());
-        if (StringUtils.isNotBlank(protocol.getNotice())) {
-            headers.set(props.getResponseHeaders().getNotice(), URLEncoder.encode(protocol.getNotice(), UTF_8));
-        }
-
+        var headers = snapshot.buildErrorHeaders(protocol, encodedNotice);
         if (StringUtils.isNotBlank(exposeReason) || !CollectionUtils.isEmpty(exposeTraces)) {
             var errorRsp = new OrzWebErrorRsp(protocol.getCode(), exposeReason, exposeTraces);
             return new ResponseEntity<>(errorRsp, headers, HttpStatus.OK);
@@ -77,6 +99,30 @@ public class OrzWebHandler {
         }
     }
 
+    /**
+     * 不暴露错误原因和追踪信息时，错误响应只由协议决定，可以使用预先构建的模板
+     */
+    private boolean isTemplateApplicable(@Nullable String reason) {
+        return !props.isExposeErrorTraces() && (!props.isExposeErrorReason() || StringUtils.isBlank(reason));
+    }
+
+    /**
+     * 获取响应头快照，属性重新绑定后（配置对象或请求头名称发生变化）重新构建
+     */
+    private ResponseHeadersSnapshot getSnapshot() {
+        var config = props.getResponseHeaders();
+        var current = snapshot;
+        if (current == null
+                || current.config != config
+                || !current.versionName.equals(config.getVersion())
+                || !current.codeName.equals(config.getCode())
+                || !current.noticeName.equals(config.getNotice())) {
+            current = new ResponseHeadersSnapshot(config);
+            snapshot = current;
+        }
+        return current;
+    }
+
     public String getEndpoint(HttpServletRequest request) {
         var contextPath = request.getContextPath();
         var endpoint = request.getRequestURI();
@@ -86,12 +132,130 @@ public class OrzWebHandler {
         return endpoint;
     }
 
+    /**
+     * 构建追踪信息，当前服务的追踪在前，合计超出 orz.web.trace.max-bytes 时截断，之后的追踪只保留服务和端点
+     *
+     * @param request      请求
+     * @param topException 最顶层的异常
+     * @param extraTraces  额外的追踪信息
+     * @return 追踪信息
+     */
     public List<OrzWebErrorTraceTo> getTraces(HttpServletRequest request, Exception topException, @Nullable List<OrzWebErrorTraceTo> extraTraces) {
         var traces = new ArrayList<OrzWebErrorTraceTo>();
-        traces.add(new OrzWebErrorTraceTo(props.getService(), getEndpoint(request), ExceptionUtils.getStackTrace(topException)));
+        var remaining = props.getTrace().getMaxBytes();
+        remaining = addTrace(traces, props.getService(), getEndpoint(request), getTraceRenderer().render(topException), remaining);
         if (!CollectionUtils.isEmpty(extraTraces)) {
-            traces.addAll(extraTraces);
+            for (var trace : extraTraces) {
+                remaining = addTrace(traces, trace.getService(), trace.getEndpoint(), trace.getDetails(), remaining);
+            }
         }
         return traces;
     }
+
+    private static long addTrace(List<OrzWebErrorTraceTo> traces, String service, String endpoint, @Nullable String details, long remaining) {
+        if (details == null || remaining <= 0) {
+            traces.add(new OrzWebErrorTraceTo(service, endpoint, null));
+            return remaining;
+        }
+        var size = OrzWebTraceRenderer.utf8Length(details);
+        if (size <= remaining) {
+            traces.add(new OrzWebErrorTraceTo(service, endpoint, details));
+            return remaining - size;
+        }
+        var truncated = OrzWebTraceRenderer.truncate(details, Math.max(0, remaining - TRUNCATED.length())) + TRUNCATED;
+        traces.add(new OrzWebErrorTraceTo(service, endpoint, truncated));
+        return 0;
+    }
+
+    /**
+     * 属性重新绑定后重新创建，缓存的栈随之丢弃
+     */
+    private OrzWebTraceRenderer getTraceRenderer() {
+        var config = props.getTrace();
+        var current = traceRenderer;
+        if (current == null || current.isStale(config)) {
+            current = new OrzWebTraceRenderer(config);
+            traceRenderer = current;
+        }
+        return current;
+    }
+
+    private static class ResponseHeadersSnapshot {
+        private final OrzWebProps.ResponseHeadersConfig config;
+        private final String versionName;
+        private final String codeName;
+        private final String noticeName;
+        private final String currentVersion;
+        private final ConcurrentHashMap<OrzWebProtocolBo, ErrorTemplate> errorTemplates = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<ErrorTemplateKey, ErrorTemplate> noticeTemplates = new ConcurrentHashMap<>();
+
+        private ResponseHeadersSnapshot(OrzWebProps.ResponseHeadersConfig config) {
+            this.config = config;
+            this.versionName = config.getVersion();
+            this.codeName = config.getCode();
+            this.noticeName = config.getNotice();
+            this.currentVersion = String.valueOf(OrzWebConstants.VERSION_CURRENT);
+        }
+
+        private HttpHeaders buildErrorHeaders(OrzWebProtocolBo protocol, @Nullable String encodedNotice) {
+            var headers = new HttpHeaders();
+            headers.set(versionName, protocol.getVersion() == OrzWebConstants.VERSION_CURRENT ? currentVersion : String.valueOf(protocol.getVersion()));
+            headers.set(codeName, protocol.getCode());
+            if (encodedNotice != null) {
+                headers.set(noticeName, encodedNotice);
+            }
+            return headers;
+        }
+
+        /**
+         * 通知由协议中的通知编码得到的模板，只按协议缓存
+         */
+        private ErrorTemplate getErrorTemplate(OrzWebProtocolBo protocol) {
+            var template = errorTemplates.get(protocol);
+            if (template == null) {
+                template = cache(errorTemplates, protocol, buildErrorTemplate(protocol, OrzWebUtils.encodeNotice(protocol.getNotice())));
+            }
+            return template;
+        }
+
+        /**
+         * 通知与协议中的通知一致时共用按协议缓存的模板，否则按协议和通知缓存
+         */
+        private ResponseEntity<?> getErrorTemplate(OrzWebProtocolBo protocol, @Nullable String encodedNotice) {
+            var template = getErrorTemplate(protocol);
+            if (Objects.equals(template.encodedNotice(), encodedNotice)) {
+                return template.entity();
+            }
+            var key = new ErrorTemplateKey(protocol, encodedNotice);
+            template = noticeTemplates.get(key);
+            if (template == null) {
+                template = cache(noticeTemplates, key, buildErrorTemplate(protocol, encodedNotice));
+            }
+            return template.entity();
+        }
+
+        private ErrorTemplate buildErrorTemplate(OrzWebProtocolBo protocol, @Nullable String encodedNotice) {
+            return new ErrorTemplate(encodedNotice, new ResponseEntity<>(null, buildErrorHeaders(protocol, encodedNotice), HttpStatus.OK));
+        }
+
+        private static <K> ErrorTemplate cache(ConcurrentHashMap<K, ErrorTemplate> templates, K key, ErrorTemplate template) {
+            if (templates.size() >= MAX_ERROR_TEMPLATES) {
+                return template;
+            }
+            var previous = templates.putIfAbsent(key, template);
+            return previous != null ? previous : template;
+        }
+    }
+
+    /**
+     * 错误响应模板，ResponseEntity 的响应头只读，可以在请求之间共享
+     *
+     * @param encodedNotice 已经 URL 编码的通知
+     * @param entity        响应
+     */
+    private record ErrorTemplate(@Nullable String encodedNotice, ResponseEntity<?> entity) {
+    }
+
+    private record ErrorTemplateKey(OrzWebProtocolBo protocol, @Nullable String encodedNotice) {
+    }
 }
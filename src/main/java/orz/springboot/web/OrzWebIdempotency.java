@@ -0,0 +1,256 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import orz.springboot.base.OrzBaseUtils;
+import orz.springboot.web.annotation.OrzWebIdempotent;
+import orz.springboot.web.model.OrzWebApiBo;
+import orz.springboot.web.model.OrzWebIdempotentResponseBo;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.desc;
+import static orz.springboot.base.description.OrzDescriptionUtils.descValues;
+
+/**
+ * 变更接口幂等，由 @OrzWebIdempotent 声明，只适用于同步返回的 query = false 接口
+ * <p>
+ * 键为接口路径、用户 ID（没有时为设备 ID）和请求 ID，请求中没有请求 ID 或者用户、设备 ID（均为可选时）时不处理，
+ * 请求头无效（缺少必需的请求头等）时与接口读取请求头时一致，响应 400。
+ * 记录成功的响应和已声明的 OrzWebException 错误，其它异常和拒绝不记录，重试时重新执行。
+ * 记录中保存请求体的哈希，使用相同请求 ID 但请求体不同的请求不会重放，响应 400。
+ * <p>
+ * 本实例执行中的重试等待执行完成的通知，只有其它实例执行中（共享存储）时才轮询存储。
+ */
+@Component
+public class OrzWebIdempotency {
+    public static final String IN_FLIGHT_REJECTED_REASON = "idempotent request in flight";
+
+    private static final Method[] NO_VARY = new Method[0];
+
+    private static final Logger logger = LoggerFactory.getLogger("orz-web-api");
+    private static final long POLL_MILLIS = 20;
+
+    private final OrzWebProps props;
+    private final OrzWebRequestHeadersExtractor extractor;
+    private final OrzWebRequestKeys requestKeys;
+    private final ObjectProvider<OrzWebIdempotencyStore> storeProvider;
+    private final Map<Method, ApiIdempotency> apis = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> running = new ConcurrentHashMap<>();
+    private volatile OrzWebIdempotencyStore store;
+
+    public OrzWebIdempotency(OrzWebProps props, OrzWebRequestHeadersExtractor extractor, OrzWebRequestKeys requestKeys, ObjectProvider<OrzWebIdempotencyStore> storeProvider) {
+        this.props = props;
+        this.extractor = extractor;
+        this.requestKeys = requestKeys;
+        this.storeProvider = storeProvider;
+    }
+
+    /**
+     * 在映射时注册接口，声明不合法时启动失败
+     *
+     * @param api 接口元数据
+     */
+    public void register(OrzWebApiBo api) {
+        var annotation = AnnotatedElementUtils.findMergedAnnotation(api.getBeanClass(), OrzWebIdempotent.class);
+        if (annotation == null) {
+            return;
+        }
+        var beanClass = api.getBeanClass();
+        if (api.isQuery()) {
+            throw new FatalBeanException(desc("@OrzWebIdempotent requires mutation api", "beanClass", beanClass));
+        }
+        var returnClass = api.getMethod().getReturnType();
+        if (CompletionStage.class.isAssignableFrom(returnClass) || DeferredResult.class.isAssignableFrom(returnClass)) {
+            throw new FatalBeanException(desc("@OrzWebIdempotent does not support async request method", "beanClass", beanClass));
+        }
+        if (annotation.ttl() <= 0) {
+            throw new FatalBeanException(desc("@OrzWebIdempotent ttl must be positive", "beanClass", beanClass));
+        }
+        apis.put(api.getMethod(), new ApiIdempotency(api, Duration.ofNanos(annotation.unit().toNanos(annotation.ttl()))));
+    }
+
+    @Nullable
+    public ApiIdempotency get(Method method) {
+        return apis.get(method);
+    }
+
+    /**
+     * 处理请求，已记录时重放响应，执行中时等待，否则执行并记录响应
+     *
+     * @param idempotency 接口的幂等配置
+     * @param request     请求
+     * @param response    响应
+     * @param invocation  实际的调用，请求体已经读取，需要使用传入的请求
+     * @return 同 RequestMappingHandlerAdapter#handleInternal
+     */
+    @Nullable
+    public ModelAndView handle(ApiIdempotency idempotency, HttpServletRequest request, HttpServletResponse response, Invocation invocation) throws Exception {
+        var key = buildKey(idempotency, request);
+        if (key == null) {
+            return invocation.invoke(request, response);
+        }
+        var body = StreamUtils.copyToByteArray(request.getInputStream());
+        var cachedRequest = new OrzWebCachedBodyRequest(request, body);
+        var requestHash = toHash(requestKeys.ofBody(body, NO_VARY, request));
+        var store = getStore();
+        var config = props.getIdempotency();
+        var deadline = System.nanoTime() + config.getWaitTimeout().toNanos();
+        while (!store.acquire(key, config.getLease())) {
+            var recorded = store.get(key);
+            if (recorded != null) {
+                return replay(idempotency, key, recorded, requestHash, response);
+            }
+            var remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new OrzWebRejectedException(IN_FLIGHT_REJECTED_REASON, descValues("path", idempotency.path, "key", key));
+            }
+            var owner = running.get(key);
+            if (owner != null) {
+                try {
+                    owner.get(remaining, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException ignored) {
+                    // 下一轮检查等待时间后拒绝
+                }
+            } else {
+                // 其它实例执行中，或者本实例刚刚占用、尚未登记
+                Thread.sleep(Math.min(POLL_MILLIS, TimeUnit.NANOSECONDS.toMillis(remaining) + 1));
+            }
+        }
+
+        var done = new CompletableFuture<Void>();
+        running.put(key, done);
+        OrzWebIdempotentResponseBo recorded = null;
+        try {
+            var wrapper = new ContentCachingResponseWrapper(response);
+            ModelAndView modelAndView;
+            try {
+                modelAndView = invocation.invoke(cachedRequest, wrapper);
+            } catch (Exception e) {
+                recorded = OrzBaseUtils.getException(OrzWebException.class, e)
+                        .filter(exception -> idempotency.api.getError(exception.getCode()) != null)
+                        .map(exception -> new OrzWebIdempotentResponseBo(null, null, null, exception.getCode(), requestHash))
+                        .orElse(null);
+                throw e;
+            }
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK && !request.isAsyncStarted()) {
+                recorded = new OrzWebIdempotentResponseBo(wrapper.getContentAsByteArray(), wrapper.getContentType(), wrapper.getHeader(props.getResponseHeaders().getVersion()), null, requestHash);
+            }
+            wrapper.copyBodyToResponse();
+            return modelAndView;
+        } finally {
+            finish(store, key, recorded, idempotency.ttl);
+            running.remove(key, done);
+            done.complete(null);
+        }
+    }
+
+    /**
+     * 接口已经执行，存储失败时只记录日志，不影响本次响应
+     */
+    private static void finish(OrzWebIdempotencyStore store, String key, @Nullable OrzWebIdempotentResponseBo recorded, Duration ttl) {
+        try {
+            if (recorded != null) {
+                store.complete(key, recorded, ttl);
+            } else {
+                store.release(key);
+            }
+        } catch (RuntimeException e) {
+            logger.error(desc("OrzWebIdempotencyStore failed", "store", store, "key", key), e);
+        }
+    }
+
+    @Nullable
+    private String buildKey(ApiIdempotency idempotency, HttpServletRequest request) {
+        var headers = extractor.extract(request);
+        if (headers.getRequestId() == null) {
+            return null;
+        }
+        String principal;
+        if (headers.getUserId() != null) {
+            principal = "u:" + headers.getUserId();
+        } else if (headers.getDeviceId() != null) {
+            principal = "d:" + headers.getDeviceId();
+        } else {
+            return null;
+        }
+        return idempotency.path + '\n' + principal + '\n' + headers.getRequestId();
+    }
+
+    @Nullable
+    private static String toHash(@Nullable OrzWebRequestKeys.Key key) {
+        if (key == null) {
+            return null;
+        }
+        var hex = HexFormat.of();
+        return hex.toHexDigits(key.h1()) + hex.toHexDigits(key.h2()) + hex.toHexDigits(key.h3()) + hex.toHexDigits(key.h4());
+    }
+
+    @Nullable
+    private ModelAndView replay(ApiIdempotency idempotency, String key, OrzWebIdempotentResponseBo recorded, @Nullable String requestHash, HttpServletResponse response) throws Exception {
+        if (recorded.getRequestHash() != null && !recorded.getRequestHash().equals(requestHash)) {
+            throw new ResponseStatusException(400, desc("idempotent request body mismatch", "path", idempotency.path, "key", key), null);
+        }
+        if (recorded.getCode() != null) {
+            throw OrzWebException.stackless(recorded.getCode(), descValues("replayed", true));
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        if (recorded.getContentType() != null) {
+            response.setContentType(recorded.getContentType());
+        }
+        if (recorded.getVersion() != null) {
+            response.setHeader(props.getResponseHeaders().getVersion(), recorded.getVersion());
+        }
+        response.setContentLength(recorded.getBody().length);
+        response.getOutputStream().write(recorded.getBody());
+        return null;
+    }
+
+    private OrzWebIdempotencyStore getStore() {
+        var value = store;
+        if (value == null) {
+            synchronized (this) {
+                value = store;
+                if (value == null) {
+                    var config = props.getIdempotency();
+                    value = storeProvider.getIfAvailable(() -> new OrzWebMemoryIdempotencyStore(config.getMaxEntries(), config.getMaxBytes()));
+                    store = value;
+                }
+            }
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    public interface Invocation {
+        ModelAndView invoke(HttpServletRequest request, HttpServletResponse response) throws Exception;
+    }
+
+    public static class ApiIdempotency {
+        private final OrzWebApiBo api;
+        private final String path;
+        private final Duration ttl;
+
+        private ApiIdempotency(OrzWebApiBo api, Duration ttl) {
+            this.api = api;
+            this.path = api.getPath();
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import orz.springboot.web.model.OrzWebIdempotentResponseBo;
+
+import java.time.Duration;
+
+/**
+ * 幂等记录的存储，声明为 Bean 时替换默认的进程内存储，例如使用 Redis 在多个实例间共享
+ * <p>
+ * 键的状态为不存在、执行中（acquire 成功后）和已记录（complete 后），执行中的键在租约到期后视为不存在。
+ */
+public interface OrzWebIdempotencyStore {
+    /**
+     * 键不存在时占用为执行中
+     *
+     * @param key   键
+     * @param lease 租约，执行实例异常退出时占用在到期后释放
+     * @return 占用成功时为 true，执行中或已记录时为 false
+     */
+    boolean acquire(String key, Duration lease);
+
+    /**
+     * @param key 键
+     * @return 已记录的响应，不存在或者执行中时为 null
+     */
+    @Nullable
+    OrzWebIdempotentResponseBo get(String key);
+
+    /**
+     * 记录响应，执行中的状态变为已记录
+     *
+     * @param key      键
+     * @param response 响应
+     * @param ttl      记录时间
+     */
+    void complete(String key, OrzWebIdempotentResponseBo response, Duration ttl);
+
+    /**
+     * 释放执行中的占用，没有可以记录的响应时调用，之后的重试会重新执行
+     *
+     * @param key 键
+     */
+    void release(String key);
+}
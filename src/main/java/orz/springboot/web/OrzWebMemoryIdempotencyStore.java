@@ -0,0 +1,129 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import orz.springboot.web.model.OrzWebIdempotentResponseBo;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内的幂等记录存储，没有声明 OrzWebIdempotencyStore 时使用，只在单个实例内有效
+ * <p>
+ * 超出条目数或字节数时按记录顺序淘汰，过期的记录在访问时删除
+ */
+public class OrzWebMemoryIdempotencyStore implements OrzWebIdempotencyStore {
+    // 条目的固定开销估算（字节）
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+    private final LongAdder evictions = new LongAdder();
+
+    public OrzWebMemoryIdempotencyStore(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public boolean acquire(String key, Duration lease) {
+        var now = System.nanoTime();
+        var entry = new Entry(key, null, now + lease.toNanos(), 0);
+        while (true) {
+            var existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                return true;
+            }
+            if (now - existing.expiresAt() < 0) {
+                return false;
+            }
+            remove(existing);
+        }
+    }
+
+    @Nullable
+    @Override
+    public OrzWebIdempotentResponseBo get(String key) {
+        var entry = entries.get(key);
+        if (entry == null || entry.response() == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt() >= 0) {
+            remove(entry);
+            return null;
+        }
+        return entry.response();
+    }
+
+    @Override
+    public void complete(String key, OrzWebIdempotentResponseBo response, Duration ttl) {
+        var size = response.getSize() + key.length() + ENTRY_OVERHEAD;
+        if (size > maxBytes) {
+            release(key);
+            return;
+        }
+        var entry = new Entry(key, response, System.nanoTime() + ttl.toNanos(), size);
+        var previous = entries.put(key, entry);
+        if (previous != null) {
+            bytes.addAndGet(-previous.size());
+        }
+        bytes.addAndGet(size);
+        queue.offer(entry);
+        queued.incrementAndGet();
+        // 队列中可能残留已被替换或过期删除的条目，数量超过上限两倍时同样从队首淘汰
+        while (entries.size() > maxEntries || bytes.get() > maxBytes || queued.get() > maxEntries * 2) {
+            var head = queue.poll();
+            if (head == null) {
+                break;
+            }
+            queued.decrementAndGet();
+            if (remove(head)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        var entry = entries.get(key);
+        if (entry != null && entry.response() == null) {
+            entries.remove(key, entry);
+        }
+    }
+
+    public int getSize() {
+        return entries.size();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private boolean remove(Entry entry) {
+        if (entries.remove(entry.key(), entry)) {
+            bytes.addAndGet(-entry.size());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param response  已记录的响应，执行中时为 null
+     * @param expiresAt 过期时间（System.nanoTime），执行中时为租约到期时间
+     * @param size      占用的字节数估算
+     */
+    private record Entry(String key, OrzWebIdempotentResponseBo response, long expiresAt, long size) {
+    }
+}
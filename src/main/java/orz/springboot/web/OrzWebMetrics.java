@@ -0,0 +1,247 @@
+package orz.springboot.web;
+
+import io.micrometer.core.instrument.*;
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import orz.springboot.base.OrzBaseUtils;
+import orz.springboot.web.model.OrzWebApiBo;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 接口指标，每个 @OrzWebApi 接口记录耗时（orz.web.api）和请求体大小（orz.web.api.request.size）
+ * <p>
+ * 标签在映射时构建，orz.code 只会取声明的错误代码以及 success、undefined、rejected、exception、超时和截止时间代码，
+ * 未声明的错误代码统一记为 undefined，避免标签基数失控。没有 MeterRegistry 时不记录。
+ * <p>
+ * micrometer-core 是可选依赖，所有 Micrometer 的使用都集中在这里，其它组件通过这里注册指标，
+ * 没有 micrometer-core 时不创建，其它组件不记录指标。
+ */
+@Component
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class OrzWebMetrics {
+    public static final String TIMER_NAME = "orz.web.api";
+    public static final String SIZE_NAME = "orz.web.api.request.size";
+    public static final String CODE_TAG = "orz.code";
+    public static final String CODE_SUCCESS = "success";
+    public static final String CODE_EXCEPTION = "exception";
+
+    private final OrzWebProps props;
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final Map<Method, ApiMetrics> apis = new ConcurrentHashMap<>();
+    private volatile boolean meterRegistryResolved = false;
+    private volatile MeterRegistry meterRegistry;
+
+    public OrzWebMetrics(OrzWebProps props, ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.props = props;
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    public boolean isEnabled() {
+        return props.getMetrics().isEnabled();
+    }
+
+    /**
+     * 是否需要记录，未启用或没有 MeterRegistry 时跳过计时
+     */
+    public boolean isActive() {
+        return isEnabled() && getMeterRegistry() != null;
+    }
+
+    /**
+     * 在映射时注册接口并构建标签，指标本身在首次记录时创建
+     *
+     * @param api 接口元数据
+     */
+    public void register(OrzWebApiBo api) {
+        if (!isEnabled()) {
+            return;
+        }
+        apis.put(api.getMethod(), new ApiMetrics(api, Tags.of(tags(api))));
+    }
+
+    /**
+     * 接口标签，键值交替，其它接口维度的指标共用
+     *
+     * @param api   接口元数据
+     * @param extra 追加的标签
+     * @return 标签
+     */
+    static String[] tags(OrzWebApiBo api, String... extra) {
+        var annotation = api.getAnnotation();
+        var tags = new String[]{
+                "scope", api.getScope(),
+                "domain", annotation.domain(),
+                "resource", annotation.resource(),
+                "action", annotation.action(),
+                "variant", String.valueOf(annotation.variant()),
+                "query", String.valueOf(annotation.query())
+        };
+        if (extra.length == 0) {
+            return tags;
+        }
+        var result = Arrays.copyOf(tags, tags.length + extra.length);
+        System.arraycopy(extra, 0, result, tags.length, extra.length);
+        return result;
+    }
+
+    /**
+     * 注册函数计数器，未启用或没有 MeterRegistry 时跳过
+     *
+     * @param name  指标名
+     * @param obj   计数对象
+     * @param count 读取计数
+     * @param tags  标签，键值交替
+     */
+    public <T> void registerCounter(String name, T obj, ToDoubleFunction<T> count, String... tags) {
+        var meterRegistry = isEnabled() ? getMeterRegistry() : null;
+        if (meterRegistry != null) {
+            FunctionCounter.builder(name, obj, count).tags(tags).register(meterRegistry);
+        }
+    }
+
+    /**
+     * 注册仪表，未启用或没有 MeterRegistry 时跳过
+     *
+     * @param name  指标名
+     * @param obj   观察对象
+     * @param value 读取当前值
+     * @param tags  标签，键值交替
+     */
+    public <T> void registerGauge(String name, T obj, ToDoubleFunction<T> value, String... tags) {
+        var meterRegistry = isEnabled() ? getMeterRegistry() : null;
+        if (meterRegistry != null) {
+            Gauge.builder(name, obj, value).tags(tags).register(meterRegistry);
+        }
+    }
+
+    /**
+     * 注册分布摘要
+     *
+     * @param name        指标名
+     * @param description 描述
+     * @param baseUnit    单位
+     * @param tags        标签，键值交替
+     * @return 记录一个值，未启用或没有 MeterRegistry 时为 null
+     */
+    @Nullable
+    public LongConsumer registerSummary(String name, String description, String baseUnit, String... tags) {
+        var meterRegistry = isEnabled() ? getMeterRegistry() : null;
+        if (meterRegistry == null) {
+            return null;
+        }
+        var summary = DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit(baseUnit)
+                .tags(tags)
+                .register(meterRegistry);
+        return summary::record;
+    }
+
+    @Nullable
+    public ApiMetrics get(Method method) {
+        return apis.get(method);
+    }
+
+    /**
+     * 记录一次调用
+     *
+     * @param metrics       接口指标
+     * @param exception     处理过程中抛出的异常，成功时为 null
+     * @param nanos         耗时（纳秒）
+     * @param contentLength 请求体大小，未知时为负数
+     */
+    public void record(ApiMetrics metrics, @Nullable Throwable exception, long nanos, long contentLength) {
+        var meterRegistry = getMeterRegistry();
+        if (meterRegistry == null) {
+            return;
+        }
+        var meters = exception == null ? metrics.getSuccess(meterRegistry) : metrics.getMeters(meterRegistry, resolveCode(metrics.api, exception));
+        meters.timer().record(nanos, TimeUnit.NANOSECONDS);
+        if (contentLength >= 0) {
+            meters.size().record(contentLength);
+        }
+    }
+
+    private static String resolveCode(OrzWebApiBo api, Throwable exception) {
+        if (exception instanceof OrzWebDeadlineExceededException deadline) {
+            return deadline.getProtocol().getCode();
+        }
+        if (exception instanceof OrzWebRejectedException) {
+            return OrzWebConstants.CODE_REJECTED;
+        }
+        if (exception instanceof OrzWebTimeoutException timeout) {
+            return timeout.getProtocol().getCode();
+        }
+        if (!(exception instanceof Exception e)) {
+            return CODE_EXCEPTION;
+        }
+        return OrzBaseUtils.getException(OrzWebException.class, e)
+                .map(OrzWebException::getCode)
+                .map(code -> api.getError(code) != null ? code : OrzWebConstants.CODE_UNDEFINED)
+                .orElse(CODE_EXCEPTION);
+    }
+
+    /**
+     * 请求期间才会调用，此时容器已经完成初始化，结果可以缓存
+     */
+    @Nullable
+    private MeterRegistry getMeterRegistry() {
+        if (!meterRegistryResolved) {
+            meterRegistry = meterRegistryProvider.getIfAvailable();
+            meterRegistryResolved = true;
+        }
+        return meterRegistry;
+    }
+
+    public static class ApiMetrics {
+        private final OrzWebApiBo api;
+        private final Tags tags;
+        private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+        private volatile Meters success;
+
+        private ApiMetrics(OrzWebApiBo api, Tags tags) {
+            this.api = api;
+            this.tags = tags;
+        }
+
+        private Meters getSuccess(MeterRegistry meterRegistry) {
+            var value = success;
+            if (value == null) {
+                value = getMeters(meterRegistry, CODE_SUCCESS);
+                success = value;
+            }
+            return value;
+        }
+
+        private Meters getMeters(MeterRegistry meterRegistry, String code) {
+            var value = meters.get(code);
+            if (value == null) {
+                var codeTags = tags.and(CODE_TAG, code);
+                value = meters.computeIfAbsent(code, c -> new Meters(
+                        Timer.builder(TIMER_NAME)
+                                .description("@OrzWebApi request duration")
+                                .tags(codeTags)
+                                .register(meterRegistry),
+                        DistributionSummary.builder(SIZE_NAME)
+                                .description("@OrzWebApi request body size")
+                                .baseUnit("bytes")
+                                .tags(codeTags)
+                                .register(meterRegistry)
+                ));
+            }
+            return value;
+        }
+    }
+
+    private record Meters(Timer timer, DistributionSummary size) {
+    }
+}
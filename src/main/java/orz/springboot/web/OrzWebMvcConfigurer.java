@@ -13,20 +13,24 @@ import orz.springboot.base.OrzBaseUtils;
 
 import java.util.List;
 
-import static orz.springboot.alarm.OrzAlarmUtils.alarm;
-
 @Component
 public class OrzWebMvcConfigurer implements WebMvcConfigurer {
+    private final OrzWebAlarms alarms;
+
+    public OrzWebMvcConfigurer(OrzWebAlarms alarms) {
+        this.alarms = alarms;
+    }
+
     @Override
     public void extendHandlerExceptionResolvers(List<HandlerExceptionResolver> resolvers) {
-        resolvers.add(0, new AlarmHandlerExceptionResolver());
+        resolvers.add(0, new AlarmHandlerExceptionResolver(alarms));
     }
 
-    private static class AlarmHandlerExceptionResolver implements HandlerExceptionResolver {
+    private record AlarmHandlerExceptionResolver(OrzWebAlarms alarms) implements HandlerExceptionResolver {
         @Nullable
         @Override
         public ModelAndView resolveException(@Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response, @Nullable Object handler, @Nonnull Exception ex) {
-            OrzBaseUtils.getException(OrzAlarmException.class, ex).ifPresent(e -> alarm(e, ex));
+            OrzBaseUtils.getException(OrzAlarmException.class, ex).ifPresent(e -> alarms.alarm(e, ex, handler));
             return null;
         }
     }
@@ -1,33 +1,120 @@
 package orz.springboot.web;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.FatalBeanException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.core.ResolvableType;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
 import orz.springboot.web.annotation.OrzWebApi;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
+import java.util.concurrent.CompletionStage;
 
 import static orz.springboot.base.description.OrzDescriptionUtils.desc;
 
 @Slf4j
 @Component
 public class OrzWebMvcRegistrations implements WebMvcRegistrations {
+    private static final String ASYNC_METRICS_ATTRIBUTE = OrzWebMvcRegistrations.class.getName() + ".ASYNC_METRICS";
+    private static final String ALLOCATIONS_ATTRIBUTE = OrzWebMvcRegistrations.class.getName() + ".ALLOCATIONS";
+
+    private final OrzWebApiRegistry registry;
+    // 没有 micrometer-core 时为 null
+    private final OrzWebMetrics metrics;
+    private final OrzWebServerTiming serverTiming;
+    private final OrzWebAllocations allocations;
+    private final OrzWebBulkheads bulkheads;
+    private final OrzWebResponseCache responseCache;
+    private final OrzWebCoalescer coalescer;
+    private final OrzWebIdempotency idempotency;
+    private final OrzWebRateLimiter rateLimiter;
+    private final OrzWebAdaptiveLimiter adaptiveLimiter;
+    private final OrzWebDeadlines deadlines;
+    private final OrzWebTimeouts timeouts;
+
+    public OrzWebMvcRegistrations(OrzWebApiRegistry registry, ObjectProvider<OrzWebMetrics> metricsProvider, OrzWebServerTiming serverTiming, OrzWebAllocations allocations, OrzWebBulkheads bulkheads, OrzWebResponseCache responseCache, OrzWebCoalescer coalescer, OrzWebIdempotency idempotency, OrzWebRateLimiter rateLimiter, OrzWebAdaptiveLimiter adaptiveLimiter, OrzWebDeadlines deadlines, OrzWebTimeouts timeouts) {
+        this.registry = registry;
+        this.metrics = metricsProvider.getIfAvailable();
+        this.serverTiming = serverTiming;
+        this.allocations = allocations;
+        this.bulkheads = bulkheads;
+        this.responseCache = responseCache;
+        this.coalescer = coalescer;
+        this.idempotency = idempotency;
+        this.rateLimiter = rateLimiter;
+        this.adaptiveLimiter = adaptiveLimiter;
+        this.deadlines = deadlines;
+        this.timeouts = timeouts;
+    }
+
     @Override
     public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
         return new Mapping();
     }
 
-    private static class Mapping extends RequestMappingHandlerMapping {
+    @Override
+    public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+        return new Adapter();
+    }
+
+    private class Mapping extends RequestMappingHandlerMapping {
+        private final OrzWebRouteTable<Route> routes = new OrzWebRouteTable<>();
+
+        @Override
+        protected void registerHandlerMethod(@Nonnull Object handler, @Nonnull Method method, @Nonnull RequestMappingInfo mapping) {
+            super.registerHandlerMethod(handler, method, mapping);
+            var api = registry.get(method);
+            if (api != null) {
+                var route = new Route(createHandlerMethod(handler, method), mapping);
+                for (var requestMethod : mapping.getMethodsCondition().getMethods()) {
+                    routes.put(requestMethod, api.getPath(), route);
+                }
+            }
+        }
+
+        /**
+         * 运行时注销的映射同时从路由表中移除，之后的查找回退到父类
+         */
+        @Override
+        public void unregisterMapping(@Nonnull RequestMappingInfo mapping) {
+            super.unregisterMapping(mapping);
+            routes.removeIf(route -> route.mapping().equals(mapping));
+        }
+
+        @Override
+        protected HandlerMethod lookupHandlerMethod(@Nonnull String lookupPath, @Nonnull HttpServletRequest request) throws Exception {
+            var route = routes.get(request.getMethod(), lookupPath);
+            if (route != null) {
+                request.setAttribute(BEST_MATCHING_HANDLER_ATTRIBUTE, route.handlerMethod());
+                handleMatch(route.mapping(), lookupPath, request);
+                return route.handlerMethod();
+            }
+            return super.lookupHandlerMethod(lookupPath, request);
+        }
+
         @Override
         protected RequestMappingInfo getMappingForMethod(@Nonnull Method method, @Nonnull Class<?> handlerType) {
             var apiAnnotation = handlerType.getAnnotation(OrzWebApi.class);
@@ -42,11 +129,26 @@ public class OrzWebMvcRegistrations implements WebMvcRegistrations {
                 var scope = OrzWebUtils.getScope(handlerType);
                 checkWebApiBean(handlerType, scope, method, apiAnnotation);
 
+                var path = buildPath(scope, apiAnnotation);
+                var api = registry.register(handlerType, method, scope, apiAnnotation, path);
+                if (metrics != null) {
+                    metrics.register(api);
+                }
+                allocations.register(api);
+                bulkheads.register(api);
+                responseCache.register(api);
+                coalescer.register(api);
+                idempotency.register(api);
+                rateLimiter.register(api);
+                adaptiveLimiter.register(api);
+                deadlines.register(api);
+                timeouts.register(api);
+
                 var query = apiAnnotation.query();
                 var methodArray = new RequestMethod[]{query ? RequestMethod.PUT : RequestMethod.POST};
 
                 return RequestMappingInfo
-                        .paths(buildPath(scope, apiAnnotation))
+                        .paths(path)
                         .methods(methodArray)
                         .options(getBuilderConfiguration())
                         .build();
@@ -86,6 +188,15 @@ public class OrzWebMvcRegistrations implements WebMvcRegistrations {
             if (!expectClassName.equals(beanClass.getSimpleName())) {
                 throw new FatalBeanException(desc("@OrzWebApi class name is invalid", "beanClass", beanClass.getSimpleName(), "expectClassName", expectClassName));
             }
+            if (annotation.maxConcurrency() < 0) {
+                throw new FatalBeanException(desc("@OrzWebApi maxConcurrency is invalid", "beanClass", beanClass, "maxConcurrency", annotation.maxConcurrency()));
+            }
+            if (annotation.deadlineMillis() < 0) {
+                throw new FatalBeanException(desc("@OrzWebApi deadlineMillis is invalid", "beanClass", beanClass, "deadlineMillis", annotation.deadlineMillis()));
+            }
+            if (annotation.timeoutMillis() < 0) {
+                throw new FatalBeanException(desc("@OrzWebApi timeoutMillis is invalid", "beanClass", beanClass, "timeoutMillis", annotation.timeoutMillis()));
+            }
             if (method.getModifiers() != Modifier.PUBLIC) {
                 throw new FatalBeanException(desc("@OrzWebApi request method is not public", "beanClass", beanClass));
             }
@@ -106,7 +217,7 @@ public class OrzWebMvcRegistrations implements WebMvcRegistrations {
             if (!(expectClassName + "Req").equals(parameterClass.getSimpleName())) {
                 throw new FatalBeanException(desc("@OrzWebApi request method parameter class name is invalid", "beanClass", beanClass, "parameterClass", parameterClass.getSimpleName(), "expectClassName", expectClassName + "Req"));
             }
-            var returnClass = method.getReturnType();
+            var returnClass = resolveReturnClass(beanClass, method);
             if (returnClass.isAnnotation() || returnClass.isArray() || returnClass.isEnum() || returnClass.isInterface() || returnClass.isPrimitive()) {
                 throw new FatalBeanException(desc("@OrzWebApi request method return class is invalid", "beanClass", beanClass, "returnClass", returnClass));
             }
@@ -114,5 +225,241 @@ public class OrzWebMvcRegistrations implements WebMvcRegistrations {
                 throw new FatalBeanException(desc("@OrzWebApi request method return class name is invalid", "beanClass", beanClass, "returnClass", parameterClass.getSimpleName(), "expectClassName", expectClassName + "Rsp"));
             }
         }
+
+        /**
+         * 异步返回类型（CompletionStage、DeferredResult）取泛型参数作为响应类
+         */
+        private static Class<?> resolveReturnClass(Class<?> beanClass, Method method) {
+            var returnClass = method.getReturnType();
+            ResolvableType asyncType;
+            if (CompletionStage.class.isAssignableFrom(returnClass)) {
+                asyncType = ResolvableType.forMethodReturnType(method).as(CompletionStage.class);
+            } else if (DeferredResult.class.isAssignableFrom(returnClass)) {
+                asyncType = ResolvableType.forMethodReturnType(method).as(DeferredResult.class);
+            } else {
+                return returnClass;
+            }
+            var resultClass = asyncType.getGeneric(0).resolve();
+            if (resultClass == null) {
+                throw new FatalBeanException(desc("@OrzWebApi request method async return type is invalid", "beanClass", beanClass, "returnType", method.getGenericReturnType()));
+            }
+            return resultClass;
+        }
+    }
+
+    private class Adapter extends RequestMappingHandlerAdapter {
+        @Override
+        protected ModelAndView handleInternal(@Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response, @Nonnull HandlerMethod handlerMethod) throws Exception {
+            if (request.getDispatcherType() == DispatcherType.ASYNC) {
+                return handleAsyncResult(request, response, handlerMethod);
+            }
+            var apiMetrics = metrics != null && metrics.isActive() ? metrics.get(handlerMethod.getMethod()) : null;
+            var timing = OrzWebServerTiming.isEnabled() ? serverTiming.start(request, handlerMethod) : null;
+            var sample = allocations.sample(handlerMethod.getMethod());
+            if (apiMetrics == null && timing == null && sample == null) {
+                return invoke(request, response, handlerMethod);
+            }
+            var allocated = -1L;
+            if (sample != null) {
+                request.setAttribute(ALLOCATIONS_ATTRIBUTE, sample);
+                allocated = allocations.getCurrentThreadAllocatedBytes();
+            }
+            var start = System.nanoTime();
+            Throwable exception = null;
+            try {
+                return invoke(request, response, handlerMethod);
+            } catch (Exception | Error e) {
+                exception = e;
+                throw e;
+            } finally {
+                if (sample != null) {
+                    allocations.add(sample, allocated);
+                    // 异步时工作线程和派发线程还会累加，在异步结果派发后记录
+                    if (exception != null || !request.isAsyncStarted()) {
+                        request.removeAttribute(ALLOCATIONS_ATTRIBUTE);
+                        allocations.record(sample);
+                    }
+                }
+                if (apiMetrics != null) {
+                    if (exception == null && request.isAsyncStarted()) {
+                        request.setAttribute(ASYNC_METRICS_ATTRIBUTE, new AsyncMetrics(apiMetrics, start));
+                    } else {
+                        metrics.record(apiMetrics, exception, System.nanoTime() - start, request.getContentLengthLong());
+                    }
+                }
+                if (timing != null) {
+                    serverTiming.stop(timing, response, exception);
+                }
+            }
+        }
+
+        /**
+         * 异步结果的派发，阶段耗时和并发隔离已经在首次派发时处理，这里记录延后的指标和内存分配
+         */
+        private ModelAndView handleAsyncResult(HttpServletRequest request, HttpServletResponse response, HandlerMethod handlerMethod) throws Exception {
+            var pending = request.getAttribute(ASYNC_METRICS_ATTRIBUTE) instanceof AsyncMetrics asyncMetrics ? asyncMetrics : null;
+            var sample = request.getAttribute(ALLOCATIONS_ATTRIBUTE) instanceof OrzWebAllocations.Sample allocationSample ? allocationSample : null;
+            if (pending == null && sample == null) {
+                return super.handleInternal(request, response, handlerMethod);
+            }
+            request.removeAttribute(ASYNC_METRICS_ATTRIBUTE);
+            request.removeAttribute(ALLOCATIONS_ATTRIBUTE);
+            var allocated = sample != null ? allocations.getCurrentThreadAllocatedBytes() : -1;
+            Throwable exception = null;
+            try {
+                return super.handleInternal(request, response, handlerMethod);
+            } catch (Exception | Error e) {
+                exception = e;
+                throw e;
+            } finally {
+                if (sample != null) {
+                    allocations.add(sample, allocated);
+                    allocations.record(sample);
+                }
+                if (pending != null) {
+                    metrics.record(pending.metrics(), exception, System.nanoTime() - pending.start(), request.getContentLengthLong());
+                }
+            }
+        }
+
+        /**
+         * 先检查截止时间、限流和自适应并发限制，都在读取请求体之前
+         */
+        private ModelAndView invoke(HttpServletRequest request, HttpServletResponse response, HandlerMethod handlerMethod) throws Exception {
+            if (deadlines.isEnabled()) {
+                deadlines.check(handlerMethod.getMethod(), request);
+            }
+            var rateLimits = rateLimiter.get(handlerMethod.getMethod());
+            if (rateLimits != null) {
+                rateLimiter.check(rateLimits, request);
+            }
+            var limit = adaptiveLimiter.get(handlerMethod.getMethod());
+            if (limit == null) {
+                return invokeCached(request, response, handlerMethod);
+            }
+            var start = adaptiveLimiter.acquire(limit, request);
+            var async = false;
+            var dropped = false;
+            try {
+                var modelAndView = invokeCached(request, response, handlerMethod);
+                async = adaptiveLimiter.releaseOnAsyncComplete(request, limit, start);
+                return modelAndView;
+            } catch (OrzWebRejectedException e) {
+                dropped = OrzWebAdaptiveLimiter.isDropped(e);
+                throw e;
+            } finally {
+                if (!async) {
+                    adaptiveLimiter.release(limit, start, dropped);
+                }
+            }
+        }
+
+        /**
+         * 查找响应缓存或者幂等记录，命中时不会读取请求体，也不占用并发隔离
+         */
+        private ModelAndView invokeCached(HttpServletRequest request, HttpServletResponse response, HandlerMethod handlerMethod) throws Exception {
+            var cache = responseCache.get(handlerMethod.getMethod());
+            if (cache != null) {
+                return responseCache.handle(cache, request, response, (cachedRequest, cachingResponse) -> invokeInBulkhead(cachedRequest, cachingResponse, handlerMethod));
+            }
+            var idempotent = idempotency.get(handlerMethod.getMethod());
+            if (idempotent != null) {
+                return idempotency.handle(idempotent, request, response, (idempotentRequest, recordingResponse) -> invokeInBulkhead(idempotentRequest, recordingResponse, handlerMethod));
+            }
+            return invokeInBulkhead(request, response, handlerMethod);
+        }
+
+        /**
+         * 在并发隔离内处理请求，拒绝时的异常同样计入指标
+         */
+        private ModelAndView invokeInBulkhead(HttpServletRequest request, HttpServletResponse response, HandlerMethod handlerMethod) throws Exception {
+            var bulkhead = bulkheads.get(handlerMethod.getMethod());
+            if (bulkhead == null) {
+                return super.handleInternal(request, response, handlerMethod);
+            }
+            bulkheads.acquire(bulkhead);
+            var async = false;
+            try {
+                var modelAndView = super.handleInternal(request, response, handlerMethod);
+                async = bulkheads.releaseOnAsyncComplete(request, bulkhead);
+                return modelAndView;
+            } finally {
+                if (!async) {
+                    bulkheads.release(bulkhead);
+                }
+            }
+        }
+
+        @Nonnull
+        @Override
+        protected ServletInvocableHandlerMethod createInvocableHandlerMethod(@Nonnull HandlerMethod handlerMethod) {
+            var method = handlerMethod.getMethod();
+            return new TimedInvocableHandlerMethod(handlerMethod, coalescer.get(method), timeouts.get(method));
+        }
+    }
+
+    /**
+     * 记录接口方法阶段，调用前结束参数校验阶段；声明了 @OrzWebCoalesce 时合并相同的并发请求，有执行超时时异步执行
+     */
+    private class TimedInvocableHandlerMethod extends ServletInvocableHandlerMethod {
+        private final OrzWebCoalescer.ApiCoalesce coalesce;
+        private final OrzWebTimeouts.ApiTimeout timeout;
+
+        private TimedInvocableHandlerMethod(HandlerMethod handlerMethod, @Nullable OrzWebCoalescer.ApiCoalesce coalesce, @Nullable OrzWebTimeouts.ApiTimeout timeout) {
+            super(handlerMethod);
+            this.coalesce = coalesce;
+            this.timeout = timeout;
+        }
+
+        /**
+         * 参数在请求线程中解析和校验，接口方法作为 WebAsyncTask 执行，结果由异步分发处理
+         */
+        @Override
+        public void invokeAndHandle(@Nonnull ServletWebRequest webRequest, @Nonnull ModelAndViewContainer mavContainer, @Nonnull Object... providedArgs) throws Exception {
+            if (timeout == null) {
+                super.invokeAndHandle(webRequest, mavContainer, providedArgs);
+                return;
+            }
+            var args = getMethodArgumentValues(webRequest, mavContainer, providedArgs);
+            OrzWebServerTiming.end(OrzWebServerTiming.Phase.VALIDATE);
+            var sample = webRequest.getAttribute(ALLOCATIONS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof OrzWebAllocations.Sample value ? value : null;
+            var task = timeouts.createTask(timeout, sample == null ? () -> doInvoke(args) : () -> {
+                // 接口方法在工作线程执行，分配量累加到同一次采样
+                var allocated = allocations.getCurrentThreadAllocatedBytes();
+                try {
+                    return doInvoke(args);
+                } finally {
+                    allocations.add(sample, allocated);
+                }
+            });
+            WebAsyncUtils.getAsyncManager(webRequest).startCallableProcessing(task, mavContainer);
+        }
+
+        @Override
+        protected Object doInvoke(Object... args) throws Exception {
+            if (!OrzWebServerTiming.isEnabled()) {
+                return invokeCoalesced(args);
+            }
+            OrzWebServerTiming.end(OrzWebServerTiming.Phase.VALIDATE);
+            OrzWebServerTiming.begin(OrzWebServerTiming.Phase.HANDLER);
+            try {
+                return invokeCoalesced(args);
+            } finally {
+                OrzWebServerTiming.end(OrzWebServerTiming.Phase.HANDLER);
+            }
+        }
+
+        private Object invokeCoalesced(Object... args) throws Exception {
+            if (coalesce == null) {
+                return super.doInvoke(args);
+            }
+            return coalescer.invoke(coalesce, args, () -> super.doInvoke(args));
+        }
+    }
+
+    private record Route(HandlerMethod handlerMethod, RequestMappingInfo mapping) {
+    }
+
+    private record AsyncMetrics(OrzWebMetrics.ApiMetrics metrics, long start) {
     }
 }
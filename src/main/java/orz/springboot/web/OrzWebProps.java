@@ -1,10 +1,13 @@
 package orz.springboot.web;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -49,12 +52,81 @@ public class OrzWebProps {
     @NotNull
     private PageConfig page = new PageConfig();
 
+    @Valid
+    @NotNull
+    private ExceptionConfig exception = new ExceptionConfig();
+
+    @Valid
+    @NotNull
+    private TraceConfig trace = new TraceConfig();
+
+    @Valid
+    @NotNull
+    private MetricsConfig metrics = new MetricsConfig();
+
+    @Valid
+    @NotNull
+    private ServerTimingConfig serverTiming = new ServerTimingConfig();
+
+    @Valid
+    @NotNull
+    private AllocationsConfig allocations = new AllocationsConfig();
+
+    @Valid
+    @NotNull
+    private BulkheadConfig bulkhead = new BulkheadConfig();
+
+    @Valid
+    @NotNull
+    private BatchConfig batch = new BatchConfig();
+
+    @Valid
+    @NotNull
+    private IdempotencyConfig idempotency = new IdempotencyConfig();
+
+    @Valid
+    @NotNull
+    private RateLimitConfig rateLimit = new RateLimitConfig();
+
+    @Valid
+    @NotNull
+    private AdaptiveLimitConfig adaptiveLimit = new AdaptiveLimitConfig();
+
+    @Valid
+    @NotNull
+    private DeadlineConfig deadline = new DeadlineConfig();
+
+    @Valid
+    @NotNull
+    private TimeoutConfig timeout = new TimeoutConfig();
+
+    @Valid
+    @NotNull
+    private AlarmConfig alarm = new AlarmConfig();
+
     public Map<String, CorsConfig> getCorsOrDefault() {
         return cors.isEmpty() ? CORS_DEFAULT : cors;
     }
 
     @Data
     public static class RequestHeadersConfig {
+        /**
+         * 是否延迟解析请求头，必需的请求头和请求头的格式仍然立即检查（无效时响应 400），日期时间和客户端 IP 在首次读取时解析
+         */
+        private boolean lazy = true;
+
+        /**
+         * 是否读取打包请求头，请求携带打包请求头时除客户端 IP 外的字段都从中读取，否则回退到单独的请求头；
+         * 客户端 IP 总是由客户端 IP 请求头、转发请求头和远端地址解析
+         */
+        private boolean contextEnabled = false;
+
+        /**
+         * 打包请求头名称，内容由 OrzWebContextCodec 编码
+         */
+        @NotBlank
+        private String context = "Orz-Context";
+
         @NotBlank
         private String requestId = "Orz-Request-Id";
 
@@ -80,6 +152,18 @@ public class OrzWebProps {
 
         private boolean clientIpRequired = true;
 
+        /**
+         * 可信代理的 CIDR 列表，为空时保持原有的客户端 IP 解析方式；
+         * 不为空时只信任来自这些地址的转发请求头，并从右向左取第一个不可信的地址作为客户端 IP
+         */
+        @NotNull
+        private List<String> trustedProxies = Collections.emptyList();
+
+        /**
+         * 可信代理是否总是用真实地址覆盖客户端 IP 请求头；为 false 时配置了可信代理后不信任客户端发送的该请求头，只遍历转发请求头
+         */
+        private boolean clientIpOverwritten = false;
+
         @NotBlank
         private String clientType = "Orz-Client-Type";
 
@@ -144,6 +228,12 @@ public class OrzWebProps {
         private String platformSDKVersion = "Orz-Platform-SDK-Version";
 
         private boolean platformSDKVersionRequired = false;
+
+        /**
+         * 客户端的超时时间（毫秒），只在启用 orz.web.deadline 时读取，不包含在打包请求头中
+         */
+        @NotBlank
+        private String timeout = "Orz-Timeout";
     }
 
     @Data
@@ -169,6 +259,370 @@ public class OrzWebProps {
         private Integer maxSize = 100;
     }
 
+    @Data
+    public static class ExceptionConfig {
+        /**
+         * 未显式指定时，OrzWebException 是否跳过堆栈填充
+         */
+        private boolean stackless = false;
+    }
+
+    @Data
+    public static class TraceConfig {
+        /**
+         * 每个异常输出的最大栈帧数（不含折叠的框架帧）
+         */
+        @NotNull
+        @Positive
+        private Integer maxFrames = 32;
+
+        /**
+         * 输出的最大原因层数
+         */
+        @NotNull
+        @PositiveOrZero
+        private Integer maxCauses = 4;
+
+        /**
+         * 框架包前缀，连续的框架帧折叠为一行
+         */
+        @NotNull
+        private List<String> foldedPackages = List.of(
+                "org.springframework.",
+                "org.apache.catalina.",
+                "org.apache.coyote.",
+                "org.apache.tomcat.",
+                "jakarta.servlet.",
+                "java.lang.reflect.",
+                "jdk.internal.reflect.",
+                "java.util.concurrent."
+        );
+
+        /**
+         * 错误响应中所有追踪信息（含传递的 extraTraces）的合计最大字节数，超出时截断
+         */
+        @NotNull
+        @Positive
+        private Long maxBytes = 64L * 1024;
+    }
+
+    @Data
+    public static class MetricsConfig {
+        /**
+         * 是否记录接口指标，需要引入 micrometer-core 并且容器中存在 MeterRegistry
+         */
+        private boolean enabled = true;
+    }
+
+    @Data
+    public static class ServerTimingConfig {
+        /**
+         * 是否为所有接口请求记录阶段耗时并返回 Server-Timing 响应头
+         */
+        private boolean enabled = false;
+
+        /**
+         * 未全部启用时，该请求头的值等于 token 的请求单独启用
+         */
+        @NotBlank
+        private String header = "Orz-Server-Timing";
+
+        /**
+         * 单独启用的共享密钥，只分发给内部调用方，为空时不支持单独启用
+         */
+        private String token;
+
+        /**
+         * 记录了阶段耗时的请求总耗时超过该值时输出日志，为空时不输出
+         */
+        private Duration slowThreshold;
+    }
+
+    @Data
+    public static class AllocationsConfig {
+        /**
+         * 是否按接口统计请求处理线程的内存分配量，需要 JVM 支持 com.sun.management.ThreadMXBean；
+         * 不支持虚拟线程，与 spring.threads.virtual.enabled 同时启用时只记录 orz.web.api.allocated.unsupported
+         */
+        private boolean enabled = false;
+
+        /**
+         * 采样比例，0 到 1
+         */
+        @DecimalMin("0")
+        @DecimalMax("1")
+        private double sampleRate = 0.01;
+    }
+
+    @Data
+    public static class BulkheadConfig {
+        /**
+         * 作用域 -> 作用域内所有接口共享的最大并发数，单个接口的限制通过 @OrzWebApi(maxConcurrency) 声明。
+         * 配合 spring.threads.virtual.enabled 使用时，请求线程不再限制并发，需要通过这里限制下游压力
+         */
+        @NotNull
+        private Map<String, @Positive Integer> scopes = Collections.emptyMap();
+    }
+
+    @Data
+    public static class BatchConfig {
+        /**
+         * 是否启用批量接口 PUT /{scope}/Batch
+         */
+        private boolean enabled = false;
+
+        /**
+         * 单次批量请求的最大条目数
+         */
+        @NotNull
+        @Positive
+        private Integer maxEntries = 20;
+
+        /**
+         * 并行执行查询接口的线程数，所有批量请求共享，线程已满时在请求线程中执行
+         */
+        @NotNull
+        @Positive
+        private Integer parallelism = 8;
+
+        /**
+         * 条目异步处理没有设置超时（spring.mvc.async.request-timeout、timeoutMillis）时等待结果的时间
+         */
+        @NotNull
+        private Duration timeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class IdempotencyConfig {
+        /**
+         * 重试等待原请求完成的最长时间，超时后拒绝（Orz-Code: rejected）
+         */
+        @NotNull
+        private Duration waitTimeout = Duration.ofSeconds(10);
+
+        /**
+         * 执行中的租约，应大于接口的最长执行时间
+         */
+        @NotNull
+        private Duration lease = Duration.ofMinutes(1);
+
+        /**
+         * 进程内存储的最大条目数
+         */
+        @NotNull
+        @Positive
+        private Integer maxEntries = 10000;
+
+        /**
+         * 进程内存储的响应体合计最大字节数
+         */
+        @NotNull
+        @Positive
+        private Long maxBytes = 64L * 1024 * 1024;
+    }
+
+    @Data
+    public static class RateLimitConfig {
+        /**
+         * 限流时默认的 Orz-Code，规则未指定 code 时使用
+         */
+        @NotBlank
+        private String code = "throttled";
+
+        /**
+         * 每条规则最多跟踪的键数，超出时清理空闲的键
+         */
+        @NotNull
+        @Positive
+        private Integer maxKeys = 100000;
+
+        /**
+         * 限流规则，一个接口可以匹配多条规则，任意一条超出时限流
+         */
+        @NotNull
+        private List<@Valid RateLimitRuleConfig> rules = Collections.emptyList();
+    }
+
+    @Data
+    public static class RateLimitRuleConfig {
+        /**
+         * 作用域，作用域内所有接口共享同一个限额；和 path 二选一
+         */
+        private String scope;
+
+        /**
+         * 接口路径，例如 /ScopeV1/Test/QueryV1；和 scope 二选一
+         */
+        private String path;
+
+        /**
+         * 限流维度，OrzWebRequestHeadersBo 的字段，例如 userId、deviceId、clientIp、clientType，请求中没有该可选字段时不限流，请求头无效时响应 400
+         */
+        @NotBlank
+        private String key;
+
+        /**
+         * 每个周期允许的请求数
+         */
+        @NotNull
+        @Positive
+        private Integer limit;
+
+        @NotNull
+        private Duration period = Duration.ofSeconds(1);
+
+        /**
+         * 允许的突发请求数，未指定时等于 limit
+         */
+        @Positive
+        private Integer burst;
+
+        /**
+         * 限流时的 Orz-Code，未指定时使用 orz.web.rate-limit.code
+         */
+        private String code;
+    }
+
+    @Data
+    public static class AdaptiveLimitConfig {
+        /**
+         * 是否启用自适应并发限制
+         */
+        private boolean enabled = false;
+
+        /**
+         * 是否按作用域共享限制，默认每个接口单独限制
+         */
+        private boolean perScope = false;
+
+        @NotNull
+        @Positive
+        private Integer initialLimit = 20;
+
+        @NotNull
+        @Positive
+        private Integer minLimit = 1;
+
+        @NotNull
+        @Positive
+        private Integer maxLimit = 1000;
+
+        /**
+         * 耗时超过基线的倍数时视为过载
+         */
+        @DecimalMin("1")
+        private double latencyTolerance = 2.0;
+
+        /**
+         * 过载时限制的缩减比例
+         */
+        @DecimalMin("0.1")
+        @DecimalMax("1")
+        private double backoffRatio = 0.9;
+
+        /**
+         * 降载时的 Orz-Code
+         */
+        @NotBlank
+        private String code = "overloaded";
+
+        /**
+         * 低优先级的 Orz-User-Type，例如后台同步使用的用户类型
+         */
+        @NotNull
+        private List<String> lowPriorityUserTypes = Collections.emptyList();
+
+        /**
+         * 低优先级的 Orz-Client-Type
+         */
+        @NotNull
+        private List<String> lowPriorityClientTypes = Collections.emptyList();
+
+        /**
+         * 低优先级请求只在并发数低于限制的该比例（至少为 1）时接受，过载时先于其它请求被拒绝
+         */
+        @DecimalMin("0")
+        @DecimalMax("1")
+        private double lowPriorityRatio = 0.8;
+    }
+
+    @Data
+    public static class DeadlineConfig {
+        /**
+         * 是否丢弃已经超过截止时间的请求
+         */
+        private boolean enabled = false;
+
+        /**
+         * 客户端与服务器的时钟偏差容忍度，Orz-Request-Time 按服务器时区解释
+         */
+        @NotNull
+        private Duration clockSkewTolerance = Duration.ofSeconds(1);
+
+        /**
+         * 丢弃时的 Orz-Code
+         */
+        @NotBlank
+        private String code = "expired";
+    }
+
+    @Data
+    public static class TimeoutConfig {
+        /**
+         * 作用域 -> 作用域内接口默认的执行超时，接口可以通过 @OrzWebApi(timeoutMillis) 覆盖
+         */
+        @NotNull
+        private Map<String, Duration> scopes = Collections.emptyMap();
+
+        /**
+         * 超时时的 Orz-Code
+         */
+        @NotBlank
+        private String code = "timeout";
+
+        /**
+         * 执行有超时的接口方法的线程数，所有接口共享，与 MVC 异步执行器隔离
+         */
+        @NotNull
+        @Positive
+        private Integer poolSize = 64;
+
+        /**
+         * 线程已满时排队的任务数，排队时间同样计入超时；为 0 时不排队，线程已满直接拒绝（Orz-Code: rejected）
+         */
+        @NotNull
+        @PositiveOrZero
+        private Integer queueCapacity = 0;
+    }
+
+    @Data
+    public static class AlarmConfig {
+        /**
+         * 是否聚合告警，关闭时在请求线程中直接发送
+         */
+        private boolean enabled = true;
+
+        /**
+         * 聚合窗口，同一告警在窗口内只立即发送第一次，其余在窗口结束后汇总发送（@ORZ_WEB_ALARM_REPEATED）
+         */
+        @NotNull
+        private Duration window = Duration.ofMinutes(1);
+
+        /**
+         * 待发送告警的队列容量，队列已满时丢弃并计数
+         */
+        @NotNull
+        @Positive
+        private Integer queueCapacity = 1024;
+
+        /**
+         * 同时聚合的告警数上限，超过时新的告警不再聚合，直接进入队列
+         */
+        @NotNull
+        @Positive
+        private Integer maxFingerprints = 10000;
+    }
+
     @Data
     public static class CorsConfig {
         @NotEmpty
@@ -0,0 +1,189 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.stereotype.Component;
+import orz.springboot.web.model.OrzWebApiBo;
+import orz.springboot.web.model.OrzWebProtocolBo;
+import orz.springboot.web.model.OrzWebRequestHeadersBo;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.desc;
+import static orz.springboot.base.description.OrzDescriptionUtils.descValues;
+
+/**
+ * 按请求头字段限流，规则由 orz.web.rate-limit.rules 配置，在读取请求体之前检查
+ * <p>
+ * 每个键一个 GCRA 令牌桶，只保存理论到达时间，CAS 更新无锁。
+ * 桶已回满的键是空闲的，删除后与重新创建等价，键数超出 orz.web.rate-limit.max-keys 时清理。
+ */
+@Component
+public class OrzWebRateLimiter {
+    public static final String REJECTED_REASON = "rate limit exceeded";
+
+    private final OrzWebProps props;
+    private final OrzWebRequestHeadersExtractor extractor;
+    private final List<Rule> rules;
+    private final Map<Method, Rule[]> apis = new ConcurrentHashMap<>();
+
+    public OrzWebRateLimiter(OrzWebProps props, OrzWebRequestHeadersExtractor extractor) {
+        this.props = props;
+        this.extractor = extractor;
+        var config = props.getRateLimit();
+        this.rules = new ArrayList<>(config.getRules().size());
+        for (var rule : config.getRules()) {
+            this.rules.add(new Rule(rule, config));
+        }
+    }
+
+    /**
+     * 在映射时注册接口，匹配路径或者作用域的规则
+     *
+     * @param api 接口元数据
+     */
+    public void register(OrzWebApiBo api) {
+        var matched = rules.stream().filter(rule -> rule.matches(api)).toArray(Rule[]::new);
+        if (matched.length > 0) {
+            apis.put(api.getMethod(), matched);
+        }
+    }
+
+    @Nullable
+    public Rule[] get(Method method) {
+        return apis.get(method);
+    }
+
+    /**
+     * 检查请求，超出任意一条规则时抛出 OrzWebThrottledException
+     * <p>
+     * 请求头无效（缺少必需的请求头、格式错误）时抛出 ResponseStatusException（400），与接口读取请求头时一致，
+     * 无效的请求不会因此绕过限流；只有可选的字段不存在时才不限流。
+     *
+     * @param rules   接口匹配的规则
+     * @param request 请求
+     */
+    public void check(Rule[] rules, HttpServletRequest request) {
+        var headers = extractor.extract(request);
+        for (var rule : rules) {
+            var value = rule.getKeyValue(headers);
+            if (value == null) {
+                continue;
+            }
+            var waitNanos = rule.acquire(value, System.nanoTime());
+            if (waitNanos > 0) {
+                var retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+                throw new OrzWebThrottledException(REJECTED_REASON, rule.protocol, retryAfterSeconds, descValues("rule", rule.name, "key", value));
+            }
+        }
+    }
+
+    public static class Rule {
+        private final String name;
+        private final String scope;
+        private final String path;
+        private final Method getter;
+        private final long intervalNanos;
+        private final long capacityNanos;
+        private final int maxKeys;
+        private final OrzWebProtocolBo protocol;
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicBoolean sweeping = new AtomicBoolean();
+
+        private Rule(OrzWebProps.RateLimitRuleConfig rule, OrzWebProps.RateLimitConfig config) {
+            if (StringUtils.isBlank(rule.getScope()) == StringUtils.isBlank(rule.getPath())) {
+                throw new FatalBeanException(desc("orz.web.rate-limit.rules requires either scope or path", "rule", rule));
+            }
+            var getter = OrzWebUtils.getRequestHeaderGetter(rule.getKey());
+            if (getter == null) {
+                throw new FatalBeanException(desc("orz.web.rate-limit.rules key is invalid", "rule", rule));
+            }
+            var burst = rule.getBurst() != null ? rule.getBurst() : rule.getLimit();
+            this.scope = StringUtils.defaultIfBlank(rule.getScope(), null);
+            this.path = StringUtils.defaultIfBlank(rule.getPath(), null);
+            this.name = (scope != null ? scope : path) + ":" + rule.getKey();
+            this.getter = getter;
+            this.intervalNanos = Math.max(1, rule.getPeriod().toNanos() / rule.getLimit());
+            this.capacityNanos = intervalNanos * burst;
+            this.maxKeys = config.getMaxKeys();
+            this.protocol = OrzWebProtocolBo.error(StringUtils.defaultIfBlank(rule.getCode(), config.getCode()), null);
+        }
+
+        private boolean matches(OrzWebApiBo api) {
+            return path != null ? path.equals(api.getPath()) : scope.equals(api.getScope());
+        }
+
+        @Nullable
+        private String getKeyValue(OrzWebRequestHeadersBo headers) {
+            try {
+                var value = getter.invoke(headers);
+                return value == null ? null : value.toString();
+            } catch (InvocationTargetException e) {
+                // 延迟解析的字段在读取时才检查格式，保留原本的 400
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * @return 0 表示通过，否则为需要等待的时间（纳秒）
+         */
+        long acquire(String key, long now) {
+            var bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.size() >= maxKeys) {
+                    sweep(now);
+                }
+                bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+            }
+            while (true) {
+                var tat = bucket.get();
+                var next = (tat - now > 0 ? tat : now) + intervalNanos;
+                var wait = next - now - capacityNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (bucket.compareAndSet(tat, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * 删除空闲的键；仍然超出时按遍历顺序删除，被删除的活跃键相当于桶被回满
+         */
+        private void sweep(long now) {
+            if (!sweeping.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+                var iterator = buckets.values().iterator();
+                while (buckets.size() >= maxKeys && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            } finally {
+                sweeping.set(false);
+            }
+        }
+
+        public int getSize() {
+            return buckets.size();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import lombok.AccessLevel;
+import lombok.Getter;
+import orz.springboot.base.description.OrzDescription;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.descTitles;
+
+/**
+ * 请求因过载保护被拒绝，响应 Orz-Code: rejected，不告警
+ * <p>
+ * 过载时会大量抛出，不填充堆栈，消息在首次访问时才构建
+ */
+@Getter
+public class OrzWebRejectedException extends RuntimeException {
+    private final String reason;
+    private final OrzDescription description;
+
+    @Getter(AccessLevel.NONE)
+    private volatile String message;
+
+    public OrzWebRejectedException(@Nonnull String reason, @Nullable OrzDescription description) {
+        super(null, null, false, false);
+        this.reason = reason;
+        this.description = description;
+    }
+
+    @Override
+    public String getMessage() {
+        var message = this.message;
+        if (message == null) {
+            message = descTitles(reason).merge(description).toString();
+            this.message = message;
+        }
+        return message;
+    }
+}
@@ -1,7 +1,9 @@
 package orz.springboot.web;
 
+import jakarta.annotation.Nullable;
 import jakarta.servlet.http.HttpServletRequest;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.FatalBeanException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -23,7 +25,10 @@ import static orz.springboot.base.description.OrzDescriptionUtils.desc;
 @Component
 public class OrzWebRequestHeadersExtractor {
     private static final String REQUEST_HEADERS_ATTRIBUTE_NAME = "ORZ_WEB_REQUEST_HEADERS";
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = new DateTimeFormatterBuilder()
+    private static final String FORWARDED_HEADER = "Forwarded";
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+    // OrzWebDateTimeParser 的参考实现
+    static final DateTimeFormatter DATE_TIME_FORMATTER = new DateTimeFormatterBuilder()
             .appendValue(ChronoField.YEAR, 4)
             .appendValue(ChronoField.MONTH_OF_YEAR, 2)
             .appendValue(ChronoField.DAY_OF_MONTH, 2)
@@ -36,9 +41,15 @@ public class OrzWebRequestHeadersExtractor {
             .toFormatter(Locale.ENGLISH);
 
     private final OrzWebProps props;
+    private final OrzWebClientIpResolver clientIpResolver;
 
     public OrzWebRequestHeadersExtractor(OrzWebProps props) {
         this.props = props;
+        try {
+            this.clientIpResolver = new OrzWebClientIpResolver(OrzWebCidrMatcher.compile(props.getRequestHeaders().getTrustedProxies()), props.getRequestHeaders().isClientIpOverwritten());
+        } catch (IllegalArgumentException e) {
+            throw new FatalBeanException(desc("orz.web.request-headers.trusted-proxies is invalid", "trustedProxies", props.getRequestHeaders().getTrustedProxies()), e);
+        }
     }
 
     public OrzWebRequestHeadersBo extract() {
@@ -51,8 +62,73 @@ public class OrzWebRequestHeadersExtractor {
     }
 
     private OrzWebRequestHeadersBo extractFromRequest(HttpServletRequest request) {
-        var field = props.getRequestHeaders();
-        var headers = new OrzWebRequestHeadersBo(
+        OrzWebServerTiming.begin(OrzWebServerTiming.Phase.HEADERS);
+        try {
+            var field = props.getRequestHeaders();
+            var headers = extractFromContext(request, field);
+            if (headers == null) {
+                headers = field.isLazy() ? extractLazily(request, field) : extractEagerly(request, field);
+            }
+            OrzBaseUtils.setRequestAttribute(REQUEST_HEADERS_ATTRIBUTE_NAME, headers);
+            return headers;
+        } finally {
+            OrzWebServerTiming.end(OrzWebServerTiming.Phase.HEADERS);
+        }
+    }
+
+    /**
+     * 客户端 IP 不从打包请求头读取：边缘代理只覆盖 Orz-Client-Ip，不会改写打包请求头，其中的值可以由客户端伪造
+     */
+    @Nullable
+    private OrzWebRequestHeadersBo extractFromContext(HttpServletRequest request, OrzWebProps.RequestHeadersConfig field) {
+        if (!field.isContextEnabled()) {
+            return null;
+        }
+        var value = getStringHeader(request, field.getContext(), false);
+        if (value == null) {
+            return null;
+        }
+        OrzWebRequestHeadersBo context;
+        try {
+            context = OrzWebContextCodec.decode(value);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(400, desc("header is invalid", "header", field.getContext(), "value", value), null);
+        }
+        return new OrzWebRequestHeadersBo(
+                checkContextField(context.getRequestId(), field.getRequestId(), field.isRequestIdRequired()),
+                checkContextField(context.getRequestTime(), field.getRequestTime(), field.isRequestTimeRequired()),
+                checkContextField(context.getUserId(), field.getUserId(), field.isUserIdRequired()),
+                checkContextField(context.getUserType(), field.getUserType(), field.isUserTypeRequired()),
+                getClientIp(request, field.getClientIp(), field.isClientIpRequired()),
+                checkContextField(context.getClientType(), field.getClientType(), field.isClientTypeRequired()),
+                checkContextField(context.getClientVersion(), field.getClientVersion(), field.isClientVersionRequired()),
+                checkContextField(context.getClientChannel(), field.getClientChannel(), field.isClientChannelRequired()),
+                checkContextField(context.getInitialTime(), field.getInitialTime(), field.isInitialTimeRequired()),
+                checkContextField(context.getLaunchTime(), field.getLaunchTime(), field.isLaunchTimeRequired()),
+                checkContextField(context.getLaunchScene(), field.getLaunchScene(), field.isLaunchSceneRequired()),
+                checkContextField(context.getDeviceId(), field.getDeviceId(), field.isDeviceIdRequired()),
+                checkContextField(context.getDeviceBrand(), field.getDeviceBrand(), field.isDeviceBrandRequired()),
+                checkContextField(context.getDeviceModel(), field.getDeviceModel(), field.isDeviceModelRequired()),
+                checkContextField(context.getOsType(), field.getOsType(), field.isOsTypeRequired()),
+                checkContextField(context.getOsName(), field.getOsName(), field.isOsNameRequired()),
+                checkContextField(context.getPlatformVersion(), field.getPlatformVersion(), field.isPlatformVersionRequired()),
+                checkContextField(context.getPlatformSDKVersion(), field.getPlatformSDKVersion(), field.isPlatformSDKVersionRequired())
+        );
+    }
+
+    private static <T> T checkContextField(@Nullable T value, String headerName, boolean required) {
+        if (value == null || (value instanceof String str && StringUtils.isBlank(str))) {
+            if (required) {
+                throw new ResponseStatusException(400, desc("header not found", "header", headerName), null);
+            } else {
+                return null;
+            }
+        }
+        return value;
+    }
+
+    private OrzWebRequestHeadersBo extractEagerly(HttpServletRequest request, OrzWebProps.RequestHeadersConfig field) {
+        return new OrzWebRequestHeadersBo(
                 getStringHeader(request, field.getRequestId(), field.isRequestIdRequired()),
                 getDateTimeHeader(request, field.getRequestTime(), field.isRequestTimeRequired()),
                 getStringHeader(request, field.getUserId(), field.isUserIdRequired()),
@@ -72,8 +148,41 @@ public class OrzWebRequestHeadersExtractor {
                 getStringHeader(request, field.getPlatformVersion(), field.isPlatformVersionRequired()),
                 getStringHeader(request, field.getPlatformSDKVersion(), field.isPlatformSDKVersionRequired())
         );
-        OrzBaseUtils.setRequestAttribute(REQUEST_HEADERS_ATTRIBUTE_NAME, headers);
-        return headers;
+    }
+
+    private OrzWebRequestHeadersBo extractLazily(HttpServletRequest request, OrzWebProps.RequestHeadersConfig field) {
+        var clientIp = getStringHeader(request, field.getClientIp(), false);
+        var forwarded = getJoinedHeader(request, FORWARDED_HEADER);
+        var forwardedFor = getJoinedHeader(request, FORWARDED_FOR_HEADER);
+        var remoteAddr = request.getRemoteAddr();
+        if (clientIp == null && forwarded == null && forwardedFor == null && remoteAddr == null && field.isClientIpRequired()) {
+            throw new ResponseStatusException(400, desc("header not found", "header", field.getClientIp()), null);
+        }
+        return new LazyRequestHeadersBo(
+                field,
+                clientIpResolver,
+                getStringHeader(request, field.getRequestId(), field.isRequestIdRequired()),
+                checkDateTimeHeader(field.getRequestTime(), getStringHeader(request, field.getRequestTime(), field.isRequestTimeRequired())),
+                getStringHeader(request, field.getUserId(), field.isUserIdRequired()),
+                getStringHeader(request, field.getUserType(), field.isUserTypeRequired()),
+                clientIp,
+                forwarded,
+                forwardedFor,
+                remoteAddr,
+                getStringHeader(request, field.getClientType(), field.isClientTypeRequired()),
+                getIntHeader(request, field.getClientVersion(), field.isClientVersionRequired()),
+                getStringHeader(request, field.getClientChannel(), field.isClientChannelRequired()),
+                checkDateTimeHeader(field.getInitialTime(), getStringHeader(request, field.getInitialTime(), field.isInitialTimeRequired())),
+                checkDateTimeHeader(field.getLaunchTime(), getStringHeader(request, field.getLaunchTime(), field.isLaunchTimeRequired())),
+                getStringHeader(request, field.getLaunchScene(), field.isLaunchSceneRequired()),
+                getStringHeader(request, field.getDeviceId(), field.isDeviceIdRequired()),
+                getStringHeader(request, field.getDeviceBrand(), field.isDeviceBrandRequired()),
+                getStringHeader(request, field.getDeviceModel(), field.isDeviceModelRequired()),
+                getStringHeader(request, field.getOsType(), field.isOsTypeRequired()),
+                getStringHeader(request, field.getOsName(), field.isOsNameRequired()),
+                getStringHeader(request, field.getPlatformVersion(), field.isPlatformVersionRequired()),
+                getStringHeader(request, field.getPlatformSDKVersion(), field.isPlatformSDKVersionRequired())
+        );
     }
 
     private static HttpServletRequest getCurrentRequest() {
@@ -96,6 +205,25 @@ public class OrzWebRequestHeadersExtractor {
         return headerValue;
     }
 
+    /**
+     * 读取可能出现多次的请求头，多个值按逗号拼接
+     */
+    private static String getJoinedHeader(HttpServletRequest request, String headerName) {
+        var values = request.getHeaders(headerName);
+        if (values == null || !values.hasMoreElements()) {
+            return null;
+        }
+        var first = values.nextElement();
+        if (!values.hasMoreElements()) {
+            return StringUtils.isBlank(first) ? null : first;
+        }
+        var builder = new StringBuilder(first);
+        while (values.hasMoreElements()) {
+            builder.append(", ").append(values.nextElement());
+        }
+        return builder.toString();
+    }
+
     private static Long getLongHeader(HttpServletRequest request, String headerName, boolean required) {
         var str = getStringHeader(request, headerName, required);
         if (str == null) {
@@ -109,7 +237,10 @@ public class OrzWebRequestHeadersExtractor {
     }
 
     private static Integer getIntHeader(HttpServletRequest request, String headerName, boolean required) {
-        var str = getStringHeader(request, headerName, required);
+        return parseIntHeader(headerName, getStringHeader(request, headerName, required));
+    }
+
+    private static Integer parseIntHeader(String headerName, @Nullable String str) {
         if (str == null) {
             return null;
         }
@@ -121,31 +252,41 @@ public class OrzWebRequestHeadersExtractor {
     }
 
     private static LocalDateTime getDateTimeHeader(HttpServletRequest request, String headerName, boolean required) {
-        var str = getStringHeader(request, headerName, required);
+        return parseDateTimeHeader(headerName, getStringHeader(request, headerName, required));
+    }
+
+    /**
+     * 只检查格式，不解析，延迟解析时首次读取不会再因为格式错误失败
+     */
+    private static String checkDateTimeHeader(String headerName, @Nullable String str) {
+        if (str != null && !OrzWebDateTimeParser.isValid(str)) {
+            throw new ResponseStatusException(400, desc("header is invalid", "header", headerName, "value", str), null);
+        }
+        return str;
+    }
+
+    private static LocalDateTime parseDateTimeHeader(String headerName, @Nullable String str) {
         if (str == null) {
             return null;
         }
-        try {
-            return LocalDateTime.parse(str, DATE_TIME_FORMATTER);
-        } catch (Exception e) {
+        var dateTime = OrzWebDateTimeParser.parse(str);
+        if (dateTime == null) {
             throw new ResponseStatusException(400, desc("header is invalid", "header", headerName, "value", str), null);
         }
+        return dateTime;
     }
 
-    private static String getClientIp(HttpServletRequest request, String headerName, boolean required) {
-        var ip = getStringHeader(request, headerName, false);
-        if (ip == null) {
-            var forwarded = getStringHeader(request, "X-Forwarded-For", false);
-            if (StringUtils.isNotBlank(forwarded)) {
-                var first = forwarded.split(",")[0];
-                if (StringUtils.isNotBlank(first)) {
-                    ip = first;
-                }
-            }
-        }
-        if (ip == null) {
-            ip = request.getRemoteAddr();
-        }
+    private String getClientIp(HttpServletRequest request, String headerName, boolean required) {
+        return resolveClientIp(request, getStringHeader(request, headerName, false), headerName, required);
+    }
+
+    private String resolveClientIp(HttpServletRequest request, @Nullable String clientIp, String headerName, boolean required) {
+        var ip = clientIpResolver.resolve(
+                clientIp,
+                getJoinedHeader(request, FORWARDED_HEADER),
+                getJoinedHeader(request, FORWARDED_FOR_HEADER),
+                request.getRemoteAddr()
+        );
         if (ip == null) {
             if (required) {
                 throw new ResponseStatusException(400, desc("header not found", "header", headerName), null);
@@ -155,4 +296,107 @@ public class OrzWebRequestHeadersExtractor {
         }
         return ip;
     }
+
+    /**
+     * 构建时检查必需的请求头和所有请求头的格式，日期时间和客户端 IP 在首次读取时才解析并缓存
+     */
+    private static class LazyRequestHeadersBo extends OrzWebRequestHeadersBo {
+        private static final Object UNRESOLVED = new Object();
+
+        private final OrzWebProps.RequestHeadersConfig field;
+        private final OrzWebClientIpResolver clientIpResolver;
+        private final String requestTimeValue;
+        private final String clientIpValue;
+        private final String forwardedValue;
+        private final String forwardedForValue;
+        private final String remoteAddrValue;
+        private final String initialTimeValue;
+        private final String launchTimeValue;
+
+        private volatile Object requestTime = UNRESOLVED;
+        private volatile Object clientIp = UNRESOLVED;
+        private volatile Object initialTime = UNRESOLVED;
+        private volatile Object launchTime = UNRESOLVED;
+
+        private LazyRequestHeadersBo(
+                OrzWebProps.RequestHeadersConfig field,
+                OrzWebClientIpResolver clientIpResolver,
+                String requestId,
+                String requestTimeValue,
+                String userId,
+                String userType,
+                String clientIpValue,
+                String forwardedValue,
+                String forwardedForValue,
+                String remoteAddrValue,
+                String clientType,
+                Integer clientVersion,
+                String clientChannel,
+                String initialTimeValue,
+                String launchTimeValue,
+                String launchScene,
+                String deviceId,
+                String deviceBrand,
+                String deviceModel,
+                String osType,
+                String osName,
+                String platformVersion,
+                String platformSDKVersion
+        ) {
+            super(requestId, null, userId, userType, null, clientType, clientVersion, clientChannel, null, null, launchScene,
+                    deviceId, deviceBrand, deviceModel, osType, osName, platformVersion, platformSDKVersion);
+            this.field = field;
+            this.clientIpResolver = clientIpResolver;
+            this.requestTimeValue = requestTimeValue;
+            this.clientIpValue = clientIpValue;
+            this.forwardedValue = forwardedValue;
+            this.forwardedForValue = forwardedForValue;
+            this.remoteAddrValue = remoteAddrValue;
+            this.initialTimeValue = initialTimeValue;
+            this.launchTimeValue = launchTimeValue;
+        }
+
+        @Override
+        public LocalDateTime getRequestTime() {
+            var value = requestTime;
+            if (value == UNRESOLVED) {
+                value = parseDateTimeHeader(field.getRequestTime(), requestTimeValue);
+                requestTime = value;
+            }
+            return (LocalDateTime) value;
+        }
+
+        @Override
+        public String getClientIp() {
+            var value = clientIp;
+            if (value == UNRESOLVED) {
+                value = clientIpResolver.resolve(clientIpValue, forwardedValue, forwardedForValue, remoteAddrValue);
+                if (value == null && field.isClientIpRequired()) {
+                    throw new ResponseStatusException(400, desc("header not found", "header", field.getClientIp()), null);
+                }
+                clientIp = value;
+            }
+            return (String) value;
+        }
+
+        @Override
+        public LocalDateTime getInitialTime() {
+            var value = initialTime;
+            if (value == UNRESOLVED) {
+                value = parseDateTimeHeader(field.getInitialTime(), initialTimeValue);
+                initialTime = value;
+            }
+            return (LocalDateTime) value;
+        }
+
+        @Override
+        public LocalDateTime getLaunchTime() {
+            var value = launchTime;
+            if (value == UNRESOLVED) {
+                value = parseDateTimeHeader(field.getLaunchTime(), launchTimeValue);
+                launchTime = value;
+            }
+            return (LocalDateTime) value;
+        }
+    }
 }
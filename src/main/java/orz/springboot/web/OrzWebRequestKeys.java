@@ -0,0 +1,130 @@
+package orz.springboot.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import orz.springboot.web.model.OrzWebRequestHeadersBo;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.desc;
+
+/**
+ * 请求键：规范化（对象字段排序）后的请求体和指定请求头字段的 SHA-256，用于响应缓存和请求合并
+ */
+@Component
+public class OrzWebRequestKeys {
+    private final OrzWebRequestHeadersExtractor extractor;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper canonicalMapper;
+
+    public OrzWebRequestKeys(OrzWebRequestHeadersExtractor extractor, ObjectMapper objectMapper) {
+        this.extractor = extractor;
+        this.objectMapper = objectMapper;
+        this.canonicalMapper = objectMapper.copy().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    /**
+     * 解析 OrzWebRequestHeadersBo 字段的读取方法
+     *
+     * @param beanClass  接口类
+     * @param annotation 声明字段的注解，用于错误信息
+     * @param fields     字段名
+     * @return 读取方法
+     */
+    public static Method[] compileVary(Class<?> beanClass, String annotation, String[] fields) {
+        var getters = new Method[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            var getter = OrzWebUtils.getRequestHeaderGetter(fields[i]);
+            if (getter == null) {
+                throw new FatalBeanException(desc(annotation + " vary field is invalid", "beanClass", beanClass, "field", fields[i]));
+            }
+            getters[i] = getter;
+        }
+        return getters;
+    }
+
+    /**
+     * 由原始请求体构建，请求体不是合法 JSON 或者请求头无效时返回 null
+     */
+    @Nullable
+    public Key ofBody(byte[] body, Method[] vary, HttpServletRequest request) {
+        try {
+            return build(canonicalMapper.writeValueAsBytes(objectMapper.readValue(body, Object.class)), vary, request);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 由反序列化后的请求对象构建，当前请求头无效时返回 null
+     */
+    @Nullable
+    public Key ofValue(Object value, Method[] vary) {
+        try {
+            return build(canonicalMapper.writeValueAsBytes(value), vary, null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private Key build(byte[] canonical, Method[] vary, @Nullable HttpServletRequest request) {
+        var digest = newDigest();
+        digest.update(canonical);
+        if (vary.length > 0) {
+            try {
+                var headers = request != null ? extractor.extract(request) : extractor.extract();
+                for (var getter : vary) {
+                    digest.update((byte) 0);
+                    var value = invokeGetter(getter, headers);
+                    if (value != null) {
+                        digest.update((byte) 1);
+                        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            } catch (ResponseStatusException e) {
+                // 请求头无效时不缓存、不合并，由接口照常处理
+                return null;
+            }
+        }
+        var hash = ByteBuffer.wrap(digest.digest());
+        return new Key(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+
+    @Nullable
+    private static Object invokeGetter(Method getter, OrzWebRequestHeadersBo headers) {
+        try {
+            return getter.invoke(headers);
+        } catch (InvocationTargetException e) {
+            // 延迟解析的字段在读取时才检查格式，保留原本的 ResponseStatusException
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Key(long h1, long h2, long h3, long h4) {
+    }
+}
@@ -0,0 +1,268 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import orz.springboot.base.OrzBaseUtils;
+import orz.springboot.base.description.OrzDescription;
+import orz.springboot.web.annotation.OrzWebCache;
+import orz.springboot.web.model.OrzWebApiBo;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.desc;
+
+/**
+ * 接口响应缓存，由 @OrzWebCache 声明，只适用于同步返回的 query = true 接口
+ * <p>
+ * 在拦截器之后、请求体反序列化和参数校验之前查找缓存，命中时直接写出缓存的响应字节。
+ * 每个接口一个有界缓存，超出条目数或字节数时按写入顺序淘汰（同一接口的缓存时间相同，即最早过期的先淘汰）。
+ * 指标：orz.web.api.cache.requests（result=hit/miss）和 orz.web.api.cache.evictions。
+ */
+@Component
+public class OrzWebResponseCache {
+    public static final String REQUESTS_NAME = "orz.web.api.cache.requests";
+    public static final String EVICTIONS_NAME = "orz.web.api.cache.evictions";
+
+    // 条目的固定开销估算（字节）
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final OrzWebProps props;
+    private final OrzWebRequestKeys requestKeys;
+    private final ObjectProvider<OrzWebMetrics> metricsProvider;
+    private final Map<Method, ApiCache> apis = new ConcurrentHashMap<>();
+
+    public OrzWebResponseCache(OrzWebProps props, OrzWebRequestKeys requestKeys, ObjectProvider<OrzWebMetrics> metricsProvider) {
+        this.props = props;
+        this.requestKeys = requestKeys;
+        this.metricsProvider = metricsProvider;
+    }
+
+    /**
+     * 在映射时注册接口，声明不合法时启动失败
+     *
+     * @param api 接口元数据
+     */
+    public void register(OrzWebApiBo api) {
+        var annotation = AnnotatedElementUtils.findMergedAnnotation(api.getBeanClass(), OrzWebCache.class);
+        if (annotation == null) {
+            return;
+        }
+        var beanClass = api.getBeanClass();
+        if (!api.isQuery()) {
+            throw new FatalBeanException(desc("@OrzWebCache requires query api", "beanClass", beanClass));
+        }
+        var returnClass = api.getMethod().getReturnType();
+        if (CompletionStage.class.isAssignableFrom(returnClass) || DeferredResult.class.isAssignableFrom(returnClass)) {
+            throw new FatalBeanException(desc("@OrzWebCache does not support async request method", "beanClass", beanClass));
+        }
+        if (annotation.ttl() <= 0 || annotation.maxEntries() <= 0 || annotation.maxBytes() <= 0) {
+            throw new FatalBeanException(desc("@OrzWebCache ttl, maxEntries and maxBytes must be positive", "beanClass", beanClass));
+        }
+        apis.put(api.getMethod(), new ApiCache(api, annotation, OrzWebRequestKeys.compileVary(beanClass, "@OrzWebCache", annotation.vary())));
+    }
+
+    @Nullable
+    public ApiCache get(Method method) {
+        return apis.get(method);
+    }
+
+    /**
+     * 处理请求，命中时写出缓存的响应，未命中时调用接口并缓存成功的响应
+     *
+     * @param cache      接口的缓存
+     * @param request    请求
+     * @param response   响应
+     * @param invocation 实际的调用，请求体已经读取，需要使用传入的请求
+     * @return 同 RequestMappingHandlerAdapter#handleInternal
+     */
+    @Nullable
+    public ModelAndView handle(ApiCache cache, HttpServletRequest request, HttpServletResponse response, Invocation invocation) throws Exception {
+        cache.registerMeters(this);
+        var body = StreamUtils.copyToByteArray(request.getInputStream());
+        var cachedRequest = new OrzWebCachedBodyRequest(request, body);
+        var key = requestKeys.ofBody(body, cache.vary, request);
+        if (key == null) {
+            return invocation.invoke(cachedRequest, response);
+        }
+        var now = System.nanoTime();
+        var entry = cache.get(key, now);
+        if (entry != null) {
+            cache.hits.increment();
+            return replay(entry, response);
+        }
+        cache.misses.increment();
+
+        var wrapper = new ContentCachingResponseWrapper(response);
+        ModelAndView modelAndView;
+        try {
+            modelAndView = invocation.invoke(cachedRequest, wrapper);
+        } catch (Exception e) {
+            if (cache.cacheErrors) {
+                OrzBaseUtils.getException(OrzWebException.class, e).ifPresent(exception ->
+                        cache.put(new Entry(key, now + cache.ttlNanos, 0, null, null, null, exception.getCode(), exception.getDescription())));
+            }
+            throw e;
+        }
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && !request.isAsyncStarted()) {
+            var versionName = props.getResponseHeaders().getVersion();
+            var content = wrapper.getContentAsByteArray();
+            cache.put(new Entry(key, now + cache.ttlNanos, content.length, content, wrapper.getContentType(), wrapper.getHeader(versionName), null, null));
+        }
+        wrapper.copyBodyToResponse();
+        return modelAndView;
+    }
+
+    @Nullable
+    private ModelAndView replay(Entry entry, HttpServletResponse response) throws IOException {
+        if (entry.errorCode() != null) {
+            throw OrzWebException.stackless(entry.errorCode(), entry.errorDescription());
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        if (entry.contentType() != null) {
+            response.setContentType(entry.contentType());
+        }
+        if (entry.version() != null) {
+            response.setHeader(props.getResponseHeaders().getVersion(), entry.version());
+        }
+        response.setContentLength(entry.content().length);
+        response.getOutputStream().write(entry.content());
+        return null;
+    }
+
+    @FunctionalInterface
+    public interface Invocation {
+        ModelAndView invoke(HttpServletRequest request, HttpServletResponse response) throws Exception;
+    }
+
+    public static class ApiCache {
+        private final OrzWebApiBo api;
+        private final long ttlNanos;
+        private final int maxEntries;
+        private final long maxBytes;
+        private final Method[] vary;
+        private final boolean cacheErrors;
+        private final Map<OrzWebRequestKeys.Key, Entry> entries = new ConcurrentHashMap<>();
+        private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicLong bytes = new AtomicLong();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private volatile boolean metersRegistered = false;
+
+        private ApiCache(OrzWebApiBo api, OrzWebCache annotation, Method[] vary) {
+            this.api = api;
+            this.ttlNanos = annotation.unit().toNanos(annotation.ttl());
+            this.maxEntries = annotation.maxEntries();
+            this.maxBytes = annotation.maxBytes();
+            this.vary = vary;
+            this.cacheErrors = annotation.cacheErrors();
+        }
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        public long getEvictions() {
+            return evictions.sum();
+        }
+
+        public int getSize() {
+            return entries.size();
+        }
+
+        public long getBytes() {
+            return bytes.get();
+        }
+
+        @Nullable
+        private Entry get(OrzWebRequestKeys.Key key, long now) {
+            var entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.expiresAt() >= 0) {
+                remove(entry);
+                return null;
+            }
+            return entry;
+        }
+
+        private void put(Entry entry) {
+            if (entry.size() > maxBytes) {
+                return;
+            }
+            var previous = entries.put(entry.key(), entry);
+            if (previous != null) {
+                bytes.addAndGet(-previous.size());
+            }
+            bytes.addAndGet(entry.size());
+            queue.offer(entry);
+            queued.incrementAndGet();
+            // 队列中可能残留已被替换或过期删除的条目，数量超过上限两倍时同样从队首淘汰
+            while (entries.size() > maxEntries || bytes.get() > maxBytes || queued.get() > maxEntries * 2) {
+                var head = queue.poll();
+                if (head == null) {
+                    break;
+                }
+                queued.decrementAndGet();
+                if (remove(head)) {
+                    evictions.increment();
+                }
+            }
+        }
+
+        private boolean remove(Entry entry) {
+            if (entries.remove(entry.key(), entry)) {
+                bytes.addAndGet(-entry.size());
+                return true;
+            }
+            return false;
+        }
+
+        private void registerMeters(OrzWebResponseCache owner) {
+            if (metersRegistered) {
+                return;
+            }
+            metersRegistered = true;
+            var metrics = owner.metricsProvider.getIfAvailable();
+            if (metrics == null) {
+                return;
+            }
+            metrics.registerCounter(REQUESTS_NAME, hits, LongAdder::sum, OrzWebMetrics.tags(api, "result", "hit"));
+            metrics.registerCounter(REQUESTS_NAME, misses, LongAdder::sum, OrzWebMetrics.tags(api, "result", "miss"));
+            metrics.registerCounter(EVICTIONS_NAME, evictions, LongAdder::sum, OrzWebMetrics.tags(api));
+        }
+    }
+
+    /**
+     * @param expiresAt 过期时间（System.nanoTime）
+     * @param size      占用的字节数估算
+     */
+    private record Entry(OrzWebRequestKeys.Key key, long expiresAt, long size, byte[] content, String contentType, String version, String errorCode, OrzDescription errorDescription) {
+        private Entry {
+            size += ENTRY_OVERHEAD;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 按 (请求方法, 路径) 精确匹配的路由表，查找只做一次哈希，与注册数量无关
+ *
+ * @param <T> 路由目标
+ */
+public class OrzWebRouteTable<T> {
+    private final Map<RequestMethod, Map<String, T>> routes = new EnumMap<>(RequestMethod.class);
+
+    public OrzWebRouteTable() {
+        for (var method : RequestMethod.values()) {
+            routes.put(method, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * 注册路由
+     *
+     * @param method 请求方法
+     * @param path   去除上下文路径后的请求路径
+     * @param target 路由目标
+     * @return 之前注册的路由目标
+     */
+    @Nullable
+    public T put(RequestMethod method, String path, T target) {
+        return routes.get(method).put(path, target);
+    }
+
+    /**
+     * 查找路由
+     *
+     * @param method 请求方法
+     * @param path   去除上下文路径后的请求路径
+     * @return 路由目标，未注册时为空
+     */
+    @Nullable
+    public T get(@Nullable String method, @Nullable String path) {
+        if (method == null || path == null) {
+            return null;
+        }
+        var requestMethod = RequestMethod.resolve(method);
+        if (requestMethod == null) {
+            return null;
+        }
+        return routes.get(requestMethod).get(path);
+    }
+
+    /**
+     * 移除满足条件的路由
+     *
+     * @param filter 条件
+     */
+    public void removeIf(Predicate<? super T> filter) {
+        for (var map : routes.values()) {
+            map.values().removeIf(filter);
+        }
+    }
+
+    public int size() {
+        var size = 0;
+        for (var map : routes.values()) {
+            size += map.size();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,265 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import orz.springboot.web.model.OrzWebApiBo;
+import orz.springboot.web.model.OrzWebServerTimingBo;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.desc;
+
+/**
+ * 接口阶段耗时，通过 Server-Timing 响应头和 OrzWebServerTimingListener 输出
+ * <p>
+ * 阶段依次为请求头解析、请求体读取、参数校验、接口方法和响应写出，使用单调时钟计时，
+ * 记录在线程内复用的槽位中。未启用时各个埋点只有一次分支判断。
+ */
+@Component
+public class OrzWebServerTiming {
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static final Logger logger = LoggerFactory.getLogger("orz-web-api");
+    private static final ThreadLocal<Slot> SLOT = ThreadLocal.withInitial(Slot::new);
+    private static volatile boolean enabled = false;
+
+    private final OrzWebProps props;
+    private final OrzWebApiRegistry registry;
+    private final ObjectProvider<OrzWebServerTimingListener> listenerProvider;
+    private volatile List<OrzWebServerTimingListener> listeners;
+
+    public OrzWebServerTiming(OrzWebProps props, OrzWebApiRegistry registry, ObjectProvider<OrzWebServerTimingListener> listenerProvider) {
+        this.props = props;
+        this.registry = registry;
+        this.listenerProvider = listenerProvider;
+        var config = props.getServerTiming();
+        if (config.isEnabled() || StringUtils.isNotBlank(config.getToken())) {
+            enable();
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开启埋点，开启后在进程内保持开启（多个应用上下文共享）；是否记录由每个请求单独判断，这里只决定未启用时能否跳过埋点
+     */
+    private static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * 阶段开始，当前线程没有记录中的请求时忽略
+     */
+    public static void begin(Phase phase) {
+        if (enabled) {
+            var slot = SLOT.get();
+            if (slot.active) {
+                slot.begins[phase.ordinal()] = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * 阶段结束，累加自对应的 begin 以来的耗时
+     */
+    public static void end(Phase phase) {
+        if (enabled) {
+            var slot = SLOT.get();
+            var index = phase.ordinal();
+            if (slot.active && slot.begins[index] != 0) {
+                slot.durations[index] += System.nanoTime() - slot.begins[index];
+                slot.begins[index] = 0;
+            }
+        }
+    }
+
+    /**
+     * 开始记录请求，非 @OrzWebApi 处理器、已经在记录中，或者未启用且请求头不等于令牌时返回 null
+     *
+     * @param request       请求
+     * @param handlerMethod 处理器
+     * @return 当前线程的槽位
+     */
+    @Nullable
+    public Slot start(HttpServletRequest request, HandlerMethod handlerMethod) {
+        var api = registry.get(handlerMethod.getMethod());
+        if (api == null) {
+            return null;
+        }
+        var config = props.getServerTiming();
+        if (!config.isEnabled() && !isTokenMatched(config, request.getHeader(config.getHeader()))) {
+            return null;
+        }
+        var slot = SLOT.get();
+        if (slot.active) {
+            return null;
+        }
+        slot.reset(api);
+        return slot;
+    }
+
+    /**
+     * 响应体写出前设置 Server-Timing 响应头，此时响应写出阶段尚未完成，不包含在响应头中
+     *
+     * @param response 响应
+     */
+    public void beforeWrite(ServerHttpResponse response) {
+        if (enabled) {
+            var slot = SLOT.get();
+            if (slot.active) {
+                begin(Phase.WRITE);
+                response.getHeaders().set(SERVER_TIMING_HEADER, slot.render(System.nanoTime()));
+            }
+        }
+    }
+
+    /**
+     * 结束记录请求，异常时响应头尚未写出，在这里补充 Server-Timing 响应头
+     *
+     * @param slot      槽位
+     * @param response  响应
+     * @param exception 处理过程中抛出的异常，成功时为 null
+     */
+    public void stop(Slot slot, HttpServletResponse response, @Nullable Throwable exception) {
+        try {
+            end(Phase.WRITE);
+            var now = System.nanoTime();
+            if (!response.isCommitted() && !response.containsHeader(SERVER_TIMING_HEADER)) {
+                response.setHeader(SERVER_TIMING_HEADER, slot.render(now));
+            }
+            var slowThreshold = props.getServerTiming().getSlowThreshold();
+            var listeners = getListeners();
+            var total = now - slot.start;
+            var slow = slowThreshold != null && total >= slowThreshold.toNanos();
+            if (!slow && listeners.isEmpty()) {
+                return;
+            }
+            var timing = slot.toBo(now, exception);
+            if (slow && logger.isWarnEnabled()) {
+                logger.warn(desc("@OrzWebApi slow request", "path", slot.api.getPath(), "timing", slot.render(now)));
+            }
+            for (var listener : listeners) {
+                try {
+                    listener.onServerTiming(timing);
+                } catch (Exception e) {
+                    logger.error(desc("OrzWebServerTimingListener failed", "listener", listener), e);
+                }
+            }
+        } finally {
+            slot.active = false;
+        }
+    }
+
+    /**
+     * 请求头由客户端控制，只有持有共享密钥的调用方可以单独启用，比较耗时与内容无关
+     */
+    private static boolean isTokenMatched(OrzWebProps.ServerTimingConfig config, @Nullable String value) {
+        var token = config.getToken();
+        if (value == null || StringUtils.isBlank(token)) {
+            return false;
+        }
+        return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<OrzWebServerTimingListener> getListeners() {
+        var value = listeners;
+        if (value == null) {
+            value = listenerProvider.orderedStream().toList();
+            listeners = value;
+        }
+        return value;
+    }
+
+    public enum Phase {
+        HEADERS("headers"),
+        READ("read"),
+        VALIDATE("validate"),
+        HANDLER("handler"),
+        WRITE("write");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    public static class Slot {
+        private static final Phase[] PHASES = Phase.values();
+
+        private final long[] begins = new long[PHASES.length];
+        private final long[] durations = new long[PHASES.length];
+        private final StringBuilder builder = new StringBuilder(128);
+        private boolean active;
+        private long start;
+        private OrzWebApiBo api;
+
+        private void reset(OrzWebApiBo api) {
+            for (int i = 0; i < PHASES.length; i++) {
+                begins[i] = 0;
+                durations[i] = 0;
+            }
+            this.api = api;
+            this.start = System.nanoTime();
+            this.active = true;
+        }
+
+        private String render(long now) {
+            builder.setLength(0);
+            for (var phase : PHASES) {
+                if (phase == Phase.WRITE) {
+                    continue;
+                }
+                appendMetric(phase.metricName, durations[phase.ordinal()]);
+                builder.append(", ");
+            }
+            appendMetric("total", now - start);
+            return builder.toString();
+        }
+
+        /**
+         * dur 以毫秒为单位，保留 3 位小数
+         */
+        private void appendMetric(String name, long nanos) {
+            var micros = Math.max(0, nanos) / 1000;
+            var fraction = micros % 1000;
+            builder.append(name).append(";dur=").append(micros / 1000).append('.');
+            if (fraction < 100) {
+                builder.append('0');
+            }
+            if (fraction < 10) {
+                builder.append('0');
+            }
+            builder.append(fraction);
+        }
+
+        private OrzWebServerTimingBo toBo(long now, @Nullable Throwable exception) {
+            return new OrzWebServerTimingBo(
+                    api,
+                    durations[Phase.HEADERS.ordinal()],
+                    durations[Phase.READ.ordinal()],
+                    durations[Phase.VALIDATE.ordinal()],
+                    durations[Phase.HANDLER.ordinal()],
+                    durations[Phase.WRITE.ordinal()],
+                    now - start,
+                    exception
+            );
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+import orz.springboot.web.OrzWebServerTiming.Phase;
+import orz.springboot.web.annotation.OrzWebApi;
+
+import java.lang.reflect.Type;
+
+/**
+ * 记录请求体读取阶段，读取完成后开始参数校验阶段，直到接口方法被调用
+ */
+@RestControllerAdvice(annotations = {OrzWebApi.class})
+public class OrzWebServerTimingAdvice extends RequestBodyAdviceAdapter {
+    @Override
+    public boolean supports(@Nonnull MethodParameter methodParameter, @Nonnull Type targetType, @Nonnull Class<? extends HttpMessageConverter<?>> converterType) {
+        return OrzWebServerTiming.isEnabled();
+    }
+
+    @Nonnull
+    @Override
+    public HttpInputMessage beforeBodyRead(@Nonnull HttpInputMessage inputMessage, @Nonnull MethodParameter parameter, @Nonnull Type targetType, @Nonnull Class<? extends HttpMessageConverter<?>> converterType) {
+        OrzWebServerTiming.begin(Phase.READ);
+        return inputMessage;
+    }
+
+    @Nonnull
+    @Override
+    public Object afterBodyRead(@Nonnull Object body, @Nonnull HttpInputMessage inputMessage, @Nonnull MethodParameter parameter, @Nonnull Type targetType, @Nonnull Class<? extends HttpMessageConverter<?>> converterType) {
+        OrzWebServerTiming.end(Phase.READ);
+        OrzWebServerTiming.begin(Phase.VALIDATE);
+        return body;
+    }
+
+    @Override
+    public Object handleEmptyBody(@Nullable Object body, @Nonnull HttpInputMessage inputMessage, @Nonnull MethodParameter parameter, @Nonnull Type targetType, @Nonnull Class<? extends HttpMessageConverter<?>> converterType) {
+        OrzWebServerTiming.end(Phase.READ);
+        OrzWebServerTiming.begin(Phase.VALIDATE);
+        return body;
+    }
+}
@@ -0,0 +1,10 @@
+package orz.springboot.web;
+
+import orz.springboot.web.model.OrzWebServerTimingBo;
+
+/**
+ * 接口阶段耗时监听器，在记录了阶段耗时的请求结束时调用，可用于日志或指标
+ */
+public interface OrzWebServerTimingListener {
+    void onServerTiming(OrzWebServerTimingBo timing);
+}
@@ -0,0 +1,26 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import lombok.Getter;
+import orz.springboot.base.description.OrzDescription;
+import orz.springboot.web.model.OrzWebProtocolBo;
+
+/**
+ * 请求因限流、降载或者超过截止时间（OrzWebDeadlineExceededException）被拒绝，响应指定的 Orz-Code 和 Retry-After 响应头，不告警
+ */
+@Getter
+public class OrzWebThrottledException extends OrzWebRejectedException {
+    private final OrzWebProtocolBo protocol;
+
+    /**
+     * 建议的重试等待时间（秒），不大于 0 时不响应 Retry-After
+     */
+    private final long retryAfterSeconds;
+
+    public OrzWebThrottledException(@Nonnull String reason, @Nonnull OrzWebProtocolBo protocol, long retryAfterSeconds, @Nullable OrzDescription description) {
+        super(reason, description);
+        this.protocol = protocol;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,42 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import lombok.AccessLevel;
+import lombok.Getter;
+import orz.springboot.base.description.OrzDescription;
+import orz.springboot.web.model.OrzWebProtocolBo;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.descTitles;
+
+/**
+ * 接口方法执行超时，响应 orz.web.timeout.code，告警由 OrzWebTimeouts 经 OrzWebAlarms 聚合发送
+ * <p>
+ * 超时风暴时会大量抛出，不填充堆栈，消息在首次访问时才构建
+ */
+@Getter
+public class OrzWebTimeoutException extends RuntimeException {
+    public static final String REASON = "request timeout";
+
+    private final OrzWebProtocolBo protocol;
+    private final OrzDescription description;
+
+    @Getter(AccessLevel.NONE)
+    private volatile String message;
+
+    public OrzWebTimeoutException(@Nonnull OrzWebProtocolBo protocol, @Nullable OrzDescription description) {
+        super(null, null, false, false);
+        this.protocol = protocol;
+        this.description = description;
+    }
+
+    @Override
+    public String getMessage() {
+        var message = this.message;
+        if (message == null) {
+            message = descTitles(REASON).merge(description).toString();
+            this.message = message;
+        }
+        return message;
+    }
+}
@@ -0,0 +1,181 @@
+package orz.springboot.web;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import orz.springboot.web.annotation.OrzWebCache;
+import orz.springboot.web.annotation.OrzWebIdempotent;
+import orz.springboot.web.model.OrzWebApiBo;
+import orz.springboot.web.model.OrzWebProtocolBo;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static orz.springboot.base.OrzBaseUtils.hashMap;
+import static orz.springboot.base.description.OrzDescriptionUtils.desc;
+import static orz.springboot.base.description.OrzDescriptionUtils.descValues;
+
+/**
+ * 接口执行超时，由 @OrzWebApi(timeoutMillis) 声明，未声明时使用 orz.web.timeout.scopes 中作用域的默认值
+ * <p>
+ * 参数解析和校验仍在请求线程中完成，接口方法作为 WebAsyncTask 在独立的有界线程池（orz.web.timeout.pool-size）中执行，
+ * 线程和排队都已满时拒绝（Orz-Code: rejected）。超时后中断执行线程，响应 orz.web.timeout.code，之后返回的结果被丢弃。
+ * 接口方法在执行线程中运行，Server-Timing 只记录到参数校验阶段，不包含接口方法和响应写出阶段。
+ * 超时告警（@ORZ_WEB_TIMEOUT）经过 OrzWebAlarms 按接口聚合。
+ * 只适用于同步返回的接口，不和 @OrzWebCache、@OrzWebIdempotent 同时使用（两者只记录同步完成的响应）。
+ */
+@Component
+public class OrzWebTimeouts implements DisposableBean {
+    public static final String ALARM_EVENT = "@ORZ_WEB_TIMEOUT";
+    public static final String REJECTED_REASON = "timeout executor is full";
+
+    private final OrzWebProps props;
+    private final OrzWebAlarms alarms;
+    private final OrzWebProtocolBo protocol;
+    private final Map<Method, ApiTimeout> apis = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor threadPool;
+    private final AsyncTaskExecutor executor;
+
+    public OrzWebTimeouts(OrzWebProps props, OrzWebAlarms alarms) {
+        var config = props.getTimeout();
+        this.props = props;
+        this.alarms = alarms;
+        this.protocol = OrzWebProtocolBo.error(config.getCode(), null);
+        var threadFactory = new CustomizableThreadFactory("orz-web-timeout-");
+        threadFactory.setDaemon(true);
+        var queue = config.getQueueCapacity() > 0 ? new ArrayBlockingQueue<Runnable>(config.getQueueCapacity()) : new SynchronousQueue<Runnable>();
+        this.threadPool = new ThreadPoolExecutor(config.getPoolSize(), config.getPoolSize(), 60, TimeUnit.SECONDS, queue, threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.threadPool.allowCoreThreadTimeOut(true);
+        this.executor = new RejectingExecutor(threadPool);
+    }
+
+    @Override
+    public void destroy() {
+        threadPool.shutdownNow();
+    }
+
+    /**
+     * 在映射时注册接口，显式声明了超时的接口不支持时启动失败
+     *
+     * @param api 接口元数据
+     */
+    public void register(OrzWebApiBo api) {
+        var beanClass = api.getBeanClass();
+        var declared = api.getAnnotation().timeoutMillis();
+        var scopeDefault = props.getTimeout().getScopes().get(api.getScope());
+        var timeoutMillis = declared > 0 ? declared : scopeDefault != null ? scopeDefault.toMillis() : 0;
+        if (timeoutMillis <= 0) {
+            return;
+        }
+        var returnClass = api.getMethod().getReturnType();
+        var unsupported = CompletionStage.class.isAssignableFrom(returnClass) || DeferredResult.class.isAssignableFrom(returnClass)
+                || AnnotatedElementUtils.hasAnnotation(beanClass, OrzWebCache.class)
+                || AnnotatedElementUtils.hasAnnotation(beanClass, OrzWebIdempotent.class);
+        if (unsupported) {
+            if (declared > 0) {
+                throw new FatalBeanException(desc("@OrzWebApi timeoutMillis requires synchronous api without @OrzWebCache or @OrzWebIdempotent", "beanClass", beanClass));
+            }
+            return;
+        }
+        apis.put(api.getMethod(), new ApiTimeout(api.getPath(), timeoutMillis));
+    }
+
+    @Nullable
+    public ApiTimeout get(Method method) {
+        return apis.get(method);
+    }
+
+    /**
+     * 创建异步任务，执行线程绑定当前请求，接口内可以照常通过 RequestContextHolder 获取请求头
+     *
+     * @param timeout    接口的超时
+     * @param invocation 接口方法调用
+     * @return 异步任务
+     */
+    public WebAsyncTask<Object> createTask(ApiTimeout timeout, Callable<Object> invocation) {
+        var attributes = RequestContextHolder.getRequestAttributes();
+        var task = new WebAsyncTask<>(timeout.millis, executor, () -> {
+            RequestContextHolder.setRequestAttributes(attributes);
+            try {
+                return invocation.call();
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        });
+        task.onTimeout(() -> onTimeout(timeout));
+        return task;
+    }
+
+    /**
+     * 超时结果作为异步结果分发，由 OrzWebAdvice 构建响应
+     */
+    private Object onTimeout(ApiTimeout timeout) {
+        var exception = new OrzWebTimeoutException(protocol, descValues("path", timeout.path, "timeoutMillis", timeout.millis));
+        alarms.alarm(ALARM_EVENT, null, timeout.path, exception.getMessage(), exception, hashMap(
+                "path", timeout.path,
+                "timeoutMillis", timeout.millis
+        ));
+        return exception;
+    }
+
+    /**
+     * 已满时抛出 OrzWebRejectedException，WebAsyncManager 把它作为异步结果分发，由 OrzWebAdvice 构建响应
+     */
+    private record RejectingExecutor(ThreadPoolExecutor threadPool) implements AsyncTaskExecutor {
+        @Override
+        public void execute(@Nonnull Runnable task) {
+            try {
+                threadPool.execute(task);
+            } catch (RejectedExecutionException e) {
+                throw rejected();
+            }
+        }
+
+        @Nonnull
+        @Override
+        public Future<?> submit(@Nonnull Runnable task) {
+            try {
+                return threadPool.submit(task);
+            } catch (RejectedExecutionException e) {
+                throw rejected();
+            }
+        }
+
+        @Nonnull
+        @Override
+        public <T> Future<T> submit(@Nonnull Callable<T> task) {
+            try {
+                return threadPool.submit(task);
+            } catch (RejectedExecutionException e) {
+                throw rejected();
+            }
+        }
+
+        private OrzWebRejectedException rejected() {
+            return new OrzWebRejectedException(REJECTED_REASON, descValues("poolSize", threadPool.getMaximumPoolSize(), "queued", threadPool.getQueue().size()));
+        }
+    }
+
+    public static class ApiTimeout {
+        private final String path;
+        private final long millis;
+
+        private ApiTimeout(String path, long millis) {
+            this.path = path;
+            this.millis = millis;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+    }
+}
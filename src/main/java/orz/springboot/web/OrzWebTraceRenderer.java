@@ -0,0 +1,204 @@
+package orz.springboot.web;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 错误追踪渲染，格式与 Throwable.printStackTrace 相同，但帧数和原因层数有上限
+ * <p>
+ * 连续的框架帧（orz.web.trace.folded-packages）折叠为一行，每个异常的栈帧部分按栈指纹缓存，
+ * 相同位置抛出的异常只渲染一次，异常类型和消息每次单独输出。
+ */
+public class OrzWebTraceRenderer {
+    // 缓存的栈数量上限，超出后不再缓存
+    static final int MAX_CACHED_STACKS = 1024;
+
+    private final OrzWebProps.TraceConfig config;
+    private final int maxFrames;
+    private final int maxCauses;
+    private final String[] foldedPackages;
+    private final ConcurrentHashMap<StackKey, String> stacks = new ConcurrentHashMap<>();
+
+    public OrzWebTraceRenderer(OrzWebProps.TraceConfig config) {
+        this.config = config;
+        this.maxFrames = config.getMaxFrames();
+        this.maxCauses = config.getMaxCauses();
+        this.foldedPackages = config.getFoldedPackages().toArray(String[]::new);
+    }
+
+    /**
+     * 配置是否发生变化（重新绑定或者修改了上限）
+     */
+    boolean isStale(OrzWebProps.TraceConfig config) {
+        return this.config != config
+                || maxFrames != config.getMaxFrames()
+                || maxCauses != config.getMaxCauses()
+                || !Arrays.asList(foldedPackages).equals(config.getFoldedPackages());
+    }
+
+    /**
+     * 渲染异常及其原因链
+     *
+     * @param throwable 异常
+     * @return 追踪信息
+     */
+    public String render(Throwable throwable) {
+        var builder = new StringBuilder(1024);
+        var seen = Collections.newSetFromMap(new IdentityHashMap<Throwable, Boolean>());
+        var enclosing = new StackTraceElement[0];
+        var current = throwable;
+        for (int depth = 0; current != null; depth++) {
+            if (!seen.add(current)) {
+                builder.append("Caused by: [CIRCULAR REFERENCE: ").append(current).append("]\n");
+                break;
+            }
+            if (depth > maxCauses) {
+                builder.append("\t... ").append(countCauses(current, seen)).append(" more causes\n");
+                break;
+            }
+            if (depth > 0) {
+                builder.append("Caused by: ");
+            }
+            builder.append(current).append('\n');
+            var trace = current.getStackTrace();
+            builder.append(renderStack(trace, enclosing));
+            enclosing = trace;
+            current = current.getCause();
+        }
+        return builder.toString();
+    }
+
+    private static int countCauses(Throwable throwable, Set<Throwable> seen) {
+        var count = 0;
+        for (var current = throwable; current != null && seen.add(current); current = current.getCause()) {
+            count++;
+        }
+        return count;
+    }
+
+    private String renderStack(StackTraceElement[] trace, StackTraceElement[] enclosing) {
+        var common = 0;
+        for (int m = trace.length - 1, n = enclosing.length - 1; m >= 0 && n >= 0 && trace[m].equals(enclosing[n]); m--, n--) {
+            common++;
+        }
+        var key = new StackKey(trace, common);
+        var stack = stacks.get(key);
+        if (stack == null) {
+            stack = buildStack(trace, trace.length - common, common);
+            if (stacks.size() < MAX_CACHED_STACKS) {
+                stacks.putIfAbsent(key, stack);
+            }
+        }
+        return stack;
+    }
+
+    /**
+     * 栈顶帧总是输出，之后连续的框架帧折叠
+     */
+    private String buildStack(StackTraceElement[] trace, int length, int common) {
+        var builder = new StringBuilder(length * 64);
+        var printed = 0;
+        var folded = 0;
+        var index = 0;
+        for (; index < length && printed < maxFrames; index++) {
+            var frame = trace[index];
+            if (index > 0 && isFolded(frame)) {
+                folded++;
+                continue;
+            }
+            appendFolded(builder, folded);
+            folded = 0;
+            builder.append("\tat ").append(frame).append('\n');
+            printed++;
+        }
+        appendFolded(builder, folded);
+        var omitted = length - index + common;
+        if (omitted > 0) {
+            builder.append("\t... ").append(omitted).append(" more\n");
+        }
+        return builder.toString();
+    }
+
+    private static void appendFolded(StringBuilder builder, int folded) {
+        if (folded > 0) {
+            builder.append("\t... ").append(folded).append(" framework frames\n");
+        }
+    }
+
+    private boolean isFolded(StackTraceElement frame) {
+        var className = frame.getClassName();
+        for (var prefix : foldedPackages) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 截断到指定的 UTF-8 字节数以内，不拆开代理对
+     *
+     * @param value    文本
+     * @param maxBytes 最大字节数
+     * @return 未超出时返回原文本
+     */
+    static String truncate(String value, long maxBytes) {
+        var bytes = 0L;
+        for (int i = 0; i < value.length(); i++) {
+            var size = utf8Size(value, i);
+            if (bytes + size > maxBytes) {
+                return value.substring(0, i);
+            }
+            bytes += size;
+            if (size == 4) {
+                i++;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 文本的 UTF-8 字节数
+     */
+    static long utf8Length(String value) {
+        var bytes = 0L;
+        for (int i = 0; i < value.length(); i++) {
+            var size = utf8Size(value, i);
+            bytes += size;
+            if (size == 4) {
+                i++;
+            }
+        }
+        return bytes;
+    }
+
+    private static int utf8Size(String value, int index) {
+        var c = value.charAt(index);
+        if (c < 0x80) {
+            return 1;
+        } else if (c < 0x800) {
+            return 2;
+        } else if (Character.isHighSurrogate(c) && index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1))) {
+            return 4;
+        }
+        return 3;
+    }
+
+    /**
+     * 栈指纹，栈帧内容相同的异常共享渲染结果
+     */
+    private record StackKey(StackTraceElement[] trace, int common) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StackKey other && common == other.common && Arrays.equals(trace, other.trace);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(trace) + common;
+        }
+    }
+}
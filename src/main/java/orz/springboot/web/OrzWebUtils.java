@@ -1,16 +1,25 @@
 package orz.springboot.web;
 
+import jakarta.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.BeanUtils;
 import orz.springboot.base.OrzBaseUtils;
 import orz.springboot.web.model.OrzWebRequestHeadersBo;
 
+import java.lang.reflect.Method;
+import java.net.URLEncoder;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static orz.springboot.web.OrzWebConstants.API_PACKAGE;
 
 public class OrzWebUtils {
+    // OrzWebRequestHeadersBo 上不对应请求头的属性
+    private static final Set<String> NON_HEADER_PROPERTIES = Set.of("class", "remainingMillis");
+
     public static int adjustPageSize(Integer size) {
         var page = OrzBaseUtils.getAppContext().getBean(OrzWebProps.class).getPage();
         var pageSize = size != null && size > 0 ? size : page.getDefaultSize();
@@ -28,6 +37,28 @@ public class OrzWebUtils {
         return getRequestHeaders().getClientType();
     }
 
+    /**
+     * 请求头字段的 getter，用于 vary、限流 key 等按请求头区分的配置
+     *
+     * @param field OrzWebRequestHeadersBo 的字段
+     * @return getter，不是请求头字段（例如剩余的时间预算）时为 null
+     */
+    @Nullable
+    public static Method getRequestHeaderGetter(@Nullable String field) {
+        if (field == null || NON_HEADER_PROPERTIES.contains(field)) {
+            return null;
+        }
+        var descriptor = BeanUtils.getPropertyDescriptor(OrzWebRequestHeadersBo.class, field);
+        return descriptor == null ? null : descriptor.getReadMethod();
+    }
+
+    public static String encodeNotice(String notice) {
+        if (StringUtils.isBlank(notice)) {
+            return null;
+        }
+        return URLEncoder.encode(notice, UTF_8);
+    }
+
     public static String getScope(Class<?> cls) {
         return getScopeFromPackage(cls.getPackageName());
     }
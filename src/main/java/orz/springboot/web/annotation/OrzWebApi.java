@@ -20,4 +20,19 @@ public @interface OrzWebApi {
     boolean query() default false;
 
     String description() default "";
+
+    /**
+     * 最大并发数，超过时直接拒绝（Orz-Code: rejected），0 表示不限制
+     */
+    int maxConcurrency() default 0;
+
+    /**
+     * 客户端未发送 Orz-Timeout 时的默认超时（毫秒），从 Orz-Request-Time 起算，0 表示没有截止时间；需要启用 orz.web.deadline
+     */
+    long deadlineMillis() default 0;
+
+    /**
+     * 执行超时（毫秒），超时后中断执行线程并响应 orz.web.timeout.code，0 表示使用作用域的默认值
+     */
+    long timeoutMillis() default 0;
 }
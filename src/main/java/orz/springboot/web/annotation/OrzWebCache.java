@@ -0,0 +1,39 @@
+package orz.springboot.web.annotation;
+
+import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存 query = true 接口的响应，缓存键为请求体的规范化哈希和 vary 声明的请求头字段
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface OrzWebCache {
+    /**
+     * 缓存时间
+     */
+    long ttl();
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * 最大条目数
+     */
+    int maxEntries() default 1024;
+
+    /**
+     * 响应体合计的最大字节数
+     */
+    long maxBytes() default 16 * 1024 * 1024;
+
+    /**
+     * 参与缓存键的 OrzWebRequestHeadersBo 字段，例如 clientType、clientVersion、userId
+     */
+    String[] vary() default {};
+
+    /**
+     * 是否缓存 OrzWebException 错误，命中时重新抛出，仍然由 OrzWebAdvice 构建响应
+     */
+    boolean cacheErrors() default false;
+}
@@ -0,0 +1,31 @@
+package orz.springboot.web.annotation;
+
+import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 合并 query = true 接口的并发相同请求，同一时刻只有一个请求调用接口方法，其它请求等待并共享结果或 OrzWebException
+ * <p>
+ * 请求键为反序列化后请求对象的规范化哈希和 vary 声明的请求头字段，可以和 @OrzWebCache 同时使用
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface OrzWebCoalesce {
+    /**
+     * 参与请求键的 OrzWebRequestHeadersBo 字段，例如 clientType、clientVersion、userId
+     */
+    String[] vary() default {};
+
+    /**
+     * 每个请求键的最大等待数，超出时拒绝（Orz-Code: rejected）
+     */
+    int maxWaiters() default 64;
+
+    /**
+     * 最长等待时间，超时后拒绝（Orz-Code: rejected）
+     */
+    long timeout() default 5;
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+}
@@ -0,0 +1,20 @@
+package orz.springboot.web.annotation;
+
+import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * query = false 接口按 Orz-Request-Id 幂等：同一用户（没有用户时为设备）使用相同请求 ID 的重试不会再次执行，
+ * 执行中时等待原请求完成，完成后重放记录的响应
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface OrzWebIdempotent {
+    /**
+     * 响应的记录时间
+     */
+    long ttl() default 24;
+
+    TimeUnit unit() default TimeUnit.HOURS;
+}
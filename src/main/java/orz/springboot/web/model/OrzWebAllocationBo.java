@@ -0,0 +1,36 @@
+package orz.springboot.web.model;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class OrzWebAllocationBo {
+    private final String path;
+
+    /**
+     * 采样的请求数
+     */
+    private final long count;
+
+    /**
+     * 采样请求的分配量合计（字节）
+     */
+    private final long totalBytes;
+
+    private final long maxBytes;
+
+    /**
+     * 当前线程不支持统计分配量（返回 -1）而跳过的采样数
+     */
+    private final long unsupported;
+
+    /**
+     * 直方图，桶上限（字节，含）-> 请求数，桶按 2 的幂划分，只包含非空的桶
+     */
+    private final Map<Long, Long> histogram;
+
+    public long getMeanBytes() {
+        return count == 0 ? 0 : totalBytes / count;
+    }
+}
@@ -0,0 +1,31 @@
+package orz.springboot.web.model;
+
+import jakarta.annotation.Nullable;
+import lombok.Data;
+import orz.springboot.web.annotation.OrzWebApi;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+@Data
+public class OrzWebApiBo {
+    private final Class<?> beanClass;
+    private final Method method;
+    private final OrzWebApi annotation;
+    private final String scope;
+    private final String path;
+
+    /**
+     * 错误代码 -> 错误描述，不可变
+     */
+    private final Map<String, OrzWebErrorBo> errors;
+
+    public boolean isQuery() {
+        return annotation.query();
+    }
+
+    @Nullable
+    public OrzWebErrorBo getError(@Nullable String code) {
+        return code == null ? null : errors.get(code);
+    }
+}
@@ -0,0 +1,18 @@
+package orz.springboot.web.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrzWebBatchEntryTo {
+    /**
+     * 接口路径，例如 /ScopeV1/Test/QueryV1，需要和批量接口在同一个作用域
+     */
+    private String api;
+
+    private JsonNode body;
+}
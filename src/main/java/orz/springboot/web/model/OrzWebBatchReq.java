@@ -0,0 +1,14 @@
+package orz.springboot.web.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrzWebBatchReq {
+    private List<OrzWebBatchEntryTo> entries;
+}
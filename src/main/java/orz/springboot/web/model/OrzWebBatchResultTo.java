@@ -0,0 +1,32 @@
+package orz.springboot.web.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrzWebBatchResultTo {
+    private String api;
+
+    /**
+     * 直接调用时的 HTTP 状态码，接口成功和 Orz 错误均为 200
+     */
+    private int status;
+
+    /**
+     * 错误代码，同 Orz-Code 响应头，成功时为空
+     */
+    private String code;
+
+    /**
+     * 已经 URL 编码的通知，同 Orz-Notice 响应头
+     */
+    private String notice;
+
+    /**
+     * 成功时为接口响应，错误时为暴露的错误原因（OrzWebErrorRsp）
+     */
+    private Object body;
+}
@@ -0,0 +1,17 @@
+package orz.springboot.web.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrzWebBatchRsp {
+    /**
+     * 与请求条目一一对应
+     */
+    private List<OrzWebBatchResultTo> results;
+}
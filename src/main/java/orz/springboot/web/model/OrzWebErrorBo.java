@@ -0,0 +1,40 @@
+package orz.springboot.web.model;
+
+import lombok.Data;
+import org.apache.commons.lang3.StringUtils;
+import orz.springboot.web.OrzWebUtils;
+import orz.springboot.web.annotation.OrzWebError;
+
+@Data
+public class OrzWebErrorBo {
+    private final String code;
+    private final String reason;
+    private final String notice;
+    private final boolean alarm;
+    private final boolean logging;
+    private final String description;
+
+    /**
+     * 预先构建的协议
+     */
+    private final OrzWebProtocolBo protocol;
+
+    /**
+     * 预先 URL 编码的通知，为空时不设置通知响应头
+     */
+    private final String encodedNotice;
+
+    public static OrzWebErrorBo of(OrzWebError annotation) {
+        var protocol = OrzWebProtocolBo.error(annotation.code(), annotation.notice());
+        return new OrzWebErrorBo(
+                annotation.code(),
+                annotation.reason(),
+                StringUtils.defaultIfBlank(annotation.notice(), null),
+                annotation.alarm(),
+                annotation.logging(),
+                annotation.description(),
+                protocol,
+                OrzWebUtils.encodeNotice(protocol.getNotice())
+        );
+    }
+}
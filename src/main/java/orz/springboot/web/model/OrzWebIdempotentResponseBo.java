@@ -0,0 +1,32 @@
+package orz.springboot.web.model;
+
+import lombok.Data;
+
+@Data
+public class OrzWebIdempotentResponseBo {
+    /**
+     * 响应体，错误时为 null
+     */
+    private final byte[] body;
+
+    private final String contentType;
+
+    /**
+     * Orz-Version 响应头
+     */
+    private final String version;
+
+    /**
+     * 已声明的错误代码，成功时为 null；重放时重新抛出，由 OrzWebAdvice 构建相同的 Orz-Code、Orz-Notice 响应头
+     */
+    private final String code;
+
+    /**
+     * 请求体的哈希（规范化后的 SHA-256），重放前与重试的请求体比较，不一致时拒绝；为 null 时不比较
+     */
+    private final String requestHash;
+
+    public long getSize() {
+        return (body == null ? 0 : body.length) + (requestHash == null ? 0 : requestHash.length());
+    }
+}
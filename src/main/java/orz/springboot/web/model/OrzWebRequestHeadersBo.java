@@ -1,12 +1,13 @@
 package orz.springboot.web.model;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import jakarta.annotation.Nullable;
+import lombok.*;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
 
 @Data
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class OrzWebRequestHeadersBo {
     private final String requestId;
 
@@ -43,4 +44,26 @@ public class OrzWebRequestHeadersBo {
     private final String platformVersion;
 
     private final String platformSDKVersion;
+
+    /**
+     * 截止时间（System.nanoTime），启用 orz.web.deadline 时在分发前由 Orz-Timeout 或者 @OrzWebApi(deadlineMillis) 确定
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile Long deadlineNanos;
+
+    public void bindDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 剩余的时间预算（毫秒），可以作为下游调用的超时，没有截止时间时为 null
+     */
+    @Nullable
+    public Long getRemainingMillis() {
+        var deadline = deadlineNanos;
+        return deadline == null ? null : TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
 }
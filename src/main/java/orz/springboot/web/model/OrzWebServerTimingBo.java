@@ -0,0 +1,31 @@
+package orz.springboot.web.model;
+
+import lombok.Data;
+
+@Data
+public class OrzWebServerTimingBo {
+    private final OrzWebApiBo api;
+
+    /**
+     * 请求头解析耗时（纳秒），下同
+     */
+    private final long headersNanos;
+
+    private final long readNanos;
+
+    private final long validateNanos;
+
+    private final long handlerNanos;
+
+    /**
+     * 响应处理和序列化耗时，不包含在 Server-Timing 响应头中
+     */
+    private final long writeNanos;
+
+    private final long totalNanos;
+
+    /**
+     * 处理过程中抛出的异常，成功时为 null
+     */
+    private final Throwable exception;
+}
@@ -0,0 +1,223 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 端到端压测，默认不执行，通过 ./gradlew loadTest 运行
+ * <p>
+ * 参数（系统属性，可以通过 -Porz.load.xxx 传入）：
+ * <ul>
+ *     <li>orz.load.concurrency：并发连接数，默认 16</li>
+ *     <li>orz.load.warmup / orz.load.duration：预热和压测时长（秒），默认 5 / 20</li>
+ *     <li>orz.load.mix：req.test 取值及权重，默认 6:80,1:10,5:5,4:5</li>
+ *     <li>orz.load.baseline：基线文件，默认 src/test/resources/load-baseline.properties，不存在时失败</li>
+ *     <li>orz.load.skip-baseline：为 true 时不与基线对比，用于没有基线的新环境</li>
+ *     <li>orz.load.tolerance：允许的退化百分比，默认 20</li>
+ *     <li>orz.load.update-baseline：为 true 时把本次结果写入基线文件</li>
+ * </ul>
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AppLoadTests {
+    private static final Logger logger = LoggerFactory.getLogger(AppLoadTests.class);
+    private static final String[] URLS = {"/ScopeV1/Test/QueryV1", "/ScopeV1/Test/MutationV1"};
+    private static final String[] METHODS = {"PUT", "POST"};
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void testLoad() throws Exception {
+        var concurrency = Integer.getInteger("orz.load.concurrency", 16);
+        var warmup = Duration.ofSeconds(Long.getLong("orz.load.warmup", 5));
+        var duration = Duration.ofSeconds(Long.getLong("orz.load.duration", 20));
+        var mix = parseMix(System.getProperty("orz.load.mix", "6:80,1:10,5:5,4:5"));
+        var tolerance = Double.parseDouble(System.getProperty("orz.load.tolerance", "20")) / 100;
+        var baselinePath = Path.of(System.getProperty("orz.load.baseline", "src/test/resources/load-baseline.properties"));
+        var resultsPath = Path.of(System.getProperty("orz.load.results", "build/reports/load/results.properties"));
+
+        var client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        run(client, mix, concurrency, warmup);
+        var result = run(client, mix, concurrency, duration);
+
+        var report = result.toProperties();
+        logger.info("concurrency={} duration={} mix={} {}", concurrency, duration, mix.keySet(), report);
+        write(resultsPath, report);
+        assertEquals(0, result.failures, "unexpected responses: " + result.failures);
+
+        if (Boolean.getBoolean("orz.load.update-baseline")) {
+            write(baselinePath, report);
+            return;
+        }
+        if (Boolean.getBoolean("orz.load.skip-baseline")) {
+            logger.warn("baseline comparison skipped: baseline={}", baselinePath);
+            return;
+        }
+        assertTrue(Files.exists(baselinePath), "baseline " + baselinePath + " not found, run with -Porz.load.update-baseline=true to record one or -Porz.load.skip-baseline=true to skip comparison");
+        var baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(baselinePath)) {
+            baseline.load(reader);
+        }
+        var regressions = new ArrayList<String>();
+        var throughput = Double.parseDouble(baseline.getProperty("throughput"));
+        if (result.throughput < throughput * (1 - tolerance)) {
+            regressions.add(String.format("throughput %.1f < baseline %.1f", result.throughput, throughput));
+        }
+        for (var name : List.of("p50", "p99", "p999")) {
+            var expected = Long.parseLong(baseline.getProperty(name));
+            var actual = Long.parseLong(report.getProperty(name));
+            if (actual > expected * (1 + tolerance)) {
+                regressions.add(String.format("%s %dus > baseline %dus", name, actual, expected));
+            }
+        }
+        assertTrue(regressions.isEmpty(), "regressed more than " + (int) (tolerance * 100) + "%: " + regressions);
+    }
+
+    /**
+     * 闭环压测：每个连接收到响应后立即发送下一个请求
+     */
+    private LoadResult run(HttpClient client, Map<String, Integer> mix, int concurrency, Duration duration) throws InterruptedException {
+        var cases = new ArrayList<String>();
+        mix.forEach((test, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                cases.add(test);
+            }
+        });
+        var deadline = System.nanoTime() + duration.toNanos();
+        var latencies = new long[concurrency][];
+        var counts = new int[concurrency];
+        var failures = new AtomicLong();
+        var done = new CountDownLatch(concurrency);
+        var start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            var worker = i;
+            var thread = new Thread(() -> {
+                var random = ThreadLocalRandom.current();
+                var buffer = new long[1024];
+                var count = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        var test = cases.get(random.nextInt(cases.size()));
+                        var api = random.nextInt(URLS.length);
+                        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + URLS[api]))
+                                .method(METHODS[api], HttpRequest.BodyPublishers.ofString("{\"test\":\"" + test + "\"}"))
+                                .header("Content-Type", "application/json")
+                                .build();
+                        var begin = System.nanoTime();
+                        var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        var latency = System.nanoTime() - begin;
+                        if (!isExpected(test, response)) {
+                            failures.incrementAndGet();
+                        }
+                        if (count == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, count * 2);
+                        }
+                        buffer[count++] = latency;
+                    }
+                } catch (IOException e) {
+                    failures.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latencies[worker] = buffer;
+                    counts[worker] = count;
+                    done.countDown();
+                }
+            }, "orz-load-" + i);
+            thread.start();
+        }
+        done.await();
+        var elapsed = System.nanoTime() - start;
+
+        var total = Arrays.stream(counts).sum();
+        var all = new long[total];
+        var offset = 0;
+        for (int i = 0; i < concurrency; i++) {
+            System.arraycopy(latencies[i], 0, all, offset, counts[i]);
+            offset += counts[i];
+        }
+        Arrays.sort(all);
+        return new LoadResult(total, total * 1e9 / elapsed, percentile(all, 0.5), percentile(all, 0.99), percentile(all, 0.999), failures.get());
+    }
+
+    private static boolean isExpected(String test, HttpResponse<?> response) {
+        var code = response.headers().firstValue("Orz-Code").orElse(null);
+        return switch (test) {
+            case "0", "3" -> response.statusCode() == 500;
+            case "1", "2" -> response.statusCode() == 200 && "1".equals(code);
+            case "4" -> response.statusCode() == 200 && OrzWebConstants.CODE_UNDEFINED.equals(code);
+            case "5" -> response.statusCode() == 200 && "2".equals(code);
+            default -> response.statusCode() == 200 && code == null;
+        };
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        var index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static Map<String, Integer> parseMix(String text) {
+        var mix = new LinkedHashMap<String, Integer>();
+        for (var item : text.split(",")) {
+            var pair = item.trim().split(":");
+            mix.put(pair[0].trim(), pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1);
+        }
+        return mix;
+    }
+
+    private static void write(Path path, Properties properties) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            properties.store(writer, "orz-web load test, latency in microseconds");
+        }
+    }
+
+    private record LoadResult(long requests, double throughput, long p50, long p99, long p999, long failures) {
+        private Properties toProperties() {
+            var properties = new Properties();
+            properties.setProperty("requests", String.valueOf(requests));
+            properties.setProperty("throughput", String.format(Locale.ROOT, "%.1f", throughput));
+            properties.setProperty("p50", String.valueOf(p50 / 1000));
+            properties.setProperty("p99", String.valueOf(p99 / 1000));
+            properties.setProperty("p999", String.valueOf(p999 / 1000));
+            return properties;
+        }
+    }
+}
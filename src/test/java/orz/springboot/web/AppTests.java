@@ -17,6 +17,8 @@ import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import orz.springboot.alarm.exception.OrzAlarmException;
 import orz.springboot.alarm.exception.OrzUnexpectedException;
+import orz.springboot.web.api.scope_v1.TestAsyncMutationV1Api;
+import orz.springboot.web.api.scope_v1.TestAsyncQueryV1Api;
 import orz.springboot.web.api.scope_v1.TestMutationV1Api;
 import orz.springboot.web.api.scope_v1.TestQueryV1Api;
 
@@ -293,6 +295,46 @@ class AppTests {
         }
     }
 
+    @SneakyThrows
+    @Test
+    void testScopeV1TestAsyncApi() {
+        // CompletableFuture
+        {
+            var url = "/ScopeV1/Test/AsyncQueryV1";
+            var rspClass = TestAsyncQueryV1Api.TestAsyncQueryV1ApiRsp.class;
+
+            var error = queryTestRestTemplate(url, new TestAsyncQueryV1Api.TestAsyncQueryV1ApiReq("1"), rspClass);
+            assertEquals(200, error.getStatusCode().value());
+            assertTrue(error.getHeaders().containsKey("Orz-Version"));
+            assertEquals("1", error.getHeaders().getFirst("Orz-Code"));
+
+            var response = queryTestRestTemplate(url, new TestAsyncQueryV1Api.TestAsyncQueryV1ApiReq("6"), rspClass);
+            assertEquals(200, response.getStatusCode().value());
+            assertTrue(response.getHeaders().containsKey("Orz-Version"));
+            assertFalse(response.getHeaders().containsKey("Orz-Code"));
+            assertNotNull(response.getBody());
+            assertEquals("6", response.getBody().getTest());
+        }
+
+        // DeferredResult
+        {
+            var url = "/ScopeV1/Test/AsyncMutationV1";
+            var rspClass = TestAsyncMutationV1Api.TestAsyncMutationV1ApiRsp.class;
+
+            var error = mutationTestRestTemplate(url, new TestAsyncMutationV1Api.TestAsyncMutationV1ApiReq("1"), rspClass);
+            assertEquals(200, error.getStatusCode().value());
+            assertTrue(error.getHeaders().containsKey("Orz-Version"));
+            assertEquals("1", error.getHeaders().getFirst("Orz-Code"));
+
+            var response = mutationTestRestTemplate(url, new TestAsyncMutationV1Api.TestAsyncMutationV1ApiReq("6"), rspClass);
+            assertEquals(200, response.getStatusCode().value());
+            assertTrue(response.getHeaders().containsKey("Orz-Version"));
+            assertFalse(response.getHeaders().containsKey("Orz-Code"));
+            assertNotNull(response.getBody());
+            assertEquals("6", response.getBody().getTest());
+        }
+    }
+
     @SneakyThrows
     private <T> void triggerTestInterceptor(boolean query, String baseUrl, Object req, Class<T> rspClass) {
         // 0: OrzAlarmException
@@ -0,0 +1,124 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.api.scope_v1.TestQueryV1Api;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrzWebAdaptiveLimiterTests {
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testShed() throws Exception {
+        var props = new OrzWebProps();
+        props.getAdaptiveLimit().setEnabled(true);
+        props.getAdaptiveLimit().setInitialLimit(2);
+        props.getAdaptiveLimit().setLowPriorityClientTypes(List.of("sync"));
+        props.getAdaptiveLimit().setLowPriorityRatio(0.5);
+        var limiter = new OrzWebAdaptiveLimiter(props, new OrzWebRequestHeadersExtractor(props), new StaticListableBeanFactory().getBeanProvider(OrzWebMetrics.class));
+        var limit = register(limiter);
+
+        var sync = request("sync");
+        var interactive = request("app");
+        var first = limiter.acquire(limit, bind(sync));
+        // 低优先级只在并发数低于限制的一半时接受
+        var exception = assertThrows(OrzWebThrottledException.class, () -> limiter.acquire(limit, bind(sync)));
+        assertEquals("overloaded", exception.getProtocol().getCode());
+        assertEquals(0, exception.getRetryAfterSeconds());
+        var second = limiter.acquire(limit, bind(interactive));
+        assertThrows(OrzWebThrottledException.class, () -> limiter.acquire(limit, bind(interactive)));
+        assertEquals(2, limit.getShed());
+        assertEquals(2, limit.getInFlight());
+        limiter.release(limit, first, false);
+        limiter.release(limit, second, false);
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void testLowPriorityFloor() throws Exception {
+        var props = new OrzWebProps();
+        props.getAdaptiveLimit().setEnabled(true);
+        props.getAdaptiveLimit().setMinLimit(1);
+        props.getAdaptiveLimit().setInitialLimit(1);
+        props.getAdaptiveLimit().setLowPriorityClientTypes(List.of("sync"));
+        props.getAdaptiveLimit().setLowPriorityRatio(0.5);
+        var limiter = new OrzWebAdaptiveLimiter(props, new OrzWebRequestHeadersExtractor(props), new StaticListableBeanFactory().getBeanProvider(OrzWebMetrics.class));
+        var limit = register(limiter);
+
+        // 限制很小时低优先级请求仍然可以在空闲时执行
+        var start = limiter.acquire(limit, bind(request("sync")));
+        assertThrows(OrzWebThrottledException.class, () -> limiter.acquire(limit, bind(request("sync"))));
+        limiter.release(limit, start, false);
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void testDropped() {
+        assertTrue(OrzWebAdaptiveLimiter.isDropped(new OrzWebRejectedException(OrzWebBulkheads.REJECTED_REASON, null)));
+        assertTrue(OrzWebAdaptiveLimiter.isDropped(new OrzWebRejectedException(OrzWebTimeouts.REJECTED_REASON, null)));
+        assertFalse(OrzWebAdaptiveLimiter.isDropped(new OrzWebRejectedException(OrzWebIdempotency.IN_FLIGHT_REJECTED_REASON, null)));
+        assertFalse(OrzWebAdaptiveLimiter.isDropped(new OrzWebRejectedException(OrzWebCoalescer.WAITERS_REJECTED_REASON, null)));
+        assertFalse(OrzWebAdaptiveLimiter.isDropped(new OrzWebRejectedException(OrzWebCoalescer.TIMEOUT_REJECTED_REASON, null)));
+    }
+
+    @Test
+    void testAdjust() throws Exception {
+        var props = new OrzWebProps();
+        props.getAdaptiveLimit().setEnabled(true);
+        props.getAdaptiveLimit().setInitialLimit(10);
+        props.getAdaptiveLimit().setMaxLimit(11);
+        props.getAdaptiveLimit().setBackoffRatio(0.5);
+        var limiter = new OrzWebAdaptiveLimiter(props, null, new StaticListableBeanFactory().getBeanProvider(OrzWebMetrics.class));
+        var limit = register(limiter);
+        var rtt = TimeUnit.MILLISECONDS.toNanos(10);
+        var now = System.nanoTime();
+
+        // 耗时正常且并发数达到一半时增加，不超过 maxLimit
+        limit.onSample(now, rtt, 5, false);
+        limit.onSample(now, rtt, 5, false);
+        assertEquals(11, limit.getLimit());
+        // 并发数不足一半时不增加
+        limit.onSample(now, rtt, 1, false);
+        assertEquals(11, limit.getLimit());
+
+        // 耗时超过基线时缩减，每个基线耗时内最多一次
+        now += TimeUnit.SECONDS.toNanos(1);
+        limit.onSample(now, rtt * 10, 11, false);
+        assertEquals(5, limit.getLimit());
+        limit.onSample(now, rtt * 10, 5, true);
+        assertEquals(5, limit.getLimit());
+        limit.onSample(now + TimeUnit.SECONDS.toNanos(1), rtt, 5, true);
+        assertEquals(2, limit.getLimit());
+    }
+
+    private static OrzWebAdaptiveLimiter.Limit register(OrzWebAdaptiveLimiter limiter) throws Exception {
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        limiter.register(new OrzWebApiRegistry().register(TestQueryV1Api.class, method, "ScopeV1", TestQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/QueryV1"));
+        var limit = limiter.get(method);
+        assertNotNull(limit);
+        return limit;
+    }
+
+    private static MockHttpServletRequest bind(MockHttpServletRequest request) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return request;
+    }
+
+    private static MockHttpServletRequest request(String clientType) {
+        var headers = OrzWebTestHeaders.headers("1", "device");
+        headers.set("Orz-Client-Type", clientType);
+        return OrzWebTestHeaders.request(headers);
+    }
+}
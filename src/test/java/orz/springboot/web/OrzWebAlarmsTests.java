@@ -0,0 +1,47 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrzWebAlarmsTests {
+    @Test
+    void testAggregate() throws Exception {
+        var props = new OrzWebProps();
+        props.getAlarm().setWindow(Duration.ofHours(1));
+        var alarms = new OrzWebAlarms(props);
+        alarms.start();
+        try {
+            for (int i = 0; i < 100; i++) {
+                alarms.alarm("@TEST", "1", "handler", "test", new IllegalStateException(), Map.of());
+            }
+            // 代码不同的告警分开聚合
+            alarms.alarm("@TEST", "2", "handler", "test", new IllegalStateException(), Map.of());
+            assertEquals(99, alarms.getSuppressed());
+            var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (alarms.getDispatched() < 2 && System.nanoTime() - deadline < 0) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, alarms.getDispatched());
+        } finally {
+            alarms.stop();
+        }
+    }
+
+    @Test
+    void testDropped() throws Exception {
+        var props = new OrzWebProps();
+        props.getAlarm().setQueueCapacity(1);
+        // 未启动时队列不消费
+        var alarms = new OrzWebAlarms(props);
+        assertFalse(alarms.isRunning());
+        alarms.alarm("@TEST", "1", null, "test", new IllegalStateException(), Map.of());
+        alarms.alarm("@TEST", "2", null, "test", new IllegalStateException(), Map.of());
+        alarms.alarm("@TEST", "3", null, "test", new IllegalStateException(), Map.of());
+        assertEquals(2, alarms.getDropped());
+        assertEquals(0, alarms.getDispatched());
+    }
+}
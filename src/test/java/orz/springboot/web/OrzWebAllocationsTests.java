@@ -0,0 +1,132 @@
+package orz.springboot.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.api.scope_v1.TestQueryV1Api;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class OrzWebAllocationsTests {
+    @Test
+    void testRecord() throws Exception {
+        var props = new OrzWebProps();
+        props.getAllocations().setEnabled(true);
+        props.getAllocations().setSampleRate(1);
+        var meterRegistry = new SimpleMeterRegistry();
+        var metrics = new OrzWebMetrics(props, new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class));
+        var allocations = new OrzWebAllocations(props, new MockEnvironment(), new StaticListableBeanFactory(Map.of("metrics", metrics)).getBeanProvider(OrzWebMetrics.class));
+        assumeTrue(allocations.isEnabled());
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        allocations.register(new OrzWebApiRegistry().register(TestQueryV1Api.class, method, "ScopeV1", TestQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/QueryV1"));
+
+        var sample = allocations.sample(method);
+        assertNotNull(sample);
+        var begin = allocations.getCurrentThreadAllocatedBytes();
+        var array = new byte[64 * 1024];
+        allocations.add(sample, begin);
+        // 工作线程的分配累加到同一次采样
+        var worker = new Thread(() -> {
+            var workerBegin = allocations.getCurrentThreadAllocatedBytes();
+            var workerArray = new byte[64 * 1024];
+            assertEquals(64 * 1024, workerArray.length);
+            allocations.add(sample, workerBegin);
+        });
+        worker.start();
+        worker.join();
+        allocations.record(sample);
+
+        var unsupported = allocations.sample(method);
+        assertNotNull(unsupported);
+        allocations.add(unsupported, allocations.getCurrentThreadAllocatedBytes());
+        allocations.add(unsupported, -1);
+        allocations.record(unsupported);
+
+        var result = allocations.getAllocations().get(0);
+        assertEquals("/ScopeV1/Test/QueryV1", result.getPath());
+        assertEquals(1, result.getCount());
+        assertEquals(1, result.getUnsupported());
+        assertTrue(result.getTotalBytes() >= 2L * array.length);
+        assertEquals(result.getTotalBytes(), result.getMaxBytes());
+        assertEquals(1, result.getHistogram().size());
+        assertTrue(result.getHistogram().keySet().iterator().next() >= result.getMaxBytes());
+        assertEquals(1, meterRegistry.get(OrzWebAllocations.SUMMARY_NAME).tag("action", "Query").summary().count());
+        assertEquals(1, meterRegistry.get(OrzWebAllocations.UNSUPPORTED_NAME).tag("action", "Query").functionCounter().count());
+
+        allocations.reset();
+        assertEquals(0, allocations.getAllocations().get(0).getCount());
+        assertEquals(0, allocations.getAllocations().get(0).getUnsupported());
+        // 指标不受 reset 影响
+        assertEquals(1, meterRegistry.get(OrzWebAllocations.UNSUPPORTED_NAME).tag("action", "Query").functionCounter().count());
+    }
+
+    @Test
+    void testVirtualThread() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21);
+        var props = new OrzWebProps();
+        props.getAllocations().setEnabled(true);
+        props.getAllocations().setSampleRate(1);
+        var environment = new MockEnvironment().withProperty(OrzWebAllocations.VIRTUAL_THREADS_PROPERTY, "true");
+        var allocations = new OrzWebAllocations(props, environment, new StaticListableBeanFactory().getBeanProvider(OrzWebMetrics.class));
+        assumeTrue(allocations.isEnabled());
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        allocations.register(new OrzWebApiRegistry().register(TestQueryV1Api.class, method, "ScopeV1", TestQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/QueryV1"));
+
+        // 编译目标为 Java 17，通过反射创建虚拟线程
+        var sample = allocations.sample(method);
+        assertNotNull(sample);
+        var executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        try {
+            executor.submit(() -> {
+                var begin = allocations.getCurrentThreadAllocatedBytes();
+                var array = new byte[64 * 1024];
+                assertEquals(64 * 1024, array.length);
+                allocations.add(sample, begin);
+            }).get();
+        } finally {
+            executor.shutdown();
+        }
+        allocations.record(sample);
+
+        // JVM 不支持虚拟线程时计入 unsupported，不会记录载体线程的分配量
+        var result = allocations.getAllocations().get(0);
+        assertEquals(1, result.getCount() + result.getUnsupported());
+        if (result.getCount() == 1) {
+            assertTrue(result.getTotalBytes() >= 64 * 1024);
+        }
+    }
+
+    @Test
+    void testSample() throws Exception {
+        var props = new OrzWebProps();
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        var disabled = new OrzWebAllocations(props, new MockEnvironment(), new StaticListableBeanFactory().getBeanProvider(OrzWebMetrics.class));
+        assertFalse(disabled.isEnabled());
+        assertNull(disabled.sample(method));
+
+        props.getAllocations().setEnabled(true);
+        props.getAllocations().setSampleRate(0);
+        var allocations = new OrzWebAllocations(props, new MockEnvironment(), new StaticListableBeanFactory().getBeanProvider(OrzWebMetrics.class));
+        assumeTrue(allocations.isEnabled());
+        allocations.register(new OrzWebApiRegistry().register(TestQueryV1Api.class, method, "ScopeV1", TestQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/QueryV1"));
+        assertNull(allocations.sample(method));
+    }
+
+    @Test
+    void testBucket() {
+        assertEquals(0, OrzWebAllocations.bucketOf(0));
+        assertEquals(1, OrzWebAllocations.bucketOf(1));
+        assertEquals(10, OrzWebAllocations.bucketOf(1023));
+        assertEquals(11, OrzWebAllocations.bucketOf(1024));
+        assertEquals(1023, OrzWebAllocations.bucketUpperBound(10));
+        assertEquals(Long.MAX_VALUE, OrzWebAllocations.bucketUpperBound(OrzWebAllocations.bucketOf(Long.MAX_VALUE)));
+    }
+}
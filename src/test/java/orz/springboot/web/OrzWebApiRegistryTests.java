@@ -0,0 +1,75 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.web.method.HandlerMethod;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.annotation.OrzWebError;
+import orz.springboot.web.api.scope_v1.TestMutationV1Api;
+import orz.springboot.web.api.scope_v1.TestQueryV1Api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrzWebApiRegistryTests {
+    private static final String PATH = "/ScopeV1/Test/MutationV1";
+
+    @Test
+    void testCatalog() throws Exception {
+        var registry = new OrzWebApiRegistry();
+        var method = TestMutationV1Api.class.getMethod("request", TestMutationV1Api.TestMutationV1ApiReq.class);
+        var api = registry.register(TestMutationV1Api.class, method, "ScopeV1", TestMutationV1Api.class.getAnnotation(OrzWebApi.class), PATH);
+        assertSame(api, registry.get(method));
+        assertSame(api, registry.getByPath(PATH));
+        assertNull(registry.getByPath("/ScopeV1/Test/NotExistsV1"));
+        assertTrue(registry.getAll().contains(api));
+
+        var handler = new HandlerMethod(new TestMutationV1Api(), method);
+        assertSame(api, registry.get(handler));
+        var error = registry.getError(handler, "2");
+        assertNotNull(error);
+        assertEquals("test 2", error.getReason());
+        assertTrue(error.isAlarm());
+        assertTrue(error.isLogging());
+        assertEquals("2", error.getProtocol().getCode());
+        assertNull(error.getEncodedNotice());
+        assertFalse(registry.getError(handler, "1").isAlarm());
+        assertNull(registry.getError(handler, "not_exists_code"));
+        assertNull(registry.getError(handler, null));
+    }
+
+    @Test
+    void testUnmapped() throws Exception {
+        var registry = new OrzWebApiRegistry();
+        // 未经映射注册的处理器在首次访问时构建，没有请求路径
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        var api = registry.get(new HandlerMethod(new TestQueryV1Api(), method));
+        assertNotNull(api);
+        assertEquals("ScopeV1", api.getScope());
+        assertNull(api.getPath());
+        assertSame(api, registry.get(method));
+
+        var plain = PlainHandler.class.getMethod("request");
+        assertNull(registry.get(new HandlerMethod(new PlainHandler(), plain)));
+    }
+
+    @Test
+    void testDuplicateCode() throws Exception {
+        var registry = new OrzWebApiRegistry();
+        var method = DuplicateCodeApi.class.getMethod("request");
+        var annotation = TestMutationV1Api.class.getAnnotation(OrzWebApi.class);
+        assertThrows(FatalBeanException.class, () -> registry.register(DuplicateCodeApi.class, method, "ScopeV1", annotation, "/ScopeV1/Test/DuplicateV1"));
+        assertNull(registry.get(method));
+    }
+
+    static class DuplicateCodeApi {
+        @OrzWebError(code = "1", reason = "first")
+        @OrzWebError(code = "1", reason = "second")
+        public void request() {
+        }
+    }
+
+    static class PlainHandler {
+        public void request() {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package orz.springboot.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import orz.springboot.web.model.OrzWebBatchEntryTo;
+import orz.springboot.web.model.OrzWebBatchReq;
+import orz.springboot.web.model.OrzWebBatchResultTo;
+import orz.springboot.web.model.OrzWebBatchRsp;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "orz.web.batch.enabled=true")
+class OrzWebBatchTests {
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Test
+    void testBatch() {
+        var req = new OrzWebBatchReq(List.of(
+                entry("/ScopeV1/Test/QueryV1", "6"),
+                entry("/ScopeV1/Test/QueryV1", "1"),
+                entry("/ScopeV1/Test/AsyncQueryV1", "6"),
+                entry("/ScopeV1/Test/MutationV1", "5"),
+                entry("/ScopeV1/Test/AsyncMutationV1", "1"),
+                entry("/ScopeV1/Test/QueryV1", "4"),
+                entry("/ScopeV1/Test/QueryV1", "3"),
+                entry("/ScopeV2/Test/QueryV1", "6")
+        ));
+        var response = testRestTemplate.exchange("/ScopeV1/Batch", HttpMethod.PUT, new HttpEntity<>(req, OrzWebTestHeaders.headers("batch", "test")), OrzWebBatchRsp.class);
+        assertEquals(200, response.getStatusCode().value());
+        assertTrue(response.getHeaders().containsKey("Orz-Version"));
+        assertNotNull(response.getBody());
+
+        var results = response.getBody().getResults();
+        assertEquals(8, results.size());
+        assertResult(results.get(0), 200, null);
+        assertEquals(Map.of("test", "6"), results.get(0).getBody());
+        assertResult(results.get(1), 200, "1");
+        assertResult(results.get(2), 200, null);
+        assertEquals(Map.of("test", "6"), results.get(2).getBody());
+        assertResult(results.get(3), 200, "2");
+        assertResult(results.get(4), 200, "1");
+        assertResult(results.get(5), 200, OrzWebConstants.CODE_UNDEFINED);
+        assertResult(results.get(6), 500, null);
+        assertResult(results.get(7), 404, null);
+    }
+
+    @Test
+    void testIdempotent() {
+        var req = new OrzWebBatchReq(List.of(entry("/ScopeV1/Test/IdempotentMutationV1", "6")));
+        var response = testRestTemplate.exchange("/ScopeV1/Batch", HttpMethod.PUT, new HttpEntity<>(req, OrzWebTestHeaders.headers("batch", "test")), OrzWebBatchRsp.class);
+        assertEquals(200, response.getStatusCode().value());
+        assertNotNull(response.getBody());
+        assertResult(response.getBody().getResults().get(0), 400, null);
+    }
+
+    @Test
+    void testMissingHeaders() {
+        var req = new OrzWebBatchReq(List.of(entry("/ScopeV1/Test/QueryV1", "6")));
+        var response = testRestTemplate.exchange("/ScopeV1/Batch", HttpMethod.PUT, new HttpEntity<>(req), String.class);
+        assertEquals(400, response.getStatusCode().value());
+    }
+
+    private OrzWebBatchEntryTo entry(String api, String test) {
+        return new OrzWebBatchEntryTo(api, objectMapper.valueToTree(Map.of("test", test)));
+    }
+
+    private static void assertResult(OrzWebBatchResultTo result, int status, String code) {
+        assertEquals(status, result.getStatus(), result::toString);
+        assertEquals(code, result.getCode(), result::toString);
+    }
+}
@@ -0,0 +1,46 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.Test;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.api.scope_v1.TestMutationV1Api;
+import orz.springboot.web.api.scope_v1.TestQueryV1Api;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrzWebBulkheadsTests {
+    @Test
+    void testScope() throws Exception {
+        var props = new OrzWebProps();
+        props.getBulkhead().setScopes(Map.of("ScopeV1", 1));
+        var bulkheads = new OrzWebBulkheads(props);
+        var registry = new OrzWebApiRegistry();
+        var queryMethod = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        var mutationMethod = TestMutationV1Api.class.getMethod("request", TestMutationV1Api.TestMutationV1ApiReq.class);
+        bulkheads.register(registry.register(TestQueryV1Api.class, queryMethod, "ScopeV1", TestQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/QueryV1"));
+        bulkheads.register(registry.register(TestMutationV1Api.class, mutationMethod, "ScopeV1", TestMutationV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/MutationV1"));
+
+        var query = bulkheads.get(queryMethod);
+        var mutation = bulkheads.get(mutationMethod);
+        assertNotNull(query);
+        assertNotNull(mutation);
+        assertEquals(-1, query.getAvailable());
+
+        bulkheads.acquire(query);
+        var exception = assertThrows(OrzWebRejectedException.class, () -> bulkheads.acquire(mutation));
+        assertEquals(OrzWebBulkheads.REJECTED_REASON, exception.getReason());
+        assertEquals(0, exception.getStackTrace().length);
+        bulkheads.release(query);
+        bulkheads.acquire(mutation);
+        bulkheads.release(mutation);
+    }
+
+    @Test
+    void testUnlimited() throws Exception {
+        var bulkheads = new OrzWebBulkheads(new OrzWebProps());
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        bulkheads.register(new OrzWebApiRegistry().register(TestQueryV1Api.class, method, "ScopeV1", TestQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/QueryV1"));
+        assertNull(bulkheads.get(method));
+    }
+}
@@ -0,0 +1,94 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrzWebClientIpResolverTests {
+    private static final OrzWebClientIpResolver LEGACY = new OrzWebClientIpResolver(OrzWebCidrMatcher.compile(List.of()));
+    private static final OrzWebClientIpResolver TRUSTED = new OrzWebClientIpResolver(OrzWebCidrMatcher.compile(List.of("10.0.0.0/8", "2001:db8::/32")));
+    private static final OrzWebClientIpResolver OVERWRITTEN = new OrzWebClientIpResolver(OrzWebCidrMatcher.compile(List.of("10.0.0.0/8")), true);
+
+    @Test
+    void testCidrMatcher() {
+        var matcher = OrzWebCidrMatcher.compile(List.of("10.0.0.0/8", "192.168.1.0/24", "172.16.0.1", "2001:db8::/32", "::1"));
+        assertTrue(matcher.matches("10.1.2.3"));
+        assertTrue(matcher.matches("192.168.1.255"));
+        assertFalse(matcher.matches("192.168.2.0"));
+        assertTrue(matcher.matches("172.16.0.1"));
+        assertFalse(matcher.matches("172.16.0.2"));
+        assertTrue(matcher.matches("2001:DB8::ff"));
+        assertTrue(matcher.matches("2001:db8::1%eth0"));
+        assertFalse(matcher.matches("2001:db9::1"));
+        assertTrue(matcher.matches("::1"));
+        assertTrue(matcher.matches("::ffff:10.0.0.5"));
+        assertFalse(matcher.matches("unknown"));
+        assertFalse(matcher.matches("256.1.1.1"));
+        assertFalse(matcher.matches("1::2::3"));
+        assertFalse(matcher.matches("1:2:3:4:5:6:7:8:9"));
+        assertTrue(OrzWebCidrMatcher.compile(List.of("0.0.0.0/0")).matches("8.8.8.8"));
+    }
+
+    @Test
+    void testInvalidCidr() {
+        assertThrows(IllegalArgumentException.class, () -> OrzWebCidrMatcher.compile(List.of("10.0.0.0/33")));
+        assertThrows(IllegalArgumentException.class, () -> OrzWebCidrMatcher.compile(List.of("2001:db8::/129")));
+        assertThrows(IllegalArgumentException.class, () -> OrzWebCidrMatcher.compile(List.of("localhost")));
+        assertThrows(IllegalArgumentException.class, () -> OrzWebCidrMatcher.compile(List.of("10.0.0.0/")));
+    }
+
+    @Test
+    void testLegacy() {
+        assertEquals("1.1.1.1", LEGACY.resolve(null, null, "1.1.1.1, 10.0.0.1", "10.0.0.2"));
+        assertEquals("9.9.9.9", LEGACY.resolve("9.9.9.9", null, "1.1.1.1", "10.0.0.2"));
+        assertEquals("10.0.0.2", LEGACY.resolve(null, "for=1.1.1.1", null, "10.0.0.2"));
+        assertNull(LEGACY.resolve(null, null, null, null));
+    }
+
+    @Test
+    void testUntrustedRemote() {
+        assertEquals("8.8.8.8", TRUSTED.resolve("9.9.9.9", null, "1.1.1.1", "8.8.8.8"));
+        assertNull(TRUSTED.resolve("9.9.9.9", null, "1.1.1.1", null));
+    }
+
+    @Test
+    void testForwardedFor() {
+        // 客户端伪造的客户端 IP 请求头被忽略
+        assertEquals("1.1.1.1", TRUSTED.resolve("9.9.9.9", null, "1.1.1.1", "10.0.0.2"));
+        assertEquals("10.0.0.2", TRUSTED.resolve("9.9.9.9", null, null, "10.0.0.2"));
+        // 边缘代理覆盖客户端 IP 请求头时才信任
+        assertEquals("9.9.9.9", OVERWRITTEN.resolve("9.9.9.9", null, "1.1.1.1", "10.0.0.2"));
+        assertEquals("8.8.8.8", OVERWRITTEN.resolve("9.9.9.9", null, "1.1.1.1", "8.8.8.8"));
+        assertEquals("1.1.1.1", TRUSTED.resolve(null, null, "6.6.6.6, 1.1.1.1, 10.0.0.1", "10.0.0.2"));
+        assertEquals("1.1.1.1", TRUSTED.resolve(null, null, "10.9.9.9, 1.1.1.1,10.0.0.1 ", "10.0.0.2"));
+        assertEquals("1.1.1.1", TRUSTED.resolve(null, null, "1.1.1.1:443, 10.0.0.1", "10.0.0.2"));
+        assertEquals("10.0.0.5", TRUSTED.resolve(null, null, "10.0.0.5, 10.0.0.1", "10.0.0.2"));
+        assertEquals("10.0.0.1", TRUSTED.resolve(null, null, "unknown, 10.0.0.1", "10.0.0.2"));
+        assertEquals("10.0.0.2", TRUSTED.resolve(null, null, "garbage", "10.0.0.2"));
+        assertEquals("2606:4700::1", TRUSTED.resolve(null, null, "[2606:4700::1]:8080, 2001:db8::5", "2001:db8::9"));
+        assertEquals("2606:4700::1", TRUSTED.resolve(null, null, "2606:4700::1", "::ffff:10.1.1.1"));
+    }
+
+    @Test
+    void testForwarded() {
+        assertEquals("192.0.2.60", TRUSTED.resolve(null, "for=192.0.2.60;proto=http;by=203.0.113.43, For=\"[2001:db8:cafe::17]:4711\"", "9.9.9.9", "10.0.0.2"));
+        assertEquals("192.0.2.60", TRUSTED.resolve(null, "for=192.0.2.60, for=\"10.1.1.1:4711\"", null, "10.0.0.2"));
+        assertEquals("10.0.0.2", TRUSTED.resolve(null, "for=_hidden", null, "10.0.0.2"));
+        assertEquals("10.0.0.2", TRUSTED.resolve(null, "proto=https", null, "10.0.0.2"));
+    }
+
+    @Test
+    void testLongChain() {
+        var builder = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            builder.append("6.6.6.").append(i % 250).append(", ");
+        }
+        builder.append("1.1.1.1");
+        for (int i = 0; i < 1_000; i++) {
+            builder.append(", 10.0.").append(i / 250).append('.').append(i % 250);
+        }
+        assertEquals("1.1.1.1", TRUSTED.resolve(null, null, builder.toString(), "10.0.0.2"));
+    }
+}
@@ -0,0 +1,87 @@
+package orz.springboot.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.api.scope_v1.TestCoalescedQueryV1Api;
+import orz.springboot.web.api.scope_v1.TestCoalescedQueryV1Api.TestCoalescedQueryV1ApiReq;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrzWebCoalescerTests {
+    @Test
+    void testCoalesce() throws Exception {
+        var coalescer = new OrzWebCoalescer(new OrzWebRequestKeys(null, new ObjectMapper()));
+        var coalesce = register(coalescer);
+        var invocations = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        OrzWebCoalescer.Invocation slow = () -> {
+            invocations.incrementAndGet();
+            started.countDown();
+            release.await();
+            return "result";
+        };
+
+        var leader = CompletableFuture.supplyAsync(() -> invoke(coalescer, coalesce, "a", slow));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        var follower = CompletableFuture.supplyAsync(() -> invoke(coalescer, coalesce, "a", slow));
+        var other = coalescer.invoke(coalesce, new Object[]{new TestCoalescedQueryV1ApiReq("b")}, () -> "other");
+        assertEquals("other", other);
+        while (coalesce.getWaiters() != 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        assertEquals("result", leader.get());
+        assertEquals("result", follower.get());
+        assertEquals(1, invocations.get());
+        assertEquals(0, coalesce.getInFlight());
+    }
+
+    @Test
+    void testExceptionAndTimeout() throws Exception {
+        var coalescer = new OrzWebCoalescer(new OrzWebRequestKeys(null, new ObjectMapper()));
+        var coalesce = register(coalescer);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var exception = new OrzWebException("1");
+        OrzWebCoalescer.Invocation failing = () -> {
+            started.countDown();
+            release.await();
+            throw exception;
+        };
+
+        var leader = CompletableFuture.supplyAsync(() -> invoke(coalescer, coalesce, "a", failing));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        var timeout = assertThrows(OrzWebRejectedException.class, () -> coalescer.invoke(coalesce, new Object[]{new TestCoalescedQueryV1ApiReq("a")}, failing));
+        assertEquals(OrzWebCoalescer.TIMEOUT_REJECTED_REASON, timeout.getReason());
+        var follower = CompletableFuture.supplyAsync(() -> invoke(coalescer, coalesce, "a", failing));
+        release.countDown();
+        assertSame(exception, assertThrows(ExecutionException.class, leader::get).getCause());
+        assertSame(exception, assertThrows(ExecutionException.class, follower::get).getCause());
+    }
+
+    private static OrzWebCoalescer.ApiCoalesce register(OrzWebCoalescer coalescer) throws Exception {
+        var method = TestCoalescedQueryV1Api.class.getMethod("request", TestCoalescedQueryV1ApiReq.class);
+        coalescer.register(new OrzWebApiRegistry().register(TestCoalescedQueryV1Api.class, method, "ScopeV1", TestCoalescedQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/Coalesced/QueryV1"));
+        var coalesce = coalescer.get(method);
+        assertNotNull(coalesce);
+        return coalesce;
+    }
+
+    private static Object invoke(OrzWebCoalescer coalescer, OrzWebCoalescer.ApiCoalesce coalesce, String test, OrzWebCoalescer.Invocation invocation) {
+        try {
+            return coalescer.invoke(coalesce, new Object[]{new TestCoalescedQueryV1ApiReq(test)}, invocation);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
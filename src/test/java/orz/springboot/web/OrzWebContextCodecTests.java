@@ -0,0 +1,143 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+import orz.springboot.web.model.OrzWebRequestHeadersBo;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrzWebContextCodecTests {
+    private static final OrzWebRequestHeadersBo FULL = new OrzWebRequestHeadersBo(
+            "5f0c2b1e-2f7a-4b53-9a4e-1b3c5d7e9f00",
+            LocalDateTime.of(2024, 1, 2, 3, 4, 5, 123_000_000),
+            "10001",
+            "member",
+            "203.0.113.7",
+            "ios",
+            10203,
+            "app_store",
+            LocalDateTime.of(2023, 1, 1, 0, 0),
+            LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_999),
+            "推送",
+            "device-0001",
+            "Apple",
+            "iPhone15,2",
+            "ios",
+            "iOS",
+            "17.2",
+            "17"
+    );
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testRoundTrip() {
+        assertEquals(FULL, OrzWebContextCodec.decode(OrzWebContextCodec.encode(FULL)));
+
+        var sparse = new OrzWebRequestHeadersBo("r", null, null, null, null, "android", -1, null, null, null,
+                null, null, null, null, null, null, null, "");
+        assertEquals(sparse, OrzWebContextCodec.decode(OrzWebContextCodec.encode(sparse)));
+    }
+
+    @Test
+    void testInvalid() {
+        var bytes = Base64.getUrlDecoder().decode(OrzWebContextCodec.encode(FULL));
+        assertThrows(IllegalArgumentException.class, () -> OrzWebContextCodec.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> OrzWebContextCodec.decode("!!!"));
+        bytes[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> OrzWebContextCodec.decode(Base64.getUrlEncoder().encodeToString(bytes)));
+        bytes[0] = OrzWebContextCodec.VERSION;
+        for (int length = 1; length < bytes.length; length++) {
+            var truncated = Base64.getUrlEncoder().encodeToString(Arrays.copyOf(bytes, length));
+            assertThrows(IllegalArgumentException.class, () -> OrzWebContextCodec.decode(truncated));
+        }
+        var trailing = Base64.getUrlEncoder().encodeToString(Arrays.copyOf(bytes, bytes.length + 1));
+        assertThrows(IllegalArgumentException.class, () -> OrzWebContextCodec.decode(trailing));
+
+        var random = new Random(20240102L);
+        for (int i = 0; i < 10_000; i++) {
+            var garbage = new byte[1 + random.nextInt(63)];
+            random.nextBytes(garbage);
+            garbage[0] = OrzWebContextCodec.VERSION;
+            var text = Base64.getUrlEncoder().encodeToString(garbage);
+            try {
+                OrzWebContextCodec.decode(text);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    @Test
+    void testExtract() {
+        var props = new OrzWebProps();
+        props.getRequestHeaders().setContextEnabled(true);
+        var extractor = new OrzWebRequestHeadersExtractor(props);
+
+        var request = bind(new MockHttpServletRequest());
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("Orz-Client-Ip", "203.0.113.7");
+        request.addHeader("Orz-Context", OrzWebContextCodec.encode(FULL));
+        assertEquals(FULL, extractor.extract(request));
+
+        var missing = bind(new MockHttpServletRequest());
+        missing.addHeader("Orz-Context", "AQA");
+        var exception = assertThrows(ResponseStatusException.class, () -> extractor.extract(missing));
+        assertEquals(400, exception.getStatusCode().value());
+
+        var invalid = bind(new MockHttpServletRequest());
+        invalid.addHeader("Orz-Context", "AgA");
+        exception = assertThrows(ResponseStatusException.class, () -> extractor.extract(invalid));
+        assertEquals(400, exception.getStatusCode().value());
+
+        var fallback = bind(new MockHttpServletRequest());
+        exception = assertThrows(ResponseStatusException.class, () -> extractor.extract(fallback));
+        assertEquals(400, exception.getStatusCode().value());
+    }
+
+    @Test
+    void testForgedClientIp() {
+        var props = new OrzWebProps();
+        props.getRequestHeaders().setContextEnabled(true);
+        props.getRequestHeaders().setTrustedProxies(List.of("10.0.0.0/8"));
+        props.getRequestHeaders().setClientIpOverwritten(true);
+        var extractor = new OrzWebRequestHeadersExtractor(props);
+        var forged = OrzWebContextCodec.encode(new OrzWebRequestHeadersBo("r", null, null, null, "198.51.100.1", null, null, null, null, null,
+                null, null, null, null, null, null, null, null));
+
+        // 打包请求头中的客户端 IP 被忽略，使用代理覆盖的请求头
+        var request = bind(new MockHttpServletRequest());
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("Orz-Client-Ip", "203.0.113.7");
+        request.addHeader("Orz-Context", forged);
+        assertEquals("203.0.113.7", extractor.extract(request).getClientIp());
+
+        var forwarded = bind(new MockHttpServletRequest());
+        forwarded.setRemoteAddr("10.0.0.1");
+        forwarded.addHeader("X-Forwarded-For", "203.0.113.9");
+        forwarded.addHeader("Orz-Context", forged);
+        assertEquals("203.0.113.9", extractor.extract(forwarded).getClientIp());
+
+        var direct = bind(new MockHttpServletRequest());
+        direct.setRemoteAddr("192.0.2.1");
+        direct.addHeader("Orz-Context", forged);
+        assertEquals("192.0.2.1", extractor.extract(direct).getClientIp());
+    }
+
+    private static MockHttpServletRequest bind(MockHttpServletRequest request) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return request;
+    }
+}
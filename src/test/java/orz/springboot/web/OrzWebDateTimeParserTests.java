@@ -0,0 +1,76 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OrzWebDateTimeParserTests {
+    private static final String ALPHABET = "0123456789012345678901234567890123456789-+ .:aT١";
+
+    @Test
+    void testExamples() {
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5), OrzWebDateTimeParser.parse("20240102030405"));
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 7_000_000), OrzWebDateTimeParser.parse("202401020304057"));
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 999_000_000), OrzWebDateTimeParser.parse("20240102030405000000999"));
+        assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0), OrzWebDateTimeParser.parse("20240231000000"));
+        assertEquals(LocalDateTime.of(2024, 3, 1, 0, 0), OrzWebDateTimeParser.parse("20240229240000"));
+        assertNull(OrzWebDateTimeParser.parse(null));
+        assertNull(OrzWebDateTimeParser.parse(""));
+        assertNull(OrzWebDateTimeParser.parse("2024010203040"));
+        assertNull(OrzWebDateTimeParser.parse("202401020304051000"));
+        assertNull(OrzWebDateTimeParser.parse("20240102030405-1"));
+        assertNull(OrzWebDateTimeParser.parse("20241302030405"));
+        assertNull(OrzWebDateTimeParser.parse("20240102240001"));
+    }
+
+    @Test
+    void testEquivalentToFormatter() {
+        var random = new Random(20240102L);
+        for (int i = 0; i < 200_000; i++) {
+            var text = randomText(random);
+            var expected = parseWithFormatter(text);
+            assertEquals(expected, OrzWebDateTimeParser.parse(text), text);
+            assertEquals(expected != null, OrzWebDateTimeParser.isValid(text), text);
+        }
+    }
+
+    private static String randomText(Random random) {
+        var builder = new StringBuilder();
+        var mode = random.nextInt(3);
+        if (mode == 0) {
+            var length = random.nextInt(26);
+            for (int i = 0; i < length; i++) {
+                builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            return builder.toString();
+        }
+        builder.append(String.format("%04d%02d%02d%02d%02d%02d",
+                random.nextInt(10000),
+                random.nextInt(14),
+                random.nextInt(33),
+                random.nextInt(26),
+                random.nextInt(62),
+                random.nextInt(62)
+        ));
+        var fractionLength = random.nextInt(11);
+        for (int i = 0; i < fractionLength; i++) {
+            builder.append((char) ('0' + random.nextInt(10)));
+        }
+        if (mode == 2) {
+            builder.setCharAt(random.nextInt(builder.length()), ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+
+    private static LocalDateTime parseWithFormatter(String text) {
+        try {
+            return LocalDateTime.parse(text, OrzWebRequestHeadersExtractor.DATE_TIME_FORMATTER);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.api.scope_v1.TestQueryV1Api;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrzWebDeadlinesTests {
+    private final OrzWebProps props = new OrzWebProps();
+    private final OrzWebRequestHeadersExtractor extractor = new OrzWebRequestHeadersExtractor(props);
+    private final OrzWebDeadlines deadlines = new OrzWebDeadlines(props, extractor);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testDeadline() throws Exception {
+        var method = register();
+
+        // 没有 Orz-Timeout 也没有默认超时
+        var request = request(LocalDateTime.now().minusHours(1), null);
+        deadlines.check(method, request);
+        assertNull(extractor.extract(request).getRemainingMillis());
+
+        request = request(LocalDateTime.now(), "60000");
+        deadlines.check(method, request);
+        var remaining = extractor.extract(request).getRemainingMillis();
+        assertNotNull(remaining);
+        assertTrue(remaining > 50000 && remaining <= 60000);
+
+        // 时钟偏差容忍度以内视为刚刚发出
+        request = request(LocalDateTime.now().minusMillis(500), "100");
+        deadlines.check(method, request);
+
+        var expired = request(LocalDateTime.now().minusSeconds(10), "1000");
+        var exception = assertThrows(OrzWebDeadlineExceededException.class, () -> deadlines.check(method, expired));
+        assertEquals("expired", exception.getProtocol().getCode());
+        assertTrue(extractor.extract(expired).getRemainingMillis() <= 0);
+
+        assertThrows(ResponseStatusException.class, () -> deadlines.check(method, request(LocalDateTime.now(), "-1")));
+    }
+
+    private Method register() throws Exception {
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        deadlines.register(new OrzWebApiRegistry().register(TestQueryV1Api.class, method, "ScopeV1", TestQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/QueryV1"));
+        return method;
+    }
+
+    private static MockHttpServletRequest request(LocalDateTime requestTime, String timeout) {
+        var request = OrzWebTestHeaders.request(OrzWebTestHeaders.headers("deadline", OrzWebRequestHeadersExtractor.DATE_TIME_FORMATTER.format(requestTime), "test"));
+        if (timeout != null) {
+            request.addHeader("Orz-Timeout", timeout);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return request;
+    }
+}
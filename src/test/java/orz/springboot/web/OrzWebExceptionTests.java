@@ -0,0 +1,76 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static orz.springboot.base.description.OrzDescriptionUtils.descValues;
+
+class OrzWebExceptionTests {
+    @Test
+    void testStackless() {
+        assertEquals(0, OrzWebException.stackless("1").getStackTrace().length);
+        assertEquals(0, new OrzWebException("1", null, null, true).getStackTrace().length);
+        assertNotEquals(0, new OrzWebException("1", null, null, false).getStackTrace().length);
+    }
+
+    @Test
+    void testInitializer() {
+        var props = new OrzWebProps();
+        props.getException().setStackless(true);
+        var initializer = new OrzWebExceptionInitializer(props);
+        var previous = OrzWebException.isStacklessDefault();
+        initializer.afterPropertiesSet();
+        try {
+            assertTrue(OrzWebException.isStacklessDefault());
+            assertEquals(0, new OrzWebException("1").getStackTrace().length);
+        } finally {
+            initializer.destroy();
+        }
+        // 上下文关闭后恢复，不影响之后的上下文
+        assertEquals(previous, OrzWebException.isStacklessDefault());
+    }
+
+    @Test
+    void testLazyMessage() {
+        var exception = OrzWebException.stackless("1", descValues("key", "value"));
+        var message = exception.getMessage();
+        assertTrue(message.contains("1"), message);
+        assertTrue(message.contains("value"), message);
+        assertSame(message, exception.getMessage());
+        assertEquals(message, exception.getLocalizedMessage());
+        assertTrue(exception.toString().contains(message));
+        assertNotNull(OrzWebException.stackless("2").getMessage());
+    }
+
+    @Test
+    void testTraces() {
+        var handler = new OrzWebHandler(new OrzWebProps());
+        var request = new MockHttpServletRequest("POST", "/ScopeV1/Test/QueryV1");
+        var exception = OrzWebException.stackless("1", descValues("key", "value"));
+
+        var details = handler.getTraces(request, exception, null).get(0).getDetails();
+        assertTrue(details.startsWith(OrzWebException.class.getName() + ": " + exception.getMessage()), details);
+        assertFalse(details.contains("\tat "), details);
+    }
+
+    @Test
+    void testAlarm() throws Exception {
+        var alarms = new OrzWebAlarms(new OrzWebProps());
+        alarms.start();
+        try {
+            alarms.alarm("@TEST", "1", "handler", "test", OrzWebException.stackless("1"), Map.of());
+            var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (alarms.getDispatched() < 1 && System.nanoTime() - deadline < 0) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, alarms.getDispatched());
+            assertEquals(0, alarms.getDropped());
+        } finally {
+            alarms.stop();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import orz.springboot.web.annotation.OrzWebError;
+import orz.springboot.web.model.OrzWebErrorBo;
+import orz.springboot.web.model.OrzWebErrorTraceTo;
+import orz.springboot.web.model.OrzWebProtocolBo;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrzWebHandlerTests {
+    private static final OrzWebProtocolBo PROTOCOL = OrzWebProtocolBo.error("1", "余额不足");
+
+    @Test
+    void testErrorTemplate() {
+        var props = new OrzWebProps();
+        var handler = new OrzWebHandler(props);
+        var request = new MockHttpServletRequest();
+        var exception = OrzWebException.stackless("1");
+
+        var first = handler.buildErrorResponse(PROTOCOL, "reason", null, exception, request);
+        var second = handler.buildErrorResponse(PROTOCOL, OrzWebUtils.encodeNotice(PROTOCOL.getNotice()), "reason", null, exception, request);
+        assertSame(first, second);
+        assertNull(first.getBody());
+        assertEquals("1", first.getHeaders().getFirst("Orz-Code"));
+        assertEquals(OrzWebUtils.encodeNotice("余额不足"), first.getHeaders().getFirst("Orz-Notice"));
+        assertEquals(String.valueOf(OrzWebConstants.VERSION_CURRENT), first.getHeaders().getFirst("Orz-Version"));
+
+        var custom = handler.buildErrorResponse(PROTOCOL, "custom", "reason", null, exception, request);
+        assertNotSame(first, custom);
+        assertEquals("custom", custom.getHeaders().getFirst("Orz-Notice"));
+        // 同一协议的不同通知分别缓存
+        var other = handler.buildErrorResponse(PROTOCOL, "other", "reason", null, exception, request);
+        assertEquals("other", other.getHeaders().getFirst("Orz-Notice"));
+        assertSame(custom, handler.buildErrorResponse(PROTOCOL, "custom", "reason", null, exception, request));
+        assertSame(other, handler.buildErrorResponse(PROTOCOL, "other", "reason", null, exception, request));
+        assertSame(first, handler.buildErrorResponse(PROTOCOL, "reason", null, exception, request));
+
+        props.setExposeErrorReason(true);
+        var exposed = handler.buildErrorResponse(PROTOCOL, "reason", null, exception, request);
+        assertNotSame(first, exposed);
+        assertNotNull(exposed.getBody());
+    }
+
+    @Test
+    void testEncodedNotice() throws Exception {
+        var handler = new OrzWebHandler(new OrzWebProps());
+        var request = new MockHttpServletRequest();
+        var error = OrzWebErrorBo.of(NoticeApi.class.getMethod("request").getAnnotation(OrzWebError.class));
+        var exception = OrzWebException.stackless("1");
+
+        // 预先编码的通知原样写入响应头，不会再次编码
+        var response = handler.buildErrorResponse(error.getProtocol(), error.getEncodedNotice(), "reason", null, exception, request);
+        assertEquals(OrzWebUtils.encodeNotice("余额 不足"), response.getHeaders().getFirst("Orz-Notice"));
+        assertSame(response, handler.buildErrorResponse(error.getProtocol(), "reason", null, exception, request));
+
+        var silent = handler.buildErrorResponse(error.getProtocol(), null, "reason", null, exception, request);
+        assertNull(silent.getHeaders().getFirst("Orz-Notice"));
+        assertEquals("1", silent.getHeaders().getFirst("Orz-Code"));
+    }
+
+    @Test
+    void testRebind() {
+        var props = new OrzWebProps();
+        var handler = new OrzWebHandler(props);
+        var request = new MockHttpServletRequest();
+        var exception = OrzWebException.stackless("1");
+
+        handler.processSuccessResponse(null, new ServletServerHttpResponse(new MockHttpServletResponse()));
+        var template = handler.buildErrorResponse(PROTOCOL, null, null, exception, request);
+        // 重新绑定相同的名称不会重建
+        props.getResponseHeaders().setCode(new String("Orz-Code"));
+        assertSame(template, handler.buildErrorResponse(PROTOCOL, null, null, exception, request));
+        props.getResponseHeaders().setCode("X-Code");
+
+        var response = new ServletServerHttpResponse(new MockHttpServletResponse());
+        handler.processSuccessResponse(null, response);
+        assertEquals(String.valueOf(OrzWebConstants.VERSION_CURRENT), response.getHeaders().getFirst("Orz-Version"));
+        var error = handler.buildErrorResponse(PROTOCOL, null, null, exception, request);
+        assertEquals("1", error.getHeaders().getFirst("X-Code"));
+        assertNull(error.getHeaders().getFirst("Orz-Code"));
+    }
+
+    @Test
+    void testTraces() {
+        var props = new OrzWebProps();
+        props.getTrace().setMaxFrames(2);
+        props.getTrace().setMaxCauses(2);
+        var handler = new OrzWebHandler(props);
+        var request = new MockHttpServletRequest("POST", "/ScopeV1/Test/QueryV1");
+        var root = new IllegalStateException("root");
+        root.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("a.A", "a", "A.java", 1),
+                new StackTraceElement("org.springframework.B", "b", "B.java", 2),
+                new StackTraceElement("org.springframework.C", "c", "C.java", 3),
+                new StackTraceElement("a.D", "d", "D.java", 4),
+                new StackTraceElement("a.E", "e", "E.java", 5),
+                new StackTraceElement("a.F", "f", "F.java", 6),
+        });
+        root.initCause(new IllegalArgumentException("deep"));
+        var exception = new RuntimeException("top", new RuntimeException("middle", root));
+
+        var details = handler.getTraces(request, exception, null).get(0).getDetails();
+        assertTrue(details.contains("\tat a.A.a(A.java:1)\n\t... 2 framework frames\n\tat a.D.d(D.java:4)\n\t... 2 more\n"));
+        assertTrue(details.contains("Caused by: java.lang.RuntimeException: middle"));
+        assertTrue(details.contains("Caused by: java.lang.IllegalStateException: root"));
+        assertFalse(details.contains("deep"));
+        assertTrue(details.contains("\t... 1 more causes\n"));
+        assertEquals(details, handler.getTraces(request, exception, null).get(0).getDetails());
+
+        props.getTrace().setMaxBytes((long) details.length() + 64);
+        var extra = new OrzWebErrorTraceTo("other", "/Other", "x".repeat(1024));
+        var traces = handler.getTraces(request, exception, List.of(extra, extra));
+        assertEquals(3, traces.size());
+        assertEquals(details, traces.get(0).getDetails());
+        assertEquals(64, traces.get(1).getDetails().length());
+        assertTrue(traces.get(1).getDetails().endsWith(OrzWebHandler.TRUNCATED));
+        assertNull(traces.get(2).getDetails());
+        assertEquals("other", traces.get(2).getService());
+    }
+
+    static class NoticeApi {
+        @OrzWebError(code = "1", reason = "test 1", notice = "余额 不足")
+        public void request() {
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package orz.springboot.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.api.scope_v1.TestIdempotentMutationV1Api;
+import orz.springboot.web.model.OrzWebIdempotentResponseBo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrzWebIdempotencyTests {
+    private static final String URL = "/ScopeV1/Test/IdempotentMutationV1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testReplay() throws Exception {
+        var invocations = TestIdempotentMutationV1Api.INVOCATIONS.get();
+
+        request("r1", "device", "{\"test\":\"a\"}")
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Orz-Version"))
+                .andExpect(content().json("{\"test\":\"a\"}"));
+        request("r1", "device", "{\"test\":\"a\"}")
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Orz-Version"))
+                .andExpect(content().json("{\"test\":\"a\"}"));
+        assertEquals(invocations + 1, TestIdempotentMutationV1Api.INVOCATIONS.get());
+
+        // 其它设备或者请求 ID 重新执行
+        request("r1", "other", "{\"test\":\"a\"}").andExpect(status().isOk());
+        request("r2", "device", "{\"test\":\"a\"}").andExpect(status().isOk());
+        assertEquals(invocations + 3, TestIdempotentMutationV1Api.INVOCATIONS.get());
+
+        // 已声明的错误同样重放
+        request("r3", "device", "{\"test\":\"1\"}").andExpect(header().string("Orz-Code", "1"));
+        request("r3", "device", "{\"test\":\"1\"}").andExpect(header().string("Orz-Code", "1"));
+        assertEquals(invocations + 4, TestIdempotentMutationV1Api.INVOCATIONS.get());
+
+        // 规范化后相同的请求体重放，不同的请求体拒绝
+        request("r1", "device", "{ \"test\" : \"a\" }").andExpect(status().isOk()).andExpect(content().json("{\"test\":\"a\"}"));
+        request("r1", "device", "{\"test\":\"b\"}").andExpect(status().isBadRequest());
+        assertEquals(invocations + 4, TestIdempotentMutationV1Api.INVOCATIONS.get());
+    }
+
+    @Test
+    void testWaitInFlight() throws Exception {
+        var props = new OrzWebProps();
+        var extractor = new OrzWebRequestHeadersExtractor(props);
+        var idempotency = new OrzWebIdempotency(props, extractor, new OrzWebRequestKeys(extractor, new ObjectMapper()), new StaticListableBeanFactory().getBeanProvider(OrzWebIdempotencyStore.class));
+        var method = TestIdempotentMutationV1Api.class.getMethod("request", TestIdempotentMutationV1Api.TestIdempotentMutationV1ApiReq.class);
+        idempotency.register(new OrzWebApiRegistry().register(TestIdempotentMutationV1Api.class, method, "ScopeV1", TestIdempotentMutationV1Api.class.getAnnotation(OrzWebApi.class), URL));
+        var api = idempotency.get(method);
+        assertNotNull(api);
+
+        var invocations = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        OrzWebIdempotency.Invocation invocation = (request, response) -> {
+            invocations.incrementAndGet();
+            started.countDown();
+            release.await();
+            response.getOutputStream().write("{\"test\":\"a\"}".getBytes(StandardCharsets.UTF_8));
+            return null;
+        };
+        var owner = CompletableFuture.supplyAsync(() -> handle(idempotency, api, invocation));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        var waiter = CompletableFuture.supplyAsync(() -> handle(idempotency, api, invocation));
+        Thread.sleep(50);
+        assertFalse(waiter.isDone());
+        release.countDown();
+
+        assertEquals("{\"test\":\"a\"}", owner.get(5, TimeUnit.SECONDS));
+        // 等待中的重试在原请求完成后重放，而不是重新执行
+        assertEquals("{\"test\":\"a\"}", waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void testMemoryStore() {
+        var store = new OrzWebMemoryIdempotencyStore(1, 1024 * 1024);
+        var lease = Duration.ofMinutes(1);
+        assertTrue(store.acquire("a", lease));
+        assertFalse(store.acquire("a", lease));
+        assertNull(store.get("a"));
+        store.release("a");
+        assertTrue(store.acquire("a", lease));
+        store.complete("a", new OrzWebIdempotentResponseBo(new byte[]{1}, null, null, null, null), Duration.ofHours(1));
+        assertNotNull(store.get("a"));
+        assertFalse(store.acquire("a", lease));
+        store.release("a");
+        assertNotNull(store.get("a"));
+
+        // 超出 maxEntries 后淘汰最早的记录
+        assertTrue(store.acquire("b", lease));
+        store.complete("b", new OrzWebIdempotentResponseBo(new byte[]{2}, null, null, null, null), Duration.ofHours(1));
+        assertNull(store.get("a"));
+        assertNotNull(store.get("b"));
+        assertEquals(1, store.getEvictions());
+
+        // 过期后可以重新占用
+        assertTrue(store.acquire("c", Duration.ZERO));
+        assertTrue(store.acquire("c", lease));
+    }
+
+    private static String handle(OrzWebIdempotency idempotency, OrzWebIdempotency.ApiIdempotency api, OrzWebIdempotency.Invocation invocation) {
+        var request = OrzWebTestHeaders.request(OrzWebTestHeaders.headers("wait", "device"));
+        request.setContent("{\"test\":\"a\"}".getBytes(StandardCharsets.UTF_8));
+        var response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            idempotency.handle(api, request, response, invocation);
+            return response.getContentAsString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private ResultActions request(String requestId, String deviceId, String body) throws Exception {
+        return mockMvc.perform(post(URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(OrzWebTestHeaders.headers(requestId, deviceId))
+                .content(body));
+    }
+}
@@ -0,0 +1,92 @@
+package orz.springboot.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.api.scope_v1.TestQueryV1Api;
+import orz.springboot.web.model.OrzWebProtocolBo;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrzWebMetricsTests {
+    @Test
+    void testRecord() throws Exception {
+        var meterRegistry = new SimpleMeterRegistry();
+        var metrics = new OrzWebMetrics(new OrzWebProps(), provider(meterRegistry));
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        metrics.register(new OrzWebApiRegistry().register(TestQueryV1Api.class, method, "ScopeV1", TestQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/QueryV1"));
+
+        var apiMetrics = metrics.get(method);
+        assertNotNull(apiMetrics);
+        assertTrue(metrics.isActive());
+        metrics.record(apiMetrics, null, 1_000_000, 16);
+        metrics.record(apiMetrics, null, 2_000_000, -1);
+        metrics.record(apiMetrics, new OrzWebException("1"), 1_000_000, 16);
+        metrics.record(apiMetrics, new OrzWebException("not_exists_code"), 1_000_000, 16);
+        metrics.record(apiMetrics, new OrzWebException("another_code"), 1_000_000, 16);
+        metrics.record(apiMetrics, new IllegalStateException(), 1_000_000, 16);
+        metrics.record(apiMetrics, new OrzWebDeadlineExceededException(OrzWebProtocolBo.error("expired", null), null), 1_000_000, 16);
+        metrics.record(apiMetrics, new OrzWebRejectedException(OrzWebBulkheads.REJECTED_REASON, null), 1_000_000, 16);
+
+        var success = meterRegistry.get(OrzWebMetrics.TIMER_NAME)
+                .tags("scope", "ScopeV1", "domain", "Test", "resource", "", "action", "Query", "variant", "1", "query", "true")
+                .tag(OrzWebMetrics.CODE_TAG, OrzWebMetrics.CODE_SUCCESS)
+                .timer();
+        assertEquals(2, success.count());
+        assertEquals(1, meterRegistry.get(OrzWebMetrics.SIZE_NAME).tag(OrzWebMetrics.CODE_TAG, OrzWebMetrics.CODE_SUCCESS).summary().count());
+        assertEquals(1, meterRegistry.get(OrzWebMetrics.TIMER_NAME).tag(OrzWebMetrics.CODE_TAG, "1").timer().count());
+        assertEquals(2, meterRegistry.get(OrzWebMetrics.TIMER_NAME).tag(OrzWebMetrics.CODE_TAG, OrzWebConstants.CODE_UNDEFINED).timer().count());
+        assertEquals(1, meterRegistry.get(OrzWebMetrics.TIMER_NAME).tag(OrzWebMetrics.CODE_TAG, OrzWebMetrics.CODE_EXCEPTION).timer().count());
+        assertEquals(1, meterRegistry.get(OrzWebMetrics.TIMER_NAME).tag(OrzWebMetrics.CODE_TAG, "expired").timer().count());
+        assertEquals(1, meterRegistry.get(OrzWebMetrics.TIMER_NAME).tag(OrzWebMetrics.CODE_TAG, OrzWebConstants.CODE_REJECTED).timer().count());
+        assertEquals(6, meterRegistry.get(OrzWebMetrics.TIMER_NAME).timers().size());
+    }
+
+    @Test
+    void testDisabled() throws Exception {
+        var props = new OrzWebProps();
+        props.getMetrics().setEnabled(false);
+        var metrics = new OrzWebMetrics(props, provider(new SimpleMeterRegistry()));
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        metrics.register(new OrzWebApiRegistry().register(TestQueryV1Api.class, method, "ScopeV1", TestQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/QueryV1"));
+        assertNull(metrics.get(method));
+        assertFalse(metrics.isActive());
+
+        var withoutRegistry = new OrzWebMetrics(new OrzWebProps(), new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        assertFalse(withoutRegistry.isActive());
+    }
+
+    @Test
+    void testRegisterMeters() throws Exception {
+        var meterRegistry = new SimpleMeterRegistry();
+        var metrics = new OrzWebMetrics(new OrzWebProps(), provider(meterRegistry));
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        var api = new OrzWebApiRegistry().register(TestQueryV1Api.class, method, "ScopeV1", TestQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/QueryV1");
+        var count = new LongAdder();
+        count.add(3);
+        metrics.registerCounter("test.counter", count, LongAdder::sum, OrzWebMetrics.tags(api, "result", "hit"));
+        metrics.registerGauge("test.gauge", count, LongAdder::sum, "scope", "ScopeV1");
+        var summary = metrics.registerSummary("test.summary", "test", "bytes", OrzWebMetrics.tags(api));
+        assertNotNull(summary);
+        summary.accept(16);
+
+        assertEquals(3, meterRegistry.get("test.counter").tags("action", "Query", "result", "hit").functionCounter().count());
+        assertEquals(3, meterRegistry.get("test.gauge").tag("scope", "ScopeV1").gauge().value());
+        assertEquals(16, meterRegistry.get("test.summary").tag("action", "Query").summary().totalAmount());
+
+        var props = new OrzWebProps();
+        props.getMetrics().setEnabled(false);
+        var disabled = new OrzWebMetrics(props, provider(new SimpleMeterRegistry()));
+        assertNull(disabled.registerSummary("test.summary", "test", "bytes"));
+    }
+
+    private static ObjectProvider<MeterRegistry> provider(MeterRegistry meterRegistry) {
+        return new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class);
+    }
+}
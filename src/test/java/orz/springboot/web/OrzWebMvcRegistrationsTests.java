@@ -0,0 +1,79 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+import orz.springboot.web.api.scope_v1.TestQueryV1Api;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class OrzWebMvcRegistrationsTests {
+    private static final String PATH = "/ScopeV1/Test/QueryV1";
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping mapping;
+
+    @Test
+    void testLookup() throws Exception {
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        var request = request("PUT", PATH);
+        var handler = lookup(request);
+        assertNotNull(handler);
+        assertEquals(method, handler.getMethod());
+        assertEquals(PATH, request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        assertSame(handler, request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE));
+
+        // 路由表未命中时回退到父类的匹配
+        assertThrows(HttpRequestMethodNotSupportedException.class, () -> lookup(request("POST", PATH)));
+        var plainMethod = PlainController.class.getMethod("request");
+        var plainInfo = RequestMappingInfo.paths("/Plain").methods(RequestMethod.GET).options(mapping.getBuilderConfiguration()).build();
+        mapping.registerMapping(plainInfo, new PlainController(), plainMethod);
+        var plain = lookup(request("GET", "/Plain"));
+        assertNotNull(plain);
+        assertEquals(plainMethod, plain.getMethod());
+    }
+
+    @Test
+    void testUnregister() throws Exception {
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        var info = mapping.getHandlerMethods().entrySet().stream()
+                .filter(entry -> entry.getValue().getMethod().equals(method))
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElseThrow();
+        mapping.unregisterMapping(info);
+        assertNull(lookup(request("PUT", PATH)));
+    }
+
+    private HandlerMethod lookup(MockHttpServletRequest request) throws Exception {
+        var chain = mapping.getHandler(request);
+        return chain == null ? null : (HandlerMethod) chain.getHandler();
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        var request = new MockHttpServletRequest(method, path);
+        ServletRequestPathUtils.parseAndCache(request);
+        return request;
+    }
+
+    static class PlainController {
+        public String request() {
+            return "plain";
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package orz.springboot.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.api.scope_v1.TestQueryV1Api;
+import orz.springboot.web.model.OrzWebBatchRsp;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "orz.web.rate-limit.rules[0].path=/ScopeV1/Test/QueryV1",
+        "orz.web.rate-limit.rules[0].key=clientType",
+        "orz.web.rate-limit.rules[0].limit=1",
+        "orz.web.rate-limit.rules[0].period=1h",
+        "orz.web.rate-limit.rules[0].code=slow_down",
+        "orz.web.batch.enabled=true",
+})
+@AutoConfigureMockMvc
+class OrzWebRateLimiterTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testThrottled() throws Exception {
+        request("throttled").andExpect(status().isOk()).andExpect(header().doesNotExist("Orz-Code"));
+        request("throttled")
+                .andExpect(status().isOk())
+                .andExpect(header().string("Orz-Code", "slow_down"))
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        request("other").andExpect(status().isOk()).andExpect(header().doesNotExist("Orz-Code"));
+    }
+
+    @Test
+    void testBatch() throws Exception {
+        var entry = "{\"api\":\"/ScopeV1/Test/QueryV1\",\"body\":{\"test\":\"6\"}}";
+        var content = mockMvc.perform(put("/ScopeV1/Batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .headers(headers("batch"))
+                        .content("{\"entries\":[" + entry + "," + entry + "]}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        var results = objectMapper.readValue(content, OrzWebBatchRsp.class).getResults();
+        // 两个条目并行执行，各自经过限流检查，只有一个通过
+        assertEquals(1, results.stream().filter(result -> result.getCode() == null).count(), content);
+        assertEquals(1, results.stream().filter(result -> "slow_down".equals(result.getCode())).count(), content);
+    }
+
+    @Test
+    void testInvalidHeader() throws Exception {
+        var rule = new OrzWebProps.RateLimitRuleConfig();
+        rule.setPath("/ScopeV1/Test/QueryV1");
+        rule.setKey("clientVersion");
+        rule.setLimit(1);
+        var props = new OrzWebProps();
+        props.getRateLimit().setRules(List.of(rule));
+        var limiter = new OrzWebRateLimiter(props, new OrzWebRequestHeadersExtractor(props));
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        limiter.register(new OrzWebApiRegistry().register(TestQueryV1Api.class, method, "ScopeV1", TestQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/QueryV1"));
+        var headers = headers("test");
+        headers.set("Orz-Client-Version", "invalid");
+        var request = OrzWebTestHeaders.request(headers);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            var exception = assertThrows(ResponseStatusException.class, () -> limiter.check(limiter.get(method), request));
+            assertEquals(400, exception.getStatusCode().value());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void testBucket() throws Exception {
+        var rule = new OrzWebProps.RateLimitRuleConfig();
+        rule.setScope("ScopeV1");
+        rule.setKey("deviceId");
+        rule.setLimit(2);
+        rule.setPeriod(Duration.ofSeconds(1));
+        rule.setBurst(3);
+        var props = new OrzWebProps();
+        props.getRateLimit().setRules(List.of(rule));
+        props.getRateLimit().setMaxKeys(2);
+        var limiter = new OrzWebRateLimiter(props, null);
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        limiter.register(new OrzWebApiRegistry().register(TestQueryV1Api.class, method, "ScopeV1", TestQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/QueryV1"));
+        var rules = limiter.get(method);
+        assertNotNull(rules);
+        var bucket = rules[0];
+
+        var now = System.nanoTime();
+        assertEquals(0, bucket.acquire("a", now));
+        assertEquals(0, bucket.acquire("a", now));
+        assertEquals(0, bucket.acquire("a", now));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.acquire("a", now));
+        assertEquals(0, bucket.acquire("a", now + TimeUnit.MILLISECONDS.toNanos(500)));
+
+        // 超出 maxKeys 时清理空闲的键
+        assertEquals(0, bucket.acquire("b", now));
+        assertEquals(0, bucket.acquire("c", now + TimeUnit.SECONDS.toNanos(10)));
+        assertEquals(1, bucket.getSize());
+    }
+
+    @Test
+    void testInvalidRule() {
+        var rule = new OrzWebProps.RateLimitRuleConfig();
+        rule.setPath("/ScopeV1/Test/QueryV1");
+        rule.setKey("notExists");
+        rule.setLimit(1);
+        var props = new OrzWebProps();
+        props.getRateLimit().setRules(List.of(rule));
+        assertThrows(FatalBeanException.class, () -> new OrzWebRateLimiter(props, null));
+        // 剩余的时间预算不是请求头
+        rule.setKey("remainingMillis");
+        assertThrows(FatalBeanException.class, () -> new OrzWebRateLimiter(props, null));
+    }
+
+    private ResultActions request(String clientType) throws Exception {
+        return mockMvc.perform(put("/ScopeV1/Test/QueryV1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(headers(clientType))
+                .content("{\"test\":\"6\"}"));
+    }
+
+    private static HttpHeaders headers(String clientType) {
+        var headers = OrzWebTestHeaders.headers("rate-limit", "device");
+        headers.set("Orz-Client-Type", clientType);
+        return headers;
+    }
+}
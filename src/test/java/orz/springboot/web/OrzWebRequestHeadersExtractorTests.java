@@ -0,0 +1,54 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+import orz.springboot.web.model.OrzWebRequestHeadersBo;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrzWebRequestHeadersExtractorTests {
+    private final OrzWebProps props = new OrzWebProps();
+    private final OrzWebRequestHeadersExtractor extractor = new OrzWebRequestHeadersExtractor(props);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testLazy() {
+        var headers = extract(null, null);
+        assertEquals(1, headers.getClientVersion());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0), headers.getRequestTime());
+        assertEquals("127.0.0.1", headers.getClientIp());
+    }
+
+    @Test
+    void testLazyInvalid() {
+        // 延迟解析时格式错误同样在提取时响应 400，而不是在首次读取时才失败
+        assertEquals(400, assertThrows(ResponseStatusException.class, () -> extract("Orz-Client-Version", "x")).getStatusCode().value());
+        assertEquals(400, assertThrows(ResponseStatusException.class, () -> extract("Orz-Request-Time", "20241301000000")).getStatusCode().value());
+        assertEquals(400, assertThrows(ResponseStatusException.class, () -> extract("Orz-Launch-Time", "x")).getStatusCode().value());
+    }
+
+    @Test
+    void testEagerInvalid() {
+        props.getRequestHeaders().setLazy(false);
+        assertEquals(400, assertThrows(ResponseStatusException.class, () -> extract("Orz-Initial-Time", "x")).getStatusCode().value());
+    }
+
+    private OrzWebRequestHeadersBo extract(String name, String value) {
+        var headers = OrzWebTestHeaders.headers("extract", "device");
+        if (name != null) {
+            headers.set(name, value);
+        }
+        var request = OrzWebTestHeaders.request(headers);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return extractor.extract(request);
+    }
+}
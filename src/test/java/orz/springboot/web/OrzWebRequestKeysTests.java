@@ -0,0 +1,55 @@
+package orz.springboot.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrzWebRequestKeysTests {
+    private final OrzWebProps props = new OrzWebProps();
+    private final OrzWebRequestKeys keys = new OrzWebRequestKeys(new OrzWebRequestHeadersExtractor(props), new ObjectMapper());
+    private final byte[] body = "{\"b\":1,\"a\":2}".getBytes(StandardCharsets.UTF_8);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testVary() {
+        var vary = OrzWebRequestKeys.compileVary(getClass(), "@Test", new String[]{"clientVersion"});
+        var key = keys.ofBody(body, vary, request("1"));
+        assertNotNull(key);
+        assertEquals(key, keys.ofBody("{\"a\":2,\"b\":1}".getBytes(StandardCharsets.UTF_8), vary, request("1")));
+        assertNotEquals(key, keys.ofBody(body, vary, request("2")));
+    }
+
+    @Test
+    void testInvalidHeader() {
+        // 请求头无效时不使用请求键，而不是抛出异常
+        var vary = OrzWebRequestKeys.compileVary(getClass(), "@Test", new String[]{"clientVersion"});
+        assertNull(keys.ofBody(body, vary, request("invalid")));
+    }
+
+    @Test
+    void testInvalidVary() {
+        assertThrows(FatalBeanException.class, () -> OrzWebRequestKeys.compileVary(getClass(), "@Test", new String[]{"notExists"}));
+        assertThrows(FatalBeanException.class, () -> OrzWebRequestKeys.compileVary(getClass(), "@Test", new String[]{"remainingMillis"}));
+        assertThrows(FatalBeanException.class, () -> OrzWebRequestKeys.compileVary(getClass(), "@Test", new String[]{"class"}));
+    }
+
+    private static MockHttpServletRequest request(String clientVersion) {
+        var headers = OrzWebTestHeaders.headers("keys", "device");
+        headers.set("Orz-Client-Version", clientVersion);
+        var request = OrzWebTestHeaders.request(headers);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return request;
+    }
+}
@@ -0,0 +1,65 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import orz.springboot.web.api.scope_v1.TestCachedQueryV1Api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrzWebResponseCacheTests {
+    private static final String URL = "/ScopeV1/Test/CachedQueryV1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrzWebResponseCache responseCache;
+
+    @Test
+    void testCache() throws Exception {
+        var cache = responseCache.get(TestCachedQueryV1Api.class.getMethod("request", TestCachedQueryV1Api.TestCachedQueryV1ApiReq.class));
+        assertNotNull(cache);
+        var invocations = TestCachedQueryV1Api.INVOCATIONS.get();
+
+        request("{\"test\":\"6\",\"other\":\"a\"}")
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Orz-Version"))
+                .andExpect(content().json("{\"test\":\"6\",\"other\":\"a\"}"));
+        // 字段顺序不同的请求体命中同一个缓存
+        request("{\"other\":\"a\", \"test\":\"6\"}")
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Orz-Version"))
+                .andExpect(content().json("{\"test\":\"6\",\"other\":\"a\"}"));
+        assertEquals(invocations + 1, TestCachedQueryV1Api.INVOCATIONS.get());
+        assertEquals(1, cache.getHits());
+
+        // 错误不缓存
+        request("{\"test\":\"1\"}").andExpect(header().string("Orz-Code", "1"));
+        request("{\"test\":\"1\"}").andExpect(header().string("Orz-Code", "1"));
+        assertEquals(invocations + 3, TestCachedQueryV1Api.INVOCATIONS.get());
+
+        // 超出 maxEntries 后淘汰最早的条目
+        request("{\"test\":\"7\"}").andExpect(status().isOk());
+        request("{\"test\":\"8\"}").andExpect(status().isOk());
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictions());
+        request("{\"test\":\"6\",\"other\":\"a\"}").andExpect(status().isOk());
+        assertEquals(invocations + 6, TestCachedQueryV1Api.INVOCATIONS.get());
+    }
+
+    private ResultActions request(String body) throws Exception {
+        return mockMvc.perform(put(URL).contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+}
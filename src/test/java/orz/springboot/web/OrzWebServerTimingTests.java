@@ -0,0 +1,97 @@
+package orz.springboot.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.method.HandlerMethod;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.api.scope_v1.TestQueryV1Api;
+import orz.springboot.web.model.OrzWebServerTimingBo;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "orz.web.server-timing.enabled=true")
+@AutoConfigureMockMvc
+class OrzWebServerTimingTests {
+    private static final String PATTERN = "headers;dur=\\d+\\.\\d{3}, read;dur=\\d+\\.\\d{3}, validate;dur=\\d+\\.\\d{3}, handler;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private List<OrzWebServerTimingBo> timings;
+
+    @Test
+    void testServerTiming() throws Exception {
+        timings.clear();
+        mockMvc.perform(put("/ScopeV1/Test/QueryV1").contentType(MediaType.APPLICATION_JSON).content("{\"test\":\"6\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(OrzWebServerTiming.SERVER_TIMING_HEADER, matchesPattern(PATTERN)));
+        mockMvc.perform(put("/ScopeV1/Test/QueryV1").contentType(MediaType.APPLICATION_JSON).content("{\"test\":\"1\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Orz-Code", "1"))
+                .andExpect(header().string(OrzWebServerTiming.SERVER_TIMING_HEADER, matchesPattern(PATTERN)));
+
+        assertEquals(2, timings.size());
+        var success = timings.get(0);
+        assertEquals("/ScopeV1/Test/QueryV1", success.getApi().getPath());
+        assertNull(success.getException());
+        assertTrue(success.getReadNanos() > 0);
+        assertTrue(success.getHandlerNanos() > 0);
+        assertTrue(success.getWriteNanos() > 0);
+        assertTrue(success.getTotalNanos() >= success.getReadNanos() + success.getHandlerNanos() + success.getWriteNanos());
+        assertNotNull(timings.get(1).getException());
+    }
+
+    @Test
+    void testToken() throws Exception {
+        var props = new OrzWebProps();
+        props.getServerTiming().setEnabled(false);
+        props.getServerTiming().setToken("secret");
+        var registry = new OrzWebApiRegistry();
+        var method = TestQueryV1Api.class.getMethod("request", TestQueryV1Api.TestQueryV1ApiReq.class);
+        registry.register(TestQueryV1Api.class, method, "ScopeV1", TestQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/QueryV1");
+        var serverTiming = new OrzWebServerTiming(props, registry, new StaticListableBeanFactory().getBeanProvider(OrzWebServerTimingListener.class));
+        var handlerMethod = new HandlerMethod(new TestQueryV1Api(), method);
+
+        // 来自可信代理也不行，只认令牌
+        var request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("Orz-Server-Timing", "1");
+        assertNull(serverTiming.start(request, handlerMethod));
+
+        var authorized = new MockHttpServletRequest();
+        authorized.addHeader("Orz-Server-Timing", "secret");
+        var slot = serverTiming.start(authorized, handlerMethod);
+        assertNotNull(slot);
+        serverTiming.stop(slot, new MockHttpServletResponse(), null);
+    }
+
+    @TestConfiguration
+    static class ListenerConfiguration {
+        @Bean
+        List<OrzWebServerTimingBo> timings() {
+            return new CopyOnWriteArrayList<>();
+        }
+
+        @Bean
+        OrzWebServerTimingListener listener(List<OrzWebServerTimingBo> timings) {
+            return timings::add;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package orz.springboot.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * 测试请求的 Orz 请求头
+ */
+final class OrzWebTestHeaders {
+    static final String DATE_TIME = "20240101000000";
+
+    private OrzWebTestHeaders() {
+    }
+
+    static HttpHeaders headers(String requestId, String deviceId) {
+        return headers(requestId, DATE_TIME, deviceId);
+    }
+
+    static HttpHeaders headers(String requestId, String requestTime, String deviceId) {
+        var headers = new HttpHeaders();
+        headers.set("Orz-Request-Id", requestId);
+        headers.set("Orz-Request-Time", requestTime);
+        headers.set("Orz-Client-Ip", "127.0.0.1");
+        headers.set("Orz-Client-Type", "test");
+        headers.set("Orz-Client-Version", "1");
+        headers.set("Orz-Initial-Time", DATE_TIME);
+        headers.set("Orz-Launch-Time", DATE_TIME);
+        headers.set("Orz-Device-Id", deviceId);
+        return headers;
+    }
+
+    static MockHttpServletRequest request(HttpHeaders headers) {
+        var request = new MockHttpServletRequest();
+        headers.forEach((name, values) -> values.forEach(value -> request.addHeader(name, value)));
+        return request;
+    }
+}
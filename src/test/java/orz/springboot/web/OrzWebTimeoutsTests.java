@@ -0,0 +1,116 @@
+package orz.springboot.web;
+
+import jakarta.servlet.AsyncEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.api.scope_v1.TestAsyncQueryV1Api;
+import orz.springboot.web.api.scope_v1.TestTimeoutQueryV1Api;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrzWebTimeoutsTests {
+    private static final String URL = "/ScopeV1/Test/TimeoutQueryV1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testCompleted() throws Exception {
+        var result = perform(0);
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Orz-Code"))
+                .andExpect(content().json("{\"sleepMillis\":0}"));
+    }
+
+    @Test
+    void testTimeout() throws Exception {
+        TestTimeoutQueryV1Api.STARTED = new CountDownLatch(1);
+        TestTimeoutQueryV1Api.INTERRUPTED = new CountDownLatch(1);
+        var result = perform(60000);
+        assertTrue(TestTimeoutQueryV1Api.STARTED.await(5, TimeUnit.SECONDS));
+
+        // MockMvc 不会触发超时，这里模拟容器的超时回调
+        var asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        assertNotNull(asyncContext);
+        for (var listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Orz-Code", "timeout"));
+        assertTrue(TestTimeoutQueryV1Api.INTERRUPTED.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRegister() throws Exception {
+        var props = new OrzWebProps();
+        var timeouts = new OrzWebTimeouts(props, new OrzWebAlarms(props));
+        var method = TestAsyncQueryV1Api.class.getMethod("request", TestAsyncQueryV1Api.TestAsyncQueryV1ApiReq.class);
+        var api = new OrzWebApiRegistry().register(TestAsyncQueryV1Api.class, method, "ScopeV1", TestAsyncQueryV1Api.class.getAnnotation(OrzWebApi.class), "/ScopeV1/Test/AsyncQueryV1");
+        timeouts.register(api);
+        assertNull(timeouts.get(method));
+
+        // 作用域默认值跳过异步接口
+        props.getTimeout().setScopes(Map.of("ScopeV1", Duration.ofSeconds(1)));
+        timeouts.register(api);
+        assertNull(timeouts.get(method));
+
+        var timeoutMethod = TestTimeoutQueryV1Api.class.getMethod("request", TestTimeoutQueryV1Api.TestTimeoutQueryV1ApiReq.class);
+        timeouts.register(new OrzWebApiRegistry().register(TestTimeoutQueryV1Api.class, timeoutMethod, "ScopeV1", TestTimeoutQueryV1Api.class.getAnnotation(OrzWebApi.class), URL));
+        var timeout = timeouts.get(timeoutMethod);
+        assertNotNull(timeout);
+        assertEquals(60000, timeout.getMillis());
+    }
+
+    @Test
+    void testRejected() throws Exception {
+        var props = new OrzWebProps();
+        props.getTimeout().setPoolSize(1);
+        var timeouts = new OrzWebTimeouts(props, new OrzWebAlarms(props));
+        try {
+            var method = TestTimeoutQueryV1Api.class.getMethod("request", TestTimeoutQueryV1Api.TestTimeoutQueryV1ApiReq.class);
+            timeouts.register(new OrzWebApiRegistry().register(TestTimeoutQueryV1Api.class, method, "ScopeV1", TestTimeoutQueryV1Api.class.getAnnotation(OrzWebApi.class), URL));
+            var release = new CountDownLatch(1);
+            var task = timeouts.createTask(timeouts.get(method), () -> release.await(5, TimeUnit.SECONDS));
+            var executor = task.getExecutor();
+            assertNotNull(executor);
+            var running = executor.submit(task.getCallable());
+            // 线程已满且不排队，直接拒绝
+            assertThrows(OrzWebRejectedException.class, () -> executor.submit(task.getCallable()));
+            release.countDown();
+            assertEquals(true, running.get(5, TimeUnit.SECONDS));
+        } finally {
+            timeouts.destroy();
+        }
+    }
+
+    private MvcResult perform(long sleepMillis) throws Exception {
+        return mockMvc.perform(put(URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .headers(OrzWebTestHeaders.headers("r1", "device"))
+                        .content("{\"sleepMillis\":" + sleepMillis + "}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+}
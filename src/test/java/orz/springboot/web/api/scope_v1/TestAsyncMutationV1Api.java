@@ -0,0 +1,45 @@
+package orz.springboot.web.api.scope_v1;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.async.DeferredResult;
+import orz.springboot.web.OrzWebException;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.annotation.OrzWebError;
+
+import java.util.concurrent.CompletableFuture;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.descValues;
+
+@OrzWebApi(domain = "Test", resource = "Async", action = "Mutation", variant = 1)
+public class TestAsyncMutationV1Api {
+    @OrzWebError(code = "1", reason = "test 1")
+    public DeferredResult<TestAsyncMutationV1ApiRsp> request(@Validated @RequestBody TestAsyncMutationV1ApiReq req) {
+        var result = new DeferredResult<TestAsyncMutationV1ApiRsp>();
+        CompletableFuture.runAsync(() -> {
+            if ("1".equals(req.getTest())) {
+                result.setErrorResult(new OrzWebException("1", descValues("req", req)));
+            } else {
+                result.setResult(new TestAsyncMutationV1ApiRsp(req.getTest()));
+            }
+        });
+        return result;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestAsyncMutationV1ApiReq {
+        private String test;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestAsyncMutationV1ApiRsp {
+        private String test;
+    }
+}
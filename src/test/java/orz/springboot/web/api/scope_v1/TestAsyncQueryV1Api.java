@@ -0,0 +1,41 @@
+package orz.springboot.web.api.scope_v1;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RequestBody;
+import orz.springboot.web.OrzWebException;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.annotation.OrzWebError;
+
+import java.util.concurrent.CompletableFuture;
+
+import static orz.springboot.base.description.OrzDescriptionUtils.descValues;
+
+@OrzWebApi(domain = "Test", resource = "Async", action = "Query", variant = 1, query = true)
+public class TestAsyncQueryV1Api {
+    @OrzWebError(code = "1", reason = "test 1")
+    public CompletableFuture<TestAsyncQueryV1ApiRsp> request(@Validated @RequestBody TestAsyncQueryV1ApiReq req) {
+        return CompletableFuture.supplyAsync(() -> {
+            if ("1".equals(req.getTest())) {
+                throw new OrzWebException("1", descValues("req", req));
+            }
+            return new TestAsyncQueryV1ApiRsp(req.getTest());
+        });
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestAsyncQueryV1ApiReq {
+        private String test;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestAsyncQueryV1ApiRsp {
+        private String test;
+    }
+}
@@ -0,0 +1,44 @@
+package orz.springboot.web.api.scope_v1;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RequestBody;
+import orz.springboot.web.OrzWebException;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.annotation.OrzWebCache;
+import orz.springboot.web.annotation.OrzWebError;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@OrzWebApi(domain = "Test", resource = "Cached", action = "Query", variant = 1, query = true)
+@OrzWebCache(ttl = 60, maxEntries = 2)
+public class TestCachedQueryV1Api {
+    public static final AtomicInteger INVOCATIONS = new AtomicInteger();
+
+    @OrzWebError(code = "1", reason = "test 1")
+    public TestCachedQueryV1ApiRsp request(@Validated @RequestBody TestCachedQueryV1ApiReq req) {
+        INVOCATIONS.incrementAndGet();
+        if ("1".equals(req.getTest())) {
+            throw new OrzWebException("1");
+        }
+        return new TestCachedQueryV1ApiRsp(req.getTest(), req.getOther());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestCachedQueryV1ApiReq {
+        private String test;
+        private String other;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestCachedQueryV1ApiRsp {
+        private String test;
+        private String other;
+    }
+}
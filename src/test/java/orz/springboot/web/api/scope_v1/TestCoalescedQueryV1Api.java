@@ -0,0 +1,33 @@
+package orz.springboot.web.api.scope_v1;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RequestBody;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.annotation.OrzWebCoalesce;
+
+import java.util.concurrent.TimeUnit;
+
+@OrzWebApi(domain = "Test", resource = "Coalesced", action = "Query", variant = 1, query = true)
+@OrzWebCoalesce(maxWaiters = 2, timeout = 500, unit = TimeUnit.MILLISECONDS)
+public class TestCoalescedQueryV1Api {
+    public TestCoalescedQueryV1ApiRsp request(@Validated @RequestBody TestCoalescedQueryV1ApiReq req) {
+        return new TestCoalescedQueryV1ApiRsp(req.getTest());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestCoalescedQueryV1ApiReq {
+        private String test;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestCoalescedQueryV1ApiRsp {
+        private String test;
+    }
+}
@@ -0,0 +1,42 @@
+package orz.springboot.web.api.scope_v1;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RequestBody;
+import orz.springboot.web.OrzWebException;
+import orz.springboot.web.annotation.OrzWebApi;
+import orz.springboot.web.annotation.OrzWebError;
+import orz.springboot.web.annotation.OrzWebIdempotent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@OrzWebApi(domain = "Test", resource = "Idempotent", action = "Mutation", variant = 1)
+@OrzWebIdempotent
+public class TestIdempotentMutationV1Api {
+    public static final AtomicInteger INVOCATIONS = new AtomicInteger();
+
+    @OrzWebError(code = "1", reason = "test 1")
+    public TestIdempotentMutationV1ApiRsp request(@Validated @RequestBody TestIdempotentMutationV1ApiReq req) {
+        INVOCATIONS.incrementAndGet();
+        if ("1".equals(req.getTest())) {
+            throw new OrzWebException("1");
+        }
+        return new TestIdempotentMutationV1ApiRsp(req.getTest());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestIdempotentMutationV1ApiReq {
+        private String test;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestIdempotentMutationV1ApiRsp {
+        private String test;
+    }
+}
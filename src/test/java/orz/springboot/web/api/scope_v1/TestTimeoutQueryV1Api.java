@@ -0,0 +1,43 @@
+package orz.springboot.web.api.scope_v1;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RequestBody;
+import orz.springboot.web.annotation.OrzWebApi;
+
+import java.util.concurrent.CountDownLatch;
+
+@OrzWebApi(domain = "Test", resource = "Timeout", action = "Query", variant = 1, query = true, timeoutMillis = 60000)
+public class TestTimeoutQueryV1Api {
+    public static volatile CountDownLatch STARTED = new CountDownLatch(1);
+    public static volatile CountDownLatch INTERRUPTED = new CountDownLatch(1);
+
+    public TestTimeoutQueryV1ApiRsp request(@Validated @RequestBody TestTimeoutQueryV1ApiReq req) {
+        if (req.getSleepMillis() > 0) {
+            STARTED.countDown();
+            try {
+                Thread.sleep(req.getSleepMillis());
+            } catch (InterruptedException e) {
+                INTERRUPTED.countDown();
+                Thread.currentThread().interrupt();
+            }
+        }
+        return new TestTimeoutQueryV1ApiRsp(req.getSleepMillis());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestTimeoutQueryV1ApiReq {
+        private long sleepMillis;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestTimeoutQueryV1ApiRsp {
+        private long sleepMillis;
+    }
+}